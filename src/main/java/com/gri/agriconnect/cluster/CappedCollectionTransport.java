@@ -0,0 +1,70 @@
+package com.gri.agriconnect.cluster;
+
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Follows the capped collection with a tailable, awaiting cursor. Capped collections keep insertion
+// order, so after reopening a cursor everything up to the last batch seen is skipped.
+@Component
+@ConditionalOnExpression("${agriconnect.cluster.enabled:false} and '${agriconnect.cluster.transport:capped}' == 'capped'")
+public class CappedCollectionTransport extends MongoClusterTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(CappedCollectionTransport.class);
+
+    private Object lastSeen;
+    private boolean initialized;
+
+    @Autowired
+    public CappedCollectionTransport(MongoTemplate mongoTemplate, ClusterProperties properties) {
+        super(mongoTemplate, properties);
+    }
+
+    @Override
+    protected void listen(Consumer<Document> documents) {
+        if (!initialized) {
+            // Only batches published from now on
+            Document newest = collection().find().sort(Sorts.descending("$natural")).limit(1).first();
+            lastSeen = newest != null ? newest.get("_id") : null;
+            initialized = true;
+        }
+        boolean caughtUp = lastSeen == null || collection().countDocuments(Filters.eq("_id", lastSeen)) == 0;
+        if (!caughtUp) {
+            logger.debug("Skipping cluster batches up to {}", lastSeen);
+        } else if (lastSeen != null) {
+            logger.warn("Cluster batch {} was overwritten in the capped collection; batches may have been missed", lastSeen);
+        }
+        try (MongoCursor<Document> cursor = collection().find()
+                .cursorType(CursorType.TailableAwait)
+                .maxAwaitTime(RETRY_MILLIS, TimeUnit.MILLISECONDS)
+                .iterator()) {
+            while (running()) {
+                Document document = cursor.tryNext();
+                if (document == null) {
+                    if (cursor.getServerCursor() == null) {
+                        return;
+                    }
+                    continue;
+                }
+                Object id = document.get("_id");
+                if (caughtUp) {
+                    lastSeen = id;
+                    documents.accept(document);
+                } else if (id.equals(lastSeen)) {
+                    caughtUp = true;
+                }
+            }
+        }
+    }
+}
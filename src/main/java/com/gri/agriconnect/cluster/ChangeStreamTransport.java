@@ -0,0 +1,50 @@
+package com.gri.agriconnect.cluster;
+
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Watches inserts into the collection with a change stream and resumes from the last token after
+// an error, so nothing is missed while the oplog still covers the gap. Needs a replica set.
+@Component
+@ConditionalOnExpression("${agriconnect.cluster.enabled:false} and '${agriconnect.cluster.transport:capped}' == 'change-stream'")
+public class ChangeStreamTransport extends MongoClusterTransport {
+
+    private BsonDocument resumeToken;
+
+    @Autowired
+    public ChangeStreamTransport(MongoTemplate mongoTemplate, ClusterProperties properties) {
+        super(mongoTemplate, properties);
+    }
+
+    @Override
+    protected void listen(Consumer<Document> documents) {
+        ChangeStreamIterable<Document> changes = collection()
+                .watch(List.of(Aggregates.match(Filters.eq("operationType", "insert"))))
+                .maxAwaitTime(RETRY_MILLIS, TimeUnit.MILLISECONDS);
+        if (resumeToken != null) {
+            changes = changes.resumeAfter(resumeToken);
+        }
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changes.cursor()) {
+            while (running()) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null && change.getFullDocument() != null) {
+                    documents.accept(change.getFullDocument());
+                }
+                resumeToken = cursor.getResumeToken();
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.gri.agriconnect.cluster;
+
+import com.gri.agriconnect.model.ClusterBatch;
+import com.gri.agriconnect.realtime.PresenceChangedEvent;
+import com.gri.agriconnect.service.MessagePostedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Keeps the nodes of a horizontally scaled deployment in step: cache invalidations, new messages
+// and presence changes are queued here, published to the other nodes in batches, and applied there to the
+// local caches and WebSocket subscribers.
+@Service
+@ConditionalOnProperty(prefix = "agriconnect.cluster", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ClusterProperties.class)
+public class ClusterBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterBus.class);
+
+    private final ClusterTransport transport;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClusterProperties properties;
+    private final Timer deliveryLag;
+
+    private final ConcurrentLinkedQueue<ClusterBatch.Event> pending = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() walks the whole queue
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    @Autowired
+    public ClusterBus(ClusterTransport transport, CacheManager cacheManager, ApplicationEventPublisher eventPublisher,
+                      ClusterProperties properties, MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.deliveryLag = Timer.builder("agriconnect.cluster.delivery")
+                .description("Time from publishing a cluster batch to applying it on another node")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void invalidate(String cache, Object key) {
+        // Keys that are not ids (e.g. facet filters) cannot be named remotely, so the whole cache goes
+        enqueue(key instanceof String id ? ClusterBatch.Event.invalidate(cache, id) : ClusterBatch.Event.clear(cache));
+    }
+
+    public void clear(String cache) {
+        enqueue(ClusterBatch.Event.clear(cache));
+    }
+
+    @EventListener
+    public void onMessagePosted(MessagePostedEvent event) {
+        if (!event.remote()) {
+            enqueue(ClusterBatch.Event.message(event.message()));
+        }
+    }
+
+    @EventListener
+    public void onPresenceChanged(PresenceChangedEvent event) {
+        if (!event.remote()) {
+            enqueue(ClusterBatch.Event.presence(event.change(), event.refresh()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        transport.start(this::receive);
+        logger.info("Cluster bus started as node {} over {}", properties.getNodeId(), properties.getTransport());
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+        transport.stop();
+    }
+
+    // Invalidations repeated within one batch are sent once
+    @Scheduled(fixedDelayString = "${agriconnect.cluster.flush-interval-ms:50}")
+    public void flush() {
+        while (pendingCount.get() > 0) {
+            Set<ClusterBatch.Event> events = new LinkedHashSet<>();
+            ClusterBatch.Event event;
+            while (events.size() < properties.getMaxBatchSize() && (event = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                events.add(event);
+            }
+            if (events.isEmpty()) {
+                return;
+            }
+            try {
+                transport.publish(new ClusterBatch(properties.getNodeId(), LocalDateTime.now(), new ArrayList<>(events)));
+            } catch (RuntimeException e) {
+                logger.warn("Could not publish {} cluster events: {}", events.size(), e.getMessage());
+                events.forEach(this::enqueue);
+                return;
+            }
+        }
+    }
+
+    void receive(ClusterBatch batch) {
+        if (properties.getNodeId().equals(batch.getNode()) || batch.getEvents() == null) {
+            return;
+        }
+        for (ClusterBatch.Event event : batch.getEvents()) {
+            try {
+                apply(event);
+            } catch (RuntimeException e) {
+                logger.warn("Could not apply cluster event {}: {}", event.getType(), e.getMessage());
+            }
+        }
+        if (batch.getCreatedAt() != null) {
+            deliveryLag.record(Duration.between(batch.getCreatedAt(), LocalDateTime.now()).abs());
+        }
+    }
+
+    private void apply(ClusterBatch.Event event) {
+        switch (event.getType()) {
+            case INVALIDATE -> {
+                Cache cache = localCache(event.getCache());
+                if (cache != null) {
+                    cache.evict(event.getKey());
+                }
+            }
+            case CLEAR -> {
+                Cache cache = localCache(event.getCache());
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+            case MESSAGE -> eventPublisher.publishEvent(new MessagePostedEvent(event.getMessage(), true));
+            case PRESENCE -> eventPublisher.publishEvent(new PresenceChangedEvent(event.getPresence(), true, event.isRefresh()));
+        }
+    }
+
+    // The cache itself rather than its ClusterCache wrapper, so applying an event does not publish it again
+    private Cache localCache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        return cache instanceof ClusterCache clusterCache ? clusterCache.getTargetCache() : cache;
+    }
+
+    private void enqueue(ClusterBatch.Event event) {
+        if (pendingCount.incrementAndGet() > properties.getMaxPending()) {
+            pendingCount.decrementAndGet();
+            logger.warn("Cluster event queue is full, dropping {} for {}", event.getType(), event.getCache());
+            return;
+        }
+        pending.add(event);
+    }
+}
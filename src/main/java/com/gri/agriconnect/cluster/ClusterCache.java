@@ -0,0 +1,134 @@
+package com.gri.agriconnect.cluster;
+
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// A local cache whose writes are announced to the other nodes, which drop their copy of the key.
+// A put is a cache fill, and not announced, when the same thread missed the key within the fill
+// window: @Cacheable and the batch loaders read before they put, @CachePut does not. A miss that is
+// never followed by a put (304 stamps, unless = "#result == null") must not make a later @CachePut
+// look like a fill, so misses are forgotten at the end of each request and once the window has passed.
+public class ClusterCache implements Cache {
+
+    private record Miss(String cache, Object key) {
+    }
+
+    // Bounds the misses a thread outside any request can collect
+    private static final int MAX_MISSES = 256;
+
+    // Miss -> System.nanoTime() of the miss
+    private static final ThreadLocal<Map<Miss, Long>> misses = ThreadLocal.withInitial(LinkedHashMap::new);
+
+    private final Cache target;
+    private final ClusterBus bus;
+    private final long fillWindowNanos;
+
+    public ClusterCache(Cache target, ClusterBus bus, Duration fillWindow) {
+        this.target = target;
+        this.bus = bus;
+        this.fillWindowNanos = fillWindow.toNanos();
+    }
+
+    // Called by ClusterCacheRequestFilter when a request completes
+    static void forgetMisses() {
+        misses.remove();
+    }
+
+    public Cache getTargetCache() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return missed(key, target.get(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return missed(key, target.get(key, type));
+    }
+
+    // Loads through the cache are fills by definition
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return target.get(key, valueLoader);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return target.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return target.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, value);
+        Long missedAt = misses.get().remove(new Miss(getName(), key));
+        if (missedAt == null || System.nanoTime() - missedAt > fillWindowNanos) {
+            bus.invalidate(getName(), key);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        misses.get().remove(new Miss(getName(), key));
+        return target.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+        bus.invalidate(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = target.evictIfPresent(key);
+        bus.invalidate(getName(), key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+        bus.clear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = target.invalidate();
+        bus.clear(getName());
+        return present;
+    }
+
+    private <T> T missed(Object key, T value) {
+        if (value == null) {
+            Map<Miss, Long> pending = misses.get();
+            if (pending.size() >= MAX_MISSES) {
+                pending.clear();
+            }
+            pending.put(new Miss(getName(), key), System.nanoTime());
+        }
+        return value;
+    }
+}
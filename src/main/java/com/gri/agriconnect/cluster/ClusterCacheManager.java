@@ -0,0 +1,49 @@
+package com.gri.agriconnect.cluster;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Wraps the caches of the configured CacheManager in ClusterCache, except the local-only ones
+public class ClusterCacheManager implements CacheManager {
+
+    private final CacheManager target;
+    private final ObjectProvider<ClusterBus> bus;
+    private final Set<String> localCaches;
+    private final Duration fillWindow;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public ClusterCacheManager(CacheManager target, ObjectProvider<ClusterBus> bus, Collection<String> localCaches,
+                               Duration fillWindow) {
+        this.target = target;
+        this.bus = bus;
+        this.localCaches = Set.copyOf(localCaches);
+        this.fillWindow = fillWindow;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = target.getCache(name);
+        if (cache == null || localCaches.contains(name)) {
+            return cache;
+        }
+        // The target may hand out a new instance after a cache is recreated
+        Cache wrapped = caches.get(name);
+        if (wrapped == null || ((ClusterCache) wrapped).getTargetCache() != cache) {
+            wrapped = new ClusterCache(cache, bus.getObject(), fillWindow);
+            caches.put(name, wrapped);
+        }
+        return wrapped;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return target.getCacheNames();
+    }
+}
@@ -0,0 +1,37 @@
+package com.gri.agriconnect.cluster;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMetricsRegistrar;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Cache metrics are bound by the cache's type; this hands the cache inside a ClusterCache to the
+// provider for that type, so the cache.* meters stay as they are without the cluster bus
+@Component
+@ConditionalOnProperty(prefix = "agriconnect.cluster", name = "enabled", havingValue = "true")
+public class ClusterCacheMeterBinderProvider implements CacheMeterBinderProvider<ClusterCache> {
+
+    private final ObjectProvider<CacheMeterBinderProvider<?>> providers;
+
+    public ClusterCacheMeterBinderProvider(ObjectProvider<CacheMeterBinderProvider<?>> providers) {
+        this.providers = providers;
+    }
+
+    @Override
+    public MeterBinder getMeterBinder(ClusterCache cache, Iterable<Tag> tags) {
+        return registry -> new CacheMetricsRegistrar(registry, providers.orderedStream().toList())
+                .bindCacheToRegistry(cache.getTargetCache(), toArray(tags));
+    }
+
+    private static Tag[] toArray(Iterable<Tag> tags) {
+        List<Tag> list = new ArrayList<>();
+        tags.forEach(list::add);
+        return list.toArray(new Tag[0]);
+    }
+}
@@ -0,0 +1,30 @@
+package com.gri.agriconnect.cluster;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+// Wraps the application's CacheManager so evictions and @CachePut writes reach the other nodes
+@Component
+@ConditionalOnProperty(prefix = "agriconnect.cluster", name = "enabled", havingValue = "true")
+public class ClusterCachePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<ClusterBus> bus;
+    private final ObjectProvider<ClusterProperties> properties;
+
+    public ClusterCachePostProcessor(ObjectProvider<ClusterBus> bus, ObjectProvider<ClusterProperties> properties) {
+        this.bus = bus;
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof CacheManager cacheManager && !(bean instanceof ClusterCacheManager)) {
+            ClusterProperties cluster = properties.getObject();
+            return new ClusterCacheManager(cacheManager, bus, cluster.getLocalCaches(), cluster.getFillWindow());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,28 @@
+package com.gri.agriconnect.cluster;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Forgets the cache misses of a request once it completes, so they cannot turn a @CachePut
+// of a later request on the same pooled thread into an unannounced fill
+@Component
+@ConditionalOnProperty(prefix = "agriconnect.cluster", name = "enabled", havingValue = "true")
+public class ClusterCacheRequestFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ClusterCache.forgetMisses();
+        }
+    }
+}
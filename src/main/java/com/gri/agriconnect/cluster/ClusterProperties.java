@@ -0,0 +1,45 @@
+package com.gri.agriconnect.cluster;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@ConfigurationProperties(prefix = "agriconnect.cluster")
+public class ClusterProperties {
+
+    public enum Transport {
+        CAPPED,       // tails a capped collection; works on a standalone mongod
+        CHANGE_STREAM // watches the collection; needs a replica set
+    }
+
+    // Off for a single node, where there is nobody to tell
+    private boolean enabled = false;
+
+    private Transport transport = Transport.CAPPED;
+
+    // Identifies this instance's batches, so it skips its own
+    private String nodeId = UUID.randomUUID().toString();
+
+    private String collection = "cluster_events";
+
+    // Size of the capped collection; a node that falls this far behind misses events
+    private DataSize cappedSize = DataSize.ofMegabytes(16);
+
+    // Events per published batch document
+    private int maxBatchSize = 500;
+
+    // Events kept for the next flush while Mongo is unreachable; beyond this they are dropped
+    private int maxPending = 10_000;
+
+    // Caches that are not kept in sync across nodes, e.g. because they already expire quickly
+    // A put this soon after a miss of the same key on the same thread is a cache fill, not announced
+    private Duration fillWindow = Duration.ofSeconds(2);
+
+    private List<String> localCaches = new ArrayList<>(List.of("profiles"));
+}
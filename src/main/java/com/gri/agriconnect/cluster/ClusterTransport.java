@@ -0,0 +1,16 @@
+package com.gri.agriconnect.cluster;
+
+import com.gri.agriconnect.model.ClusterBatch;
+
+import java.util.function.Consumer;
+
+// How batches get from one node to all others. Every node receives every batch, its own included.
+public interface ClusterTransport {
+
+    void publish(ClusterBatch batch);
+
+    // Delivers batches published from now on, on a thread of the transport's own
+    void start(Consumer<ClusterBatch> receiver);
+
+    void stop();
+}
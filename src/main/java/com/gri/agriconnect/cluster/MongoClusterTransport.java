@@ -0,0 +1,105 @@
+package com.gri.agriconnect.cluster;
+
+import com.gri.agriconnect.model.ClusterBatch;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.CreateCollectionOptions;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Batches are documents in one capped collection; subclasses differ in how they follow it
+abstract class MongoClusterTransport implements ClusterTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoClusterTransport.class);
+
+    // Pause before reopening a cursor that died or failed
+    static final long RETRY_MILLIS = 1000;
+
+    protected final MongoTemplate mongoTemplate;
+    protected final ClusterProperties properties;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    MongoClusterTransport(MongoTemplate mongoTemplate, ClusterProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void publish(ClusterBatch batch) {
+        mongoTemplate.insert(batch, properties.getCollection());
+    }
+
+    @Override
+    public synchronized void start(Consumer<ClusterBatch> receiver) {
+        if (running) {
+            return;
+        }
+        createCollection();
+        running = true;
+        listener = new Thread(() -> {
+            while (running) {
+                try {
+                    listen(document -> receiver.accept(mongoTemplate.getConverter().read(ClusterBatch.class, document)));
+                } catch (RuntimeException e) {
+                    if (running) {
+                        logger.warn("Cluster listener failed, retrying: {}", e.getMessage());
+                    }
+                }
+                pause();
+            }
+        }, "cluster-" + getClass().getSimpleName());
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener = null;
+        }
+    }
+
+    // Follows the collection until the cursor ends, an error occurs or the transport stops
+    protected abstract void listen(Consumer<Document> documents);
+
+    protected boolean running() {
+        return running;
+    }
+
+    protected MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(properties.getCollection());
+    }
+
+    // A tailable cursor on an empty capped collection dies at once, so a new collection gets a marker
+    // document nobody acts on
+    private void createCollection() {
+        if (mongoTemplate.collectionExists(properties.getCollection())) {
+            return;
+        }
+        try {
+            mongoTemplate.getDb().createCollection(properties.getCollection(),
+                    new CreateCollectionOptions().capped(true).sizeInBytes(properties.getCappedSize().toBytes()));
+            collection().insertOne(new Document("node", "").append("events", List.of()));
+        } catch (RuntimeException e) {
+            // Another node created it first
+            logger.debug("Could not create {}: {}", properties.getCollection(), e.getMessage());
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RETRY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
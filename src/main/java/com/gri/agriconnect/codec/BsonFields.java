@@ -0,0 +1,221 @@
+package com.gri.agriconnect.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Field readers and writers shared by the entity codecs. They follow what MappingMongoConverter
+// stores: String ids that are valid ObjectIds as ObjectId, LocalDateTime as a date in the system
+// time zone, null properties left out.
+public final class BsonFields {
+
+    private BsonFields() {
+    }
+
+    // The value an id filter has to compare against
+    public static Object id(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    public static Date date(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    static String readString(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case STRING -> reader.readString();
+            case OBJECT_ID -> reader.readObjectId().toHexString();
+            case NULL -> {
+                reader.readNull();
+                yield null;
+            }
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    static Integer readInteger(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> (int) reader.readInt64();
+            case DOUBLE -> (int) reader.readDouble();
+            case NULL -> {
+                reader.readNull();
+                yield null;
+            }
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    static Long readLong(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> (long) reader.readInt32();
+            case INT64 -> reader.readInt64();
+            case DOUBLE -> (long) reader.readDouble();
+            case NULL -> {
+                reader.readNull();
+                yield null;
+            }
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    static Double readDouble(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case DOUBLE -> reader.readDouble();
+            case INT32 -> (double) reader.readInt32();
+            case INT64 -> (double) reader.readInt64();
+            case NULL -> {
+                reader.readNull();
+                yield null;
+            }
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    static boolean readBoolean(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.BOOLEAN) {
+            return reader.readBoolean();
+        }
+        reader.skipValue();
+        return false;
+    }
+
+    static LocalDateTime readDateTime(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.DATE_TIME) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(reader.readDateTime()), ZoneId.systemDefault());
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    static List<String> readStringList(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(readString(reader));
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    // {"type": "Point", "coordinates": [x, y]}
+    static GeoJsonPoint readPoint(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        double[] coordinates = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.readName().equals("coordinates") && reader.getCurrentBsonType() == BsonType.ARRAY) {
+                coordinates = new double[2];
+                reader.readStartArray();
+                for (int i = 0; reader.readBsonType() != BsonType.END_OF_DOCUMENT; i++) {
+                    Double value = readDouble(reader);
+                    if (i < 2 && value != null) {
+                        coordinates[i] = value;
+                    }
+                }
+                reader.readEndArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return coordinates == null ? null : new GeoJsonPoint(coordinates[0], coordinates[1]);
+    }
+
+    static void writeId(BsonWriter writer, String id) {
+        if (id == null) {
+            return;
+        }
+        if (ObjectId.isValid(id)) {
+            writer.writeObjectId("_id", new ObjectId(id));
+        } else {
+            writer.writeString("_id", id);
+        }
+    }
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    static void writeInteger(BsonWriter writer, String name, Integer value) {
+        if (value != null) {
+            writer.writeInt32(name, value);
+        }
+    }
+
+    static void writeLong(BsonWriter writer, String name, Long value) {
+        if (value != null) {
+            writer.writeInt64(name, value);
+        }
+    }
+
+    static void writeDouble(BsonWriter writer, String name, Double value) {
+        if (value != null) {
+            writer.writeDouble(name, value);
+        }
+    }
+
+    static void writeDateTime(BsonWriter writer, String name, LocalDateTime value) {
+        if (value != null) {
+            writer.writeDateTime(name, value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    static void writeStringList(BsonWriter writer, String name, List<String> values) {
+        if (values == null) {
+            return;
+        }
+        writer.writeStartArray(name);
+        for (String value : values) {
+            if (value == null) {
+                writer.writeNull();
+            } else {
+                writer.writeString(value);
+            }
+        }
+        writer.writeEndArray();
+    }
+
+    static void writePoint(BsonWriter writer, String name, GeoJsonPoint point) {
+        if (point == null) {
+            return;
+        }
+        writer.writeStartDocument(name);
+        writer.writeString("type", "Point");
+        writer.writeStartArray("coordinates");
+        writer.writeDouble(point.getX());
+        writer.writeDouble(point.getY());
+        writer.writeEndArray();
+        writer.writeEndDocument();
+    }
+}
@@ -0,0 +1,50 @@
+package com.gri.agriconnect.codec;
+
+import com.gri.agriconnect.model.Conversation;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+public class ConversationCodec implements Codec<Conversation> {
+
+    @Override
+    public Conversation decode(BsonReader reader, DecoderContext decoderContext) {
+        Conversation conversation = new Conversation(null, null);
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> conversation.setConversationId(BsonFields.readString(reader));
+                case "senderId" -> conversation.setSenderId(BsonFields.readString(reader));
+                case "receiverId" -> conversation.setReceiverId(BsonFields.readString(reader));
+                case "messageIds" -> conversation.setMessageIds(BsonFields.readStringList(reader));
+                case "createdAt" -> conversation.setCreatedAt(BsonFields.readDateTime(reader));
+                case "updatedAt" -> conversation.setUpdatedAt(BsonFields.readDateTime(reader));
+                case "version" -> conversation.setVersion(BsonFields.readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return conversation;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Conversation conversation, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeId(writer, conversation.getConversationId());
+        BsonFields.writeString(writer, "senderId", conversation.getSenderId());
+        BsonFields.writeString(writer, "receiverId", conversation.getReceiverId());
+        BsonFields.writeStringList(writer, "messageIds", conversation.getMessageIds());
+        BsonFields.writeDateTime(writer, "createdAt", conversation.getCreatedAt());
+        BsonFields.writeDateTime(writer, "updatedAt", conversation.getUpdatedAt());
+        BsonFields.writeLong(writer, "version", conversation.getVersion());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Conversation> getEncoderClass() {
+        return Conversation.class;
+    }
+}
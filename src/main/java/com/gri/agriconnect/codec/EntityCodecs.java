@@ -0,0 +1,18 @@
+package com.gri.agriconnect.codec;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+// Hand-written codecs for the entities read most, ahead of the driver defaults. A typed collection
+// decodes BSON straight into the entity with them, skipping the intermediate Document and the
+// reflective property access of MappingMongoConverter. A new model field has to be added to its codec.
+public final class EntityCodecs {
+
+    public static final CodecRegistry REGISTRY = CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(new MessageCodec(), new ConversationCodec(), new ProductCodec(), new PostCodec()),
+            MongoClientSettings.getDefaultCodecRegistry());
+
+    private EntityCodecs() {
+    }
+}
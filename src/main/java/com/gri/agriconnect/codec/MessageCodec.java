@@ -0,0 +1,49 @@
+package com.gri.agriconnect.codec;
+
+import com.gri.agriconnect.model.Message;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+public class MessageCodec implements Codec<Message> {
+
+    @Override
+    public Message decode(BsonReader reader, DecoderContext decoderContext) {
+        // Same constructor the converter uses, so fields missing from the document keep its defaults
+        Message message = new Message(null, null, null);
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> message.setMessageId(BsonFields.readString(reader));
+                case "conversationId" -> message.setConversationId(BsonFields.readString(reader));
+                case "senderId" -> message.setSenderId(BsonFields.readString(reader));
+                case "content" -> message.setContent(BsonFields.readString(reader));
+                case "timestamp" -> message.setTimestamp(BsonFields.readDateTime(reader));
+                case "isRead" -> message.setRead(BsonFields.readBoolean(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return message;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Message message, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeId(writer, message.getMessageId());
+        BsonFields.writeString(writer, "conversationId", message.getConversationId());
+        BsonFields.writeString(writer, "senderId", message.getSenderId());
+        BsonFields.writeString(writer, "content", message.getContent());
+        BsonFields.writeDateTime(writer, "timestamp", message.getTimestamp());
+        writer.writeBoolean("isRead", message.isRead());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Message> getEncoderClass() {
+        return Message.class;
+    }
+}
@@ -0,0 +1,62 @@
+package com.gri.agriconnect.codec;
+
+import com.gri.agriconnect.model.Post;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+public class PostCodec implements Codec<Post> {
+
+    @Override
+    public Post decode(BsonReader reader, DecoderContext decoderContext) {
+        Post post = new Post(null, null, null);
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> post.setPostId(BsonFields.readString(reader));
+                case "userId" -> post.setUserId(BsonFields.readString(reader));
+                case "title" -> post.setTitle(BsonFields.readString(reader));
+                case "content" -> post.setContent(BsonFields.readString(reader));
+                case "favoriteCount" -> post.setFavoriteCount(BsonFields.readInteger(reader));
+                case "likeCount" -> post.setLikeCount(BsonFields.readInteger(reader));
+                case "commentCount" -> post.setCommentCount(BsonFields.readInteger(reader));
+                case "categoryTags" -> post.setCategoryTags(BsonFields.readStringList(reader));
+                case "commentIds" -> post.setCommentIds(BsonFields.readStringList(reader));
+                case "imageLinks" -> post.setImageLinks(BsonFields.readStringList(reader));
+                case "createdAt" -> post.setCreatedAt(BsonFields.readDateTime(reader));
+                case "updatedAt" -> post.setUpdatedAt(BsonFields.readDateTime(reader));
+                case "version" -> post.setVersion(BsonFields.readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return post;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Post post, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeId(writer, post.getPostId());
+        BsonFields.writeString(writer, "userId", post.getUserId());
+        BsonFields.writeString(writer, "title", post.getTitle());
+        BsonFields.writeString(writer, "content", post.getContent());
+        BsonFields.writeInteger(writer, "favoriteCount", post.getFavoriteCount());
+        BsonFields.writeInteger(writer, "likeCount", post.getLikeCount());
+        BsonFields.writeInteger(writer, "commentCount", post.getCommentCount());
+        BsonFields.writeStringList(writer, "categoryTags", post.getCategoryTags());
+        BsonFields.writeStringList(writer, "commentIds", post.getCommentIds());
+        BsonFields.writeStringList(writer, "imageLinks", post.getImageLinks());
+        BsonFields.writeDateTime(writer, "createdAt", post.getCreatedAt());
+        BsonFields.writeDateTime(writer, "updatedAt", post.getUpdatedAt());
+        BsonFields.writeLong(writer, "version", post.getVersion());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Post> getEncoderClass() {
+        return Post.class;
+    }
+}
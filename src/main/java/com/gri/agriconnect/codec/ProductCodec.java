@@ -0,0 +1,72 @@
+package com.gri.agriconnect.codec;
+
+import com.gri.agriconnect.model.Product;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+public class ProductCodec implements Codec<Product> {
+
+    @Override
+    public Product decode(BsonReader reader, DecoderContext decoderContext) {
+        Product product = new Product(null, null);
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> product.setProductId(BsonFields.readString(reader));
+                case "name" -> product.setName(BsonFields.readString(reader));
+                case "category" -> product.setCategory(BsonFields.readString(reader));
+                case "description" -> product.setDescription(BsonFields.readString(reader));
+                case "price" -> product.setPrice(BsonFields.readDouble(reader));
+                case "supplierId" -> product.setSupplierId(BsonFields.readString(reader));
+                case "stockQuantity" -> product.setStockQuantity(BsonFields.readInteger(reader));
+                case "stockBuckets" -> product.setStockBuckets(BsonFields.readInteger(reader));
+                case "favoriteCount" -> product.setFavoriteCount(BsonFields.readInteger(reader));
+                case "likeCount" -> product.setLikeCount(BsonFields.readInteger(reader));
+                case "commentCount" -> product.setCommentCount(BsonFields.readInteger(reader));
+                case "categoryTags" -> product.setCategoryTags(BsonFields.readStringList(reader));
+                case "commentIds" -> product.setCommentIds(BsonFields.readStringList(reader));
+                case "imageLinks" -> product.setImageLinks(BsonFields.readStringList(reader));
+                case "position" -> product.setPosition(BsonFields.readPoint(reader));
+                case "createdAt" -> product.setCreatedAt(BsonFields.readDateTime(reader));
+                case "updatedAt" -> product.setUpdatedAt(BsonFields.readDateTime(reader));
+                case "version" -> product.setVersion(BsonFields.readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return product;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Product product, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonFields.writeId(writer, product.getProductId());
+        BsonFields.writeString(writer, "name", product.getName());
+        BsonFields.writeString(writer, "category", product.getCategory());
+        BsonFields.writeString(writer, "description", product.getDescription());
+        BsonFields.writeDouble(writer, "price", product.getPrice());
+        BsonFields.writeString(writer, "supplierId", product.getSupplierId());
+        BsonFields.writeInteger(writer, "stockQuantity", product.getStockQuantity());
+        BsonFields.writeInteger(writer, "stockBuckets", product.getStockBuckets());
+        BsonFields.writeInteger(writer, "favoriteCount", product.getFavoriteCount());
+        BsonFields.writeInteger(writer, "likeCount", product.getLikeCount());
+        BsonFields.writeInteger(writer, "commentCount", product.getCommentCount());
+        BsonFields.writeStringList(writer, "categoryTags", product.getCategoryTags());
+        BsonFields.writeStringList(writer, "commentIds", product.getCommentIds());
+        BsonFields.writeStringList(writer, "imageLinks", product.getImageLinks());
+        BsonFields.writePoint(writer, "position", product.getPosition());
+        BsonFields.writeDateTime(writer, "createdAt", product.getCreatedAt());
+        BsonFields.writeDateTime(writer, "updatedAt", product.getUpdatedAt());
+        BsonFields.writeLong(writer, "version", product.getVersion());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Product> getEncoderClass() {
+        return Product.class;
+    }
+}
@@ -0,0 +1,20 @@
+package com.gri.agriconnect.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Entity caches keyed by id. The cache provider and its size/expiry come from
+// the spring.cache.* properties.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS = "users";
+    public static final String PRODUCTS = "products";
+    public static final String POSTS = "posts";
+    public static final String COMMENTS = "comments";
+    // Browse facet counts keyed by ProductFilter; cleared on every product write
+    public static final String PRODUCT_FACETS = "productFacets";
+    // GET /api/users/{id}/profile, kept for agriconnect.profile.cache-ttl
+    public static final String PROFILES = "profiles";
+}
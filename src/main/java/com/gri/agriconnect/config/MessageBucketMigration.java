@@ -0,0 +1,78 @@
+package com.gri.agriconnect.config;
+
+import com.gri.agriconnect.model.Message;
+import com.gri.agriconnect.model.MessageBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Copies the messages collection into message_buckets when switching to bucket storage. Message ids are
+// kept, so conversations' messageIds stay valid. Runs only while message_buckets is empty; the
+// messages collection is left in place.
+@Component
+@ConditionalOnExpression("'${agriconnect.messages.storage:document}' == 'bucket' and ${agriconnect.messages.migrate:false}")
+public class MessageBucketMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageBucketMigration.class);
+
+    private static final int INSERT_BATCH = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int bucketSize;
+
+    @Autowired
+    public MessageBucketMigration(MongoTemplate mongoTemplate, @Value("${agriconnect.messages.bucket-size:100}") int bucketSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.bucketSize = bucketSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (mongoTemplate.count(new Query(), MessageBucket.class) > 0) {
+            logger.info("message_buckets is not empty, skipping the message migration");
+            return;
+        }
+        // conversation_timestamp index order, so each conversation's messages arrive together and in send order
+        Query query = new Query().with(Sort.by("conversationId", "timestamp"));
+        List<MessageBucket> batch = new ArrayList<>();
+        MessageBucket current = null;
+        long messages = 0;
+        long buckets = 0;
+        try (Stream<Message> stream = mongoTemplate.stream(query, Message.class)) {
+            for (Message message : (Iterable<Message>) stream::iterator) {
+                if (current == null || !current.getConversationId().equals(message.getConversationId())
+                        || current.getCount() == bucketSize) {
+                    current = new MessageBucket();
+                    current.setConversationId(message.getConversationId());
+                    current.setFirstTimestamp(message.getTimestamp());
+                    batch.add(current);
+                    buckets++;
+                }
+                current.getMessages().add(MessageBucket.Entry.of(message));
+                current.setCount(current.getCount() + 1);
+                current.setUnreadCount(current.getUnreadCount() + (message.isRead() ? 0 : 1));
+                current.setLastTimestamp(message.getTimestamp());
+                messages++;
+                // The open bucket stays in the batch until it is complete
+                if (batch.size() > INSERT_BATCH) {
+                    mongoTemplate.insertAll(batch.subList(0, batch.size() - 1));
+                    batch = new ArrayList<>(List.of(current));
+                }
+            }
+        }
+        mongoTemplate.insertAll(batch);
+        logger.info("Migrated {} messages into {} buckets", messages, buckets);
+    }
+}
@@ -0,0 +1,34 @@
+package com.gri.agriconnect.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// Spring MVC's default Smile and CBOR converters build their mappers from Jackson2ObjectMapperBuilder.smile()
+// and .cbor(), without Boot's Jackson settings and module beans. These replace them with mappers configured
+// by Boot's builder, so binary responses carry the same ISO dates and GeoJSON points as JSON ones.
+@Configuration
+public class MessageConverterConfig {
+
+    @Bean
+    @ConditionalOnClass(name = "com.fasterxml.jackson.dataformat.smile.SmileFactory")
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(configured(Jackson2ObjectMapperBuilder.smile().build(), builder));
+    }
+
+    @Bean
+    @ConditionalOnClass(name = "com.fasterxml.jackson.dataformat.cbor.CBORFactory")
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(configured(Jackson2ObjectMapperBuilder.cbor().build(), builder));
+    }
+
+    // Keeps the binary factory and applies everything else Boot configured
+    private static ObjectMapper configured(ObjectMapper mapper, Jackson2ObjectMapperBuilder builder) {
+        builder.configure(mapper);
+        return mapper;
+    }
+}
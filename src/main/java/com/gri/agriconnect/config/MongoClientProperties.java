@@ -0,0 +1,76 @@
+package com.gri.agriconnect.config;
+
+import com.mongodb.WriteConcern;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.mongodb.core.MongoActionOperation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "agriconnect.mongo.client")
+public class MongoClientProperties {
+
+    @Data
+    public static class Pool {
+        // Connections per server
+        private int maxSize = 100;
+        private int minSize = 0;
+
+        // How long an operation waits for a free connection before failing
+        private Duration maxWaitTime = Duration.ofSeconds(2);
+
+        // Idle connections are closed after this; zero keeps them
+        private Duration maxConnectionIdleTime = Duration.ofMinutes(5);
+
+        // Connections being established at once per server
+        private int maxConnecting = 2;
+    }
+
+    @Data
+    public static class Reads {
+        // primary, primaryPreferred, secondary, secondaryPreferred or nearest
+        private String readPreference = "primary";
+
+        // local, available, majority, linearizable or snapshot
+        private String readConcern = "local";
+
+        // Secondaries lagging further behind are not read from; only for non-primary read preferences, at least 90s
+        private Duration maxStaleness;
+    }
+
+    private Pool pool = new Pool();
+
+    // Wire compressors in order of preference (zstd, snappy, zlib); the server picks the first it supports.
+    // zstd and snappy also need zstd-jni and snappy-java on the classpath, which the build does not ship.
+    private List<String> compressors = new ArrayList<>(List.of("zlib"));
+
+    // Every read that does not go through the query template
+    private Reads reads = new Reads();
+
+    // The query template: list and search reads that tolerate slightly stale data
+    private Reads queries = new Reads();
+
+    // Repositories (simple interface names) whose derived and CRUD reads use the query template
+    private List<String> queryRepositories = new ArrayList<>();
+
+    // Client default write concern: acknowledged, w1, w2, w3, majority, journaled or unacknowledged
+    private String writeConcern = "acknowledged";
+
+    // Per MongoTemplate operation (insert, insert_list, save, update, remove, bulk)
+    private Map<MongoActionOperation, String> operationWriteConcerns = new EnumMap<>(MongoActionOperation.class);
+
+    // Per collection, ahead of the operation settings
+    private Map<String, String> collectionWriteConcerns = new HashMap<>();
+
+    // Configured concern of a collection, or null; for writes the resolver does not see (findAndModify)
+    public WriteConcern collectionWriteConcern(String collection) {
+        String name = collectionWriteConcerns.get(collection);
+        return name != null ? MongoConfig.writeConcern(name) : null;
+    }
+}
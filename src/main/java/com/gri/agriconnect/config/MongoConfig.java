@@ -2,10 +2,159 @@ package com.gri.agriconnect.config;
 
 
 
+import com.fasterxml.jackson.databind.Module;
+import com.gri.agriconnect.codec.EntityCodecs;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import com.mongodb.TaggableReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.geo.GeoJsonModule;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableMongoAuditing
+@EnableConfigurationProperties(MongoClientProperties.class)
 public class MongoConfig {
+
+    // Bean name of the template for list and search reads; inject it with @Qualifier
+    public static final String QUERY_TEMPLATE = "queryMongoTemplate";
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
+
+    // Reads and writes GeoJsonPoint as {"type": "Point", "coordinates": [lng, lat]} in the API
+    @Bean
+    public Module geoJsonModule() {
+        return GeoJsonModule.geoJsonModule();
+    }
+
+    // Hand-written codecs for Message, Conversation, Product and Post on the client's registry. The
+    // repositories' hot finders decode with them; Spring Data keeps mapping everything else.
+    @Bean
+    public MongoClientSettingsBuilderCustomizer entityCodecs() {
+        return settings -> settings.codecRegistry(EntityCodecs.REGISTRY);
+    }
+
+    // Pool sizing, wire compression and the client-wide read and write defaults. Runs after the
+    // spring.data.mongodb.* settings, so these win over the same options in the connection string.
+    @Bean
+    public MongoClientSettingsBuilderCustomizer clientTuning(MongoClientProperties properties) {
+        MongoClientProperties.Pool pool = properties.getPool();
+        List<MongoCompressor> compressors = compressors(properties.getCompressors());
+        ReadPreference readPreference = readPreference(properties.getReads());
+        ReadConcern readConcern = readConcern(properties.getReads());
+        WriteConcern writeConcern = writeConcern(properties.getWriteConcern());
+        return settings -> settings
+                .applyToConnectionPoolSettings(builder -> builder
+                        .maxSize(pool.getMaxSize())
+                        .minSize(pool.getMinSize())
+                        .maxWaitTime(pool.getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(pool.getMaxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnecting(pool.getMaxConnecting()))
+                .compressorList(compressors)
+                .readPreference(readPreference)
+                .readConcern(readConcern)
+                .writeConcern(writeConcern);
+    }
+
+    // Replaces Boot's template so writes pick their write concern by collection and operation
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+                                       MongoClientProperties properties) {
+        MongoTemplate template = new MongoTemplate(mongoDatabaseFactory, mongoConverter);
+        template.setWriteConcernResolver(new PropertyWriteConcernResolver(properties));
+        return template;
+    }
+
+    // Same client and pool, different read preference and read concern: product browsing, search and
+    // batch jobs read from secondaries while writes and read-your-own-write paths stay on the primary
+    @Bean(QUERY_TEMPLATE)
+    public MongoTemplate queryMongoTemplate(MongoClient mongoClient, MongoDatabaseFactory mongoDatabaseFactory,
+                                            MongoConverter mongoConverter, MongoClientProperties properties) {
+        ReadPreference readPreference = readPreference(properties.getQueries());
+        ReadConcern readConcern = readConcern(properties.getQueries());
+        MongoDatabaseFactory queries = new SimpleMongoClientDatabaseFactory(mongoClient, mongoDatabaseFactory.getMongoDatabase().getName()) {
+            @Override
+            protected MongoDatabase doGetMongoDatabase(String dbName) {
+                return super.doGetMongoDatabase(dbName).withReadPreference(readPreference).withReadConcern(readConcern);
+            }
+        };
+        MongoTemplate template = new MongoTemplate(queries, mongoConverter);
+        template.setWriteConcernResolver(new PropertyWriteConcernResolver(properties));
+        return template;
+    }
+
+    // zstd and snappy need zstd-jni and snappy-java at runtime; without them they are left out
+    static List<MongoCompressor> compressors(List<String> names) {
+        List<MongoCompressor> compressors = new ArrayList<>();
+        for (String name : names) {
+            switch (name.trim().toLowerCase()) {
+                case "zstd" -> {
+                    if (available("com.github.luben.zstd.Zstd", name)) {
+                        compressors.add(MongoCompressor.createZstdCompressor());
+                    }
+                }
+                case "snappy" -> {
+                    if (available("org.xerial.snappy.Snappy", name)) {
+                        compressors.add(MongoCompressor.createSnappyCompressor());
+                    }
+                }
+                case "zlib" -> compressors.add(MongoCompressor.createZlibCompressor());
+                case "", "none" -> {
+                }
+                default -> throw new IllegalArgumentException("Unknown Mongo compressor: " + name);
+            }
+        }
+        return compressors;
+    }
+
+    private static boolean available(String className, String compressor) {
+        if (ClassUtils.isPresent(className, MongoConfig.class.getClassLoader())) {
+            return true;
+        }
+        logger.warn("Mongo compressor {} is configured but {} is not on the classpath; skipping it", compressor, className);
+        return false;
+    }
+
+    static ReadPreference readPreference(MongoClientProperties.Reads reads) {
+        ReadPreference preference = ReadPreference.valueOf(reads.getReadPreference());
+        if (reads.getMaxStaleness() != null && preference instanceof TaggableReadPreference) {
+            preference = ReadPreference.valueOf(reads.getReadPreference(), List.of(),
+                    reads.getMaxStaleness().toSeconds(), TimeUnit.SECONDS);
+        }
+        return preference;
+    }
+
+    static ReadConcern readConcern(MongoClientProperties.Reads reads) {
+        return new ReadConcern(ReadConcernLevel.fromString(reads.getReadConcern()));
+    }
+
+    static WriteConcern writeConcern(String name) {
+        WriteConcern concern = WriteConcern.valueOf(name);
+        if (concern == null) {
+            throw new IllegalArgumentException("Unknown Mongo write concern: " + name);
+        }
+        return concern;
+    }
 }
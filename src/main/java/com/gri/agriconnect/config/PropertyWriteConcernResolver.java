@@ -0,0 +1,33 @@
+package com.gri.agriconnect.config;
+
+import com.mongodb.WriteConcern;
+import org.springframework.data.mongodb.core.MongoAction;
+import org.springframework.data.mongodb.core.MongoActionOperation;
+import org.springframework.data.mongodb.core.WriteConcernResolver;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// Write concern of MongoTemplate writes by collection, then by operation, then the client default.
+// findAndModify and aggregation writes do not consult the resolver and use the client default, unless
+// the repository applies MongoClientProperties.collectionWriteConcern itself.
+class PropertyWriteConcernResolver implements WriteConcernResolver {
+
+    private final Map<String, WriteConcern> byCollection = new HashMap<>();
+    private final Map<MongoActionOperation, WriteConcern> byOperation = new EnumMap<>(MongoActionOperation.class);
+
+    PropertyWriteConcernResolver(MongoClientProperties properties) {
+        properties.getCollectionWriteConcerns().forEach((collection, name) -> byCollection.put(collection, MongoConfig.writeConcern(name)));
+        properties.getOperationWriteConcerns().forEach((operation, name) -> byOperation.put(operation, MongoConfig.writeConcern(name)));
+    }
+
+    @Override
+    public WriteConcern resolve(MongoAction action) {
+        WriteConcern concern = byCollection.get(action.getCollectionName());
+        if (concern == null) {
+            concern = byOperation.get(action.getMongoActionOperation());
+        }
+        return concern != null ? concern : action.getDefaultWriteConcern();
+    }
+}
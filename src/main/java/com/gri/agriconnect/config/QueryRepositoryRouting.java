@@ -0,0 +1,34 @@
+package com.gri.agriconnect.config;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactoryBean;
+import org.springframework.stereotype.Component;
+
+// Points the repositories listed in agriconnect.mongo.client.query-repositories at the query template.
+// Writes still go to the primary; only where their reads are served from changes. Fragment methods
+// pick their template themselves.
+@Component
+public class QueryRepositoryRouting implements BeanPostProcessor {
+
+    private final ObjectProvider<MongoClientProperties> properties;
+    private final BeanFactory beanFactory;
+
+    public QueryRepositoryRouting(ObjectProvider<MongoClientProperties> properties, BeanFactory beanFactory) {
+        this.properties = properties;
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof MongoRepositoryFactoryBean<?, ?, ?> factoryBean) {
+            MongoClientProperties settings = properties.getIfAvailable();
+            if (settings != null && settings.getQueryRepositories().contains(factoryBean.getObjectType().getSimpleName())) {
+                factoryBean.setMongoOperations(beanFactory.getBean(MongoConfig.QUERY_TEMPLATE, MongoOperations.class));
+            }
+        }
+        return bean;
+    }
+}
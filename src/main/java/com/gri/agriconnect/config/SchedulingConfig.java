@@ -0,0 +1,20 @@
+package com.gri.agriconnect.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+// Background jobs such as the stock reservation sweeper run on Spring's scheduler
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Declared here because the WebSocket broker registers a scheduler of its own, which would
+    // otherwise make Boot skip this one and run the jobs on the broker's threads
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.gri.agriconnect.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+// Documents written before @Version was added have no version field. Spring Data treats a
+// null version as a new entity and would insert a duplicate on save, so stamp them with 0.
+@Component
+@ConditionalOnProperty(prefix = "agriconnect.versioning", name = "backfill", havingValue = "true", matchIfMissing = true)
+public class VersionBackfill implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VersionBackfill.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public VersionBackfill(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (MongoPersistentEntity<?> entity : mongoTemplate.getConverter().getMappingContext().getPersistentEntities()) {
+            MongoPersistentProperty version = entity.getVersionProperty();
+            if (version == null || entity.getCollection() == null) {
+                continue;
+            }
+            long stamped = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where(version.getFieldName()).exists(false)),
+                    new Update().set(version.getFieldName(), 0L),
+                    entity.getCollection()).getModifiedCount();
+            if (stamped > 0) {
+                logger.info("Stamped {} {} documents with version 0", stamped, entity.getCollection());
+            }
+        }
+    }
+}
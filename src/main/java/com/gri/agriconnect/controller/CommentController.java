@@ -1,13 +1,21 @@
 package com.gri.agriconnect.controller;
 
+import com.gri.agriconnect.model.BatchResult;
 import com.gri.agriconnect.model.Comment;
+import com.gri.agriconnect.service.ExpansionService;
 import com.gri.agriconnect.service.CommentService;
+import com.gri.agriconnect.service.VersionStampService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,10 +40,14 @@ public class CommentController {
     private static final Logger logger = LoggerFactory.getLogger(CommentController.class);
 
     private final CommentService commentService;
+    private final ExpansionService expansionService;
+    private final VersionStampService versionStampService;
 
     @Autowired
-    public CommentController(CommentService commentService) {
+    public CommentController(CommentService commentService, ExpansionService expansionService, VersionStampService versionStampService) {
         this.commentService = commentService;
+        this.expansionService = expansionService;
+        this.versionStampService = versionStampService;
     }
 
     @Operation(summary = "Create a new comment", description = "This endpoint allows you to create a new comment.")
@@ -61,7 +73,22 @@ public class CommentController {
     public ResponseEntity<List<Comment>> getAllComments() {
         logger.info("Fetching all comments");
         List<Comment> comments = commentService.getAllComments();
-        return new ResponseEntity<>(comments, HttpStatus.OK);
+        return ETags.okList(comments, Comment::getCommentId, Comment::getVersion);
+    }
+
+    @Operation(summary = "Get comments by IDs", description = "Fetches up to the configured maximum of comments in one query, in request order, and lists the IDs that were not found")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Comments fetched"),
+            @ApiResponse(responseCode = "400", description = "Too many IDs requested")
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchResult<Comment>> getCommentsByIds(@RequestParam List<String> ids) {
+        logger.info("Fetching comments by IDs: {}", ids.size());
+        try {
+            return new ResponseEntity<>(commentService.getCommentsByIds(ids), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @Operation(summary = "Get comments by user ID", description = "Fetch all comments for a given user ID.")
@@ -78,22 +105,63 @@ public class CommentController {
         if (comments.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No comments found for user ID: " + userId);
         }
-        return new ResponseEntity<>(comments, HttpStatus.OK);
+        return ETags.okList(comments, Comment::getCommentId, Comment::getVersion);
+    }
+
+    @Operation(summary = "Get a page of comments by post or product ID", description = "Fetch the newest limit comments created before the given time (default now), newest first. Pages past the retention hot window are read from the archive.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of comments, empty past the oldest comment",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Comment.class))),
+            @ApiResponse(responseCode = "400", description = "Limit out of range")
+    })
+    @GetMapping("/post/{postId}")
+    public ResponseEntity<List<Comment>> getCommentPage(
+            @Parameter(description = "ID of the post or product to fetch comments for") @PathVariable String postId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+        logger.info("Fetching {} comments before {} for post ID: {}", limit, before, postId);
+        try {
+            return new ResponseEntity<>(commentService.getCommentPage(postId, before, limit), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @Operation(summary = "Get a comment by ID", description = "Fetch a comment by its ID.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Comment found",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Comment.class))),
-            @ApiResponse(responseCode = "404", description = "Comment not found")
+            @ApiResponse(responseCode = "404", description = "Comment not found"),
+            @ApiResponse(responseCode = "304", description = "Unchanged since the If-None-Match ETag or If-Modified-Since date")
     })
     @GetMapping("/{commentId}")
     public ResponseEntity<Comment> getCommentById(
-            @Parameter(description = "ID of the comment to fetch") @PathVariable String commentId) {
+            @Parameter(description = "ID of the comment to fetch") @PathVariable String commentId,
+            WebRequest request) {
         logger.info("Fetching comment with ID: {}", commentId);
-        Optional<Comment> comment = commentService.getCommentById(commentId);
-        return comment.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+        return ETags.conditional(request, () -> versionStampService.getCommentStamp(commentId), () -> {
+            Optional<Comment> comment = commentService.getCommentById(commentId);
+            return comment.map(value -> ETags.ok(value, value.getVersion(), value.getUpdatedAt()))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found with ID: " + commentId));
+        });
+    }
+
+    @Operation(summary = "Get a comment by ID with expansions", description = "Fetches a comment and embeds the related entities named in expand (e.g. author), loading each entity type with one batch query per level")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Comment fetched"),
+            @ApiResponse(responseCode = "400", description = "Unknown expansion or expansion limits exceeded"),
+            @ApiResponse(responseCode = "404", description = "Comment not found")
+    })
+    @GetMapping(value = "/{commentId}", params = "expand")
+    public ResponseEntity<Map<String, Object>> getExpandedCommentById(@PathVariable String commentId, @RequestParam String expand) {
+        logger.info("Fetching comment with ID: {} expanded with {}", commentId, expand);
+        Comment comment = commentService.getCommentById(commentId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found with ID: " + commentId));
+        try {
+            return new ResponseEntity<>(expansionService.expandComment(comment, expand), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @Operation(summary = "Delete a comment by ID", description = "Delete a comment by its ID.")
@@ -117,38 +185,50 @@ public class CommentController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Comment updated successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Comment.class))),
-            @ApiResponse(responseCode = "404", description = "Comment not found")
+            @ApiResponse(responseCode = "404", description = "Comment not found"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PutMapping("/{commentId}")
     public ResponseEntity<Comment> updateComment(
             @Parameter(description = "ID of the comment to update") @PathVariable String commentId,
-            @Valid @RequestBody Comment comment) {
+            @Valid @RequestBody Comment comment,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Updating comment with ID: {}", commentId);
-        try {
-            Comment updatedComment = commentService.updateComment(commentId, comment);
-            return new ResponseEntity<>(updatedComment, HttpStatus.OK);
-        } catch (IllegalArgumentException e) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        Comment updatedComment = commentService.updateComment(commentId, comment, ETags.expectedVersion(ifMatch));
+        if (updatedComment == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found with ID: " + commentId);
         }
+        return ETags.ok(updatedComment, updatedComment.getVersion());
     }
 
     @Operation(summary = "Patch a comment", description = "Patch the details of an existing comment.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Comment patched successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Comment.class))),
-            @ApiResponse(responseCode = "404", description = "Comment not found")
+            @ApiResponse(responseCode = "404", description = "Comment not found"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PatchMapping("/{commentId}")
     public ResponseEntity<Comment> patchComment(
             @Parameter(description = "ID of the comment to patch") @PathVariable String commentId,
-            @RequestBody Comment comment) {
+            @RequestBody Comment comment,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Patching comment with ID: {}", commentId);
-        try {
-            Comment updatedComment = commentService.updateComment(commentId, comment);
-            return new ResponseEntity<>(updatedComment, HttpStatus.OK);
-        } catch (IllegalArgumentException e) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
-        }
+        return commentService.patchComment(commentId, comment, ETags.expectedVersion(ifMatch))
+                .map(value -> ETags.ok(value, value.getVersion()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found with ID: " + commentId));
+    }
+
+    @Operation(summary = "Like a comment", description = "Increments the comment's like count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Comment liked",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Comment.class))),
+            @ApiResponse(responseCode = "404", description = "Comment not found")
+    })
+    @PostMapping("/{commentId}/like")
+    public ResponseEntity<Comment> likeComment(@PathVariable String commentId) {
+        logger.info("Liking comment with ID: {}", commentId);
+        return commentService.likeComment(commentId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @ExceptionHandler(ResponseStatusException.class)
@@ -156,4 +236,10 @@ public class CommentController {
         logger.error("Error occurred: {}", ex.getMessage());
         return new ResponseEntity<>(ex.getReason(), ex.getStatusCode());
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        logger.warn("Conditional update rejected: {}", ex.getMessage());
+        return new ResponseEntity<>("Comment was modified by another request", HttpStatus.PRECONDITION_FAILED);
+    }
 }
@@ -2,13 +2,17 @@ package com.gri.agriconnect.controller;
 
 import com.gri.agriconnect.model.Conversation;
 import com.gri.agriconnect.service.ConversationService;
+import com.gri.agriconnect.service.VersionStampService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,7 +24,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import javax.validation.Valid;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,10 +36,12 @@ public class ConversationController {
     private static final Logger logger = LoggerFactory.getLogger(ConversationController.class);
 
     private final ConversationService conversationService;
+    private final VersionStampService versionStampService;
 
     @Autowired
-    public ConversationController(ConversationService conversationService) {
+    public ConversationController(ConversationService conversationService, VersionStampService versionStampService) {
         this.conversationService = conversationService;
+        this.versionStampService = versionStampService;
     }
 
     @Operation(summary = "Create a new conversation", description = "This endpoint allows you to create a new conversation.")
@@ -62,7 +67,7 @@ public class ConversationController {
     public ResponseEntity<List<Conversation>> getAllConversations() {
         logger.info("Fetching all conversations");
         List<Conversation> conversations = conversationService.getAllConversations();
-        return new ResponseEntity<>(conversations, HttpStatus.OK);
+        return ETags.okList(conversations, Conversation::getConversationId, Conversation::getVersion);
     }
 
     @Operation(summary = "Get conversations by participant ID", description = "Fetch all conversations for a given participant ID.")
@@ -79,22 +84,26 @@ public class ConversationController {
         if (conversations.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No conversations found for participant ID: " + participantId);
         }
-        return new ResponseEntity<>(conversations, HttpStatus.OK);
+        return ETags.okList(conversations, Conversation::getConversationId, Conversation::getVersion);
     }
 
     @Operation(summary = "Get a conversation by ID", description = "Fetch a conversation by its ID.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Conversation found",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Conversation.class))),
-            @ApiResponse(responseCode = "404", description = "Conversation not found")
+            @ApiResponse(responseCode = "404", description = "Conversation not found"),
+            @ApiResponse(responseCode = "304", description = "Unchanged since the If-None-Match ETag or If-Modified-Since date")
     })
     @GetMapping("/{conversationId}")
     public ResponseEntity<Conversation> getConversationById(
-            @Parameter(description = "ID of the conversation to fetch") @PathVariable String conversationId) {
+            @Parameter(description = "ID of the conversation to fetch") @PathVariable String conversationId,
+            WebRequest request) {
         logger.info("Fetching conversation with ID: {}", conversationId);
-        Optional<Conversation> conversation = conversationService.getConversationById(conversationId);
-        return conversation.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation not found with ID: " + conversationId));
+        return ETags.conditional(request, () -> versionStampService.getConversationStamp(conversationId), () -> {
+            Optional<Conversation> conversation = conversationService.getConversationById(conversationId);
+            return conversation.map(value -> ETags.ok(value, value.getVersion(), value.getUpdatedAt()))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation not found with ID: " + conversationId));
+        });
     }
 
     @Operation(summary = "Delete a conversation by ID", description = "Delete a conversation by its ID.")
@@ -119,51 +128,36 @@ public class ConversationController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Conversation updated successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Conversation.class))),
-            @ApiResponse(responseCode = "404", description = "Conversation not found")
+            @ApiResponse(responseCode = "404", description = "Conversation not found"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PutMapping("/{conversationId}")
     public ResponseEntity<Conversation> updateConversation(
             @Parameter(description = "ID of the conversation to update") @PathVariable String conversationId,
-            @Valid @RequestBody Conversation conversation) {
+            @Valid @RequestBody Conversation conversation,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Updating conversation with ID: {}", conversationId);
-        Optional<Conversation> existingConversation = conversationService.getConversationById(conversationId);
-        if (existingConversation.isPresent()) {
-            Conversation updatedConversation = conversationService.updateConversation(conversationId, conversation);
-            return new ResponseEntity<>(updatedConversation, HttpStatus.OK);
-        } else {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation not found with ID: " + conversationId);
-        }
+        return conversationService.updateConversation(conversationId, conversation, ETags.expectedVersion(ifMatch))
+                .map(value -> ETags.ok(value, value.getVersion()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation not found with ID: " + conversationId));
     }
 
     @Operation(summary = "Patch a conversation", description = "Patch the details of an existing conversation.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Conversation patched successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Conversation.class))),
-            @ApiResponse(responseCode = "404", description = "Conversation not found")
+            @ApiResponse(responseCode = "404", description = "Conversation not found"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PatchMapping("/{conversationId}")
     public ResponseEntity<Conversation> patchConversation(
             @Parameter(description = "ID of the conversation to patch") @PathVariable String conversationId,
-            @RequestBody Conversation conversation) {
+            @RequestBody Conversation conversation,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Patching conversation with ID: {}", conversationId);
-        Optional<Conversation> existingConversation = conversationService.getConversationById(conversationId);
-        if (existingConversation.isPresent()) {
-            Conversation updatedConversation = existingConversation.get();
-            if (conversation.getSenderId() != null) {
-                updatedConversation.setSenderId(conversation.getSenderId());
-            }
-            if (conversation.getReceiverId() != null) {
-                updatedConversation.setReceiverId(conversation.getReceiverId());
-            }
-            if (conversation.getMessageIds() != null) {
-                updatedConversation.setMessageIds(conversation.getMessageIds());
-            }
-            updatedConversation.setUpdatedAt(LocalDateTime.now());
-            Conversation savedConversation = conversationService.saveConversation(updatedConversation);
-            return new ResponseEntity<>(savedConversation, HttpStatus.OK);
-        } else {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation not found with ID: " + conversationId);
-        }
+        return conversationService.patchConversation(conversationId, conversation, ETags.expectedVersion(ifMatch))
+                .map(value -> ETags.ok(value, value.getVersion()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation not found with ID: " + conversationId));
     }
 
     @ExceptionHandler(ResponseStatusException.class)
@@ -171,4 +165,10 @@ public class ConversationController {
         logger.error("Error occurred: {}", ex.getMessage());
         return new ResponseEntity<>(ex.getReason(), ex.getStatusCode());
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        logger.warn("Conditional update rejected: {}", ex.getMessage());
+        return new ResponseEntity<>("Conversation was modified by another request", HttpStatus.PRECONDITION_FAILED);
+    }
 }
@@ -0,0 +1,99 @@
+package com.gri.agriconnect.controller;
+
+import com.gri.agriconnect.model.VersionStamp;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Entity tags are the document version, so a client can echo one back in If-Match
+// and have the write applied only if nobody changed the document in between, or in
+// If-None-Match to get a 304 instead of the body. They are weak: the JSON, Smile and CBOR
+// encodings of a version share one tag, and Tomcat does not compress a response with a strong one.
+final class ETags {
+
+    private ETags() {
+    }
+
+    static <T> ResponseEntity<T> ok(T body, Long version) {
+        return ok(body, version, null);
+    }
+
+    // Spring answers 304 itself when these headers match the request's preconditions
+    static <T> ResponseEntity<T> ok(T body, Long version, LocalDateTime lastModified) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (version != null) {
+            builder.eTag(tag(version));
+        }
+        if (lastModified != null) {
+            builder.lastModified(epochMillis(lastModified));
+        }
+        return builder.body(body);
+    }
+
+    // Lists get a weak tag over each item's id and version. No Last-Modified: a deletion
+    // does not move the newest timestamp, so If-Modified-Since could miss it.
+    static <T> ResponseEntity<List<T>> okList(List<T> items, Function<T, String> idOf, Function<T, Long> versionOf) {
+        StringBuilder state = new StringBuilder();
+        for (T item : items) {
+            state.append(idOf.apply(item)).append(':').append(versionOf.apply(item)).append(';');
+        }
+        String tag = DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8));
+        return ResponseEntity.ok().eTag("W/\"" + tag + "\"").body(items);
+    }
+
+    // Answers a conditional GET from the version stamp alone. Returns null once a 304 has been
+    // committed; otherwise the body is loaded and returned with the stamp's validators.
+    static <T> ResponseEntity<T> conditional(WebRequest request, Supplier<Optional<VersionStamp>> stamp,
+                                             Supplier<ResponseEntity<T>> load) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null && request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) == null) {
+            return load.get();
+        }
+        Optional<VersionStamp> current = stamp.get();
+        if (current.isPresent() && current.get().version() != null) {
+            LocalDateTime lastModified = current.get().lastModified();
+            if (request.checkNotModified(tag(current.get().version()),
+                    lastModified != null ? epochMillis(lastModified) : -1)) {
+                return null;
+            }
+        }
+        return load.get();
+    }
+
+    // The expected version from an If-Match header, or null when absent or "*"
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed If-Match header: " + ifMatch);
+        }
+    }
+
+    private static String tag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
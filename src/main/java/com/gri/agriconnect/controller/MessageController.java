@@ -5,6 +5,7 @@ import com.gri.agriconnect.service.MessageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -20,6 +21,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -68,6 +70,25 @@ public class MessageController {
         return new ResponseEntity<>(messages, HttpStatus.OK);
     }
 
+    @Operation(summary = "Get a page of messages by conversation ID", description = "Fetch the newest limit messages sent before the given time (default now), oldest first. Pages past the retention hot window are read from the archive.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of messages, empty past the start of the conversation",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Message.class))),
+            @ApiResponse(responseCode = "400", description = "Limit out of range")
+    })
+    @GetMapping(value = "/conversation/{conversationId}", params = "limit")
+    public ResponseEntity<List<Message>> getMessagePage(
+            @Parameter(description = "ID of the conversation to fetch messages for") @PathVariable String conversationId,
+            @RequestParam int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+        logger.info("Fetching {} messages before {} for conversation ID: {}", limit, before, conversationId);
+        try {
+            return new ResponseEntity<>(messageService.getMessagePage(conversationId, before, limit), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     @Operation(summary = "Get unread messages by conversation ID", description = "Fetch all unread messages for a given conversation ID.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "List of unread messages",
@@ -78,8 +99,7 @@ public class MessageController {
     public ResponseEntity<List<Message>> getUnreadMessagesByConversationId(
             @Parameter(description = "ID of the conversation to fetch unread messages for") @PathVariable String conversationId) {
         logger.info("Fetching unread messages for conversation ID: {}", conversationId);
-        List<Message> messages = messageService.getMessagesByConversationId(conversationId);
-        List<Message> unreadMessages = messages.stream().filter(message -> !message.isRead()).toList();
+        List<Message> unreadMessages = messageService.getUnreadMessagesByConversationId(conversationId);
         if (unreadMessages.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No unread messages found for conversation ID: " + conversationId);
         }
@@ -0,0 +1,96 @@
+package com.gri.agriconnect.controller;
+
+import com.gri.agriconnect.model.Notification;
+import com.gri.agriconnect.service.NotificationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/users/{userId}/notifications")
+@Validated
+@Tag(name = "Notification", description = "A user's notification inbox")
+public class NotificationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationController.class);
+
+    private final NotificationService notificationService;
+
+    @Autowired
+    public NotificationController(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @Operation(summary = "Get notifications", description = "A page of the user's notifications, newest first. Pass the latestAt of the last one as before to get the next page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Notifications fetched"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    @GetMapping
+    public ResponseEntity<List<Notification>> getNotifications(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Only notifications whose latest event is older than this")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+        logger.info("Fetching notifications of user {}", userId);
+        try {
+            return ResponseEntity.ok(notificationService.getNotifications(userId, before, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Get unread count", description = "Number of unread notifications, counted on an index")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Unread count fetched")
+    })
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable String userId) {
+        return ResponseEntity.ok(Map.of("unread", notificationService.getUnreadCount(userId)));
+    }
+
+    @Operation(summary = "Mark notification read", description = "Marks one notification read; later events on its target start a new one")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Notification marked read"),
+            @ApiResponse(responseCode = "404", description = "No unread notification with this ID")
+    })
+    @PostMapping("/{notificationId}/read")
+    public ResponseEntity<Void> markRead(@PathVariable String userId, @PathVariable String notificationId) {
+        logger.info("Marking notification {} of user {} read", notificationId, userId);
+        if (!notificationService.markRead(userId, notificationId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Mark all read", description = "Marks every unread notification of the user read")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Number of notifications marked read")
+    })
+    @PostMapping("/read")
+    public ResponseEntity<Map<String, Long>> markAllRead(@PathVariable String userId) {
+        logger.info("Marking all notifications of user {} read", userId);
+        return ResponseEntity.ok(Map.of("marked", notificationService.markAllRead(userId)));
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<String> handleResponseStatusException(ResponseStatusException ex) {
+        logger.error("Error occurred: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getReason(), ex.getStatusCode());
+    }
+}
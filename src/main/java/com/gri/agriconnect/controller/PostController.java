@@ -1,19 +1,27 @@
 package com.gri.agriconnect.controller;
 
+import com.gri.agriconnect.model.BatchResult;
 import com.gri.agriconnect.model.Post;
+import com.gri.agriconnect.model.TrendingItem;
+import com.gri.agriconnect.service.ExpansionService;
 import com.gri.agriconnect.service.PostService;
+import com.gri.agriconnect.service.VersionStampService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -33,10 +41,14 @@ public class PostController {
     private static final Logger logger = LoggerFactory.getLogger(PostController.class);
 
     private final PostService postService;
+    private final ExpansionService expansionService;
+    private final VersionStampService versionStampService;
 
     @Autowired
-    public PostController(PostService postService) {
+    public PostController(PostService postService, ExpansionService expansionService, VersionStampService versionStampService) {
         this.postService = postService;
+        this.expansionService = expansionService;
+        this.versionStampService = versionStampService;
     }
 
     @Operation(summary = "Create a new post", description = "This endpoint allows you to create a new post.")
@@ -60,7 +72,40 @@ public class PostController {
     public ResponseEntity<List<Post>> getAllPosts() {
         logger.info("Fetching all posts");
         List<Post> posts = postService.getAllPosts();
-        return new ResponseEntity<>(posts, HttpStatus.OK);
+        return ETags.okList(posts, Post::getPostId, Post::getVersion);
+    }
+
+    @Operation(summary = "Get posts by IDs", description = "Fetches up to the configured maximum of posts in one query, in request order, and lists the IDs that were not found")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Posts fetched"),
+            @ApiResponse(responseCode = "400", description = "Too many IDs requested")
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchResult<Post>> getPostsByIds(@RequestParam List<String> ids) {
+        logger.info("Fetching posts by IDs: {}", ids.size());
+        try {
+            return new ResponseEntity<>(postService.getPostsByIds(ids), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Get posts by IDs with expansions", description = "Batch lookup by IDs with the related entities named in expand embedded")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Posts fetched"),
+            @ApiResponse(responseCode = "400", description = "Too many IDs, unknown expansion or expansion limits exceeded")
+    })
+    @GetMapping(params = {"ids", "expand"})
+    public ResponseEntity<BatchResult<Map<String, Object>>> getExpandedPostsByIds(
+            @RequestParam List<String> ids, @RequestParam String expand) {
+        logger.info("Fetching posts by IDs: {} expanded with {}", ids.size(), expand);
+        try {
+            BatchResult<Post> posts = postService.getPostsByIds(ids);
+            return new ResponseEntity<>(new BatchResult<>(
+                    expansionService.expandPosts(posts.getItems(), expand), posts.getMissingIds()), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @Operation(summary = "Get posts by user ID", description = "Fetch all posts for a given user ID.")
@@ -77,22 +122,84 @@ public class PostController {
         if (posts.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No posts found for user ID: " + userId);
         }
-        return new ResponseEntity<>(posts, HttpStatus.OK);
+        return ETags.okList(posts, Post::getPostId, Post::getVersion);
+    }
+
+    @Operation(summary = "Get trending posts", description = "Posts ranked by recent likes, favorites and comments, older engagement counting for less; optionally within one category tag")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Trending posts with their current score"),
+            @ApiResponse(responseCode = "400", description = "Limit out of range")
+    })
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingItem<Post>>> getTrendingPosts(@RequestParam(required = false) String category,
+                                                                     @RequestParam(defaultValue = "20") int limit) {
+        logger.info("Fetching trending posts in category: {}", category);
+        try {
+            return new ResponseEntity<>(postService.getTrendingPosts(category, limit), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Like a post", description = "Increments the post's like count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Post liked",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Post.class))),
+            @ApiResponse(responseCode = "404", description = "Post not found")
+    })
+    @PostMapping("/{postId}/like")
+    public ResponseEntity<Post> likePost(@PathVariable String postId) {
+        logger.info("Liking post with ID: {}", postId);
+        return postService.likePost(postId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Favorite a post", description = "Increments the post's favorite count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Post favorited",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Post.class))),
+            @ApiResponse(responseCode = "404", description = "Post not found")
+    })
+    @PostMapping("/{postId}/favorite")
+    public ResponseEntity<Post> favoritePost(@PathVariable String postId) {
+        logger.info("Favoriting post with ID: {}", postId);
+        return postService.favoritePost(postId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Get a post by ID", description = "Fetch a post by its ID.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Post found",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Post.class))),
-            @ApiResponse(responseCode = "404", description = "Post not found")
+            @ApiResponse(responseCode = "404", description = "Post not found"),
+            @ApiResponse(responseCode = "304", description = "Unchanged since the If-None-Match ETag or If-Modified-Since date")
     })
     @GetMapping("/{postId}")
     public ResponseEntity<Post> getPostById(
-            @Parameter(description = "ID of the post to fetch") @PathVariable String postId) {
+            @Parameter(description = "ID of the post to fetch") @PathVariable String postId,
+            WebRequest request) {
         logger.info("Fetching post with ID: {}", postId);
-        Optional<Post> post = postService.getPostById(postId);
-        return post.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+        return ETags.conditional(request, () -> versionStampService.getPostStamp(postId), () -> {
+            Optional<Post> post = postService.getPostById(postId);
+            return post.map(value -> ETags.ok(value, value.getVersion(), value.getUpdatedAt()))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found with ID: " + postId));
+        });
+    }
+
+    @Operation(summary = "Get a post by ID with expansions", description = "Fetches a post and embeds the related entities named in expand (e.g. author,comments.author), loading each entity type with one batch query per level")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Post fetched"),
+            @ApiResponse(responseCode = "400", description = "Unknown expansion or expansion limits exceeded"),
+            @ApiResponse(responseCode = "404", description = "Post not found")
+    })
+    @GetMapping(value = "/{postId}", params = "expand")
+    public ResponseEntity<Map<String, Object>> getExpandedPostById(@PathVariable String postId, @RequestParam String expand) {
+        logger.info("Fetching post with ID: {} expanded with {}", postId, expand);
+        Post post = postService.getPostById(postId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found with ID: " + postId));
+        try {
+            return new ResponseEntity<>(expansionService.expandPost(post, expand), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @Operation(summary = "Delete a post by ID", description = "Delete a post by its ID.")
@@ -116,38 +223,38 @@ public class PostController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Post updated successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Post.class))),
-            @ApiResponse(responseCode = "404", description = "Post not found")
+            @ApiResponse(responseCode = "404", description = "Post not found"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PutMapping("/{postId}")
     public ResponseEntity<Post> updatePost(
             @Parameter(description = "ID of the post to update") @PathVariable String postId,
-            @Valid @RequestBody Post post) {
+            @Valid @RequestBody Post post,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Updating post with ID: {}", postId);
-        try {
-            Post updatedPost = postService.updatePost(postId, post);
-            return new ResponseEntity<>(updatedPost, HttpStatus.OK);
-        } catch (IllegalArgumentException e) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        Post updatedPost = postService.updatePost(postId, post, ETags.expectedVersion(ifMatch));
+        if (updatedPost == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found with ID: " + postId);
         }
+        return ETags.ok(updatedPost, updatedPost.getVersion());
     }
 
     @Operation(summary = "Patch a post", description = "Patch the details of an existing post.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Post patched successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Post.class))),
-            @ApiResponse(responseCode = "404", description = "Post not found")
+            @ApiResponse(responseCode = "404", description = "Post not found"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PatchMapping("/{postId}")
     public ResponseEntity<Post> patchPost(
             @Parameter(description = "ID of the post to patch") @PathVariable String postId,
-            @RequestBody Post post) {
+            @RequestBody Post post,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Patching post with ID: {}", postId);
-        try {
-            Post updatedPost = postService.updatePost(postId, post);
-            return new ResponseEntity<>(updatedPost, HttpStatus.OK);
-        } catch (IllegalArgumentException e) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
-        }
+        return postService.patchPost(postId, post, ETags.expectedVersion(ifMatch))
+                .map(value -> ETags.ok(value, value.getVersion()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found with ID: " + postId));
     }
 
     @ExceptionHandler(ResponseStatusException.class)
@@ -155,4 +262,10 @@ public class PostController {
         logger.error("Error occurred: {}", ex.getMessage());
         return new ResponseEntity<>(ex.getReason(), ex.getStatusCode());
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        logger.warn("Conditional update rejected: {}", ex.getMessage());
+        return new ResponseEntity<>("Post was modified by another request", HttpStatus.PRECONDITION_FAILED);
+    }
 }
@@ -0,0 +1,107 @@
+package com.gri.agriconnect.controller;
+
+import com.gri.agriconnect.model.Presence;
+import com.gri.agriconnect.realtime.PresenceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+// Heartbeats and typing over REST or STOMP (/app/presence/{userId}, /app/conversations/{conversationId}/typing/{userId}
+// and .../stopped-typing/{userId}). Changes are pushed to /topic/conversations/{conversationId}/presence and /typing.
+@RestController
+@RequestMapping("/api")
+@Validated
+@Tag(name = "Presence", description = "Online status and typing indicators")
+public class PresenceController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceController.class);
+
+    private final PresenceService presenceService;
+
+    @Autowired
+    public PresenceController(PresenceService presenceService) {
+        this.presenceService = presenceService;
+    }
+
+    @Operation(summary = "Heartbeat", description = "Marks the user online until agriconnect.presence.ttl passes without another heartbeat")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Heartbeat recorded")
+    })
+    @PostMapping("/presence/{userId}/heartbeat")
+    public ResponseEntity<Void> heartbeat(@PathVariable String userId) {
+        presenceService.heartbeat(userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Typing", description = "Marks the user as typing in the conversation until agriconnect.presence.typing-ttl passes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Typing recorded")
+    })
+    @PostMapping("/conversations/{conversationId}/typing")
+    public ResponseEntity<Void> typing(@PathVariable String conversationId, @RequestParam String userId) {
+        presenceService.typing(userId, conversationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Stopped typing", description = "Ends the user's typing indicator in the conversation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Typing ended")
+    })
+    @DeleteMapping("/conversations/{conversationId}/typing")
+    public ResponseEntity<Void> stoppedTyping(@PathVariable String conversationId, @RequestParam String userId) {
+        presenceService.stoppedTyping(userId, conversationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Get presence", description = "Online status of up to the configured maximum of users, with when offline users were last seen")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Presence fetched"),
+            @ApiResponse(responseCode = "400", description = "Too many IDs requested")
+    })
+    @GetMapping("/presence")
+    public ResponseEntity<List<Presence>> getPresence(@RequestParam List<String> userIds) {
+        logger.info("Fetching presence of {} users", userIds.size());
+        try {
+            return ResponseEntity.ok(presenceService.getPresence(userIds));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @MessageMapping("/presence/{userId}")
+    public void heartbeatOverWebSocket(@DestinationVariable String userId, SimpMessageHeaderAccessor headers) {
+        presenceService.heartbeat(userId, headers.getSessionId());
+    }
+
+    @MessageMapping("/conversations/{conversationId}/typing/{userId}")
+    public void typingOverWebSocket(@DestinationVariable String conversationId, @DestinationVariable String userId,
+                                    SimpMessageHeaderAccessor headers) {
+        presenceService.heartbeat(userId, headers.getSessionId());
+        presenceService.typing(userId, conversationId);
+    }
+
+    @MessageMapping("/conversations/{conversationId}/stopped-typing/{userId}")
+    public void stoppedTypingOverWebSocket(@DestinationVariable String conversationId, @DestinationVariable String userId) {
+        presenceService.stoppedTyping(userId, conversationId);
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<String> handleResponseStatusException(ResponseStatusException ex) {
+        logger.error("Error occurred: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getReason(), ex.getStatusCode());
+    }
+}
@@ -1,7 +1,14 @@
 package com.gri.agriconnect.controller;
 
+import com.gri.agriconnect.model.BatchResult;
+import com.gri.agriconnect.model.NearbyProduct;
 import com.gri.agriconnect.model.Product;
+import com.gri.agriconnect.model.ProductBrowseResult;
+import com.gri.agriconnect.model.ProductFilter;
+import com.gri.agriconnect.model.TrendingItem;
+import com.gri.agriconnect.service.ExpansionService;
 import com.gri.agriconnect.service.ProductService;
+import com.gri.agriconnect.service.VersionStampService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,14 +18,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -30,10 +41,14 @@ public class ProductController {
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
 
     private final ProductService productService;
+    private final ExpansionService expansionService;
+    private final VersionStampService versionStampService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ExpansionService expansionService, VersionStampService versionStampService) {
         this.productService = productService;
+        this.expansionService = expansionService;
+        this.versionStampService = versionStampService;
     }
 
     @Operation(summary = "Create a new product", description = "Adds a new product to the system")
@@ -62,7 +77,40 @@ public class ProductController {
     public ResponseEntity<List<Product>> getAllProducts() {
         logger.info("Fetching all products");
         List<Product> products = productService.getAllProducts();
-        return new ResponseEntity<>(products, HttpStatus.OK);
+        return ETags.okList(products, Product::getProductId, Product::getVersion);
+    }
+
+    @Operation(summary = "Get products by IDs", description = "Fetches up to the configured maximum of products in one query, in request order, and lists the IDs that were not found")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products fetched"),
+            @ApiResponse(responseCode = "400", description = "Too many IDs requested")
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchResult<Product>> getProductsByIds(@RequestParam List<String> ids) {
+        logger.info("Fetching products by IDs: {}", ids.size());
+        try {
+            return new ResponseEntity<>(productService.getProductsByIds(ids), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Get products by IDs with expansions", description = "Batch lookup by IDs with the related entities named in expand embedded")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products fetched"),
+            @ApiResponse(responseCode = "400", description = "Too many IDs, unknown expansion or expansion limits exceeded")
+    })
+    @GetMapping(params = {"ids", "expand"})
+    public ResponseEntity<BatchResult<Map<String, Object>>> getExpandedProductsByIds(
+            @RequestParam List<String> ids, @RequestParam String expand) {
+        logger.info("Fetching products by IDs: {} expanded with {}", ids.size(), expand);
+        try {
+            BatchResult<Product> products = productService.getProductsByIds(ids);
+            return new ResponseEntity<>(new BatchResult<>(
+                    expansionService.expandProducts(products.getItems(), expand), products.getMissingIds()), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @Operation(summary = "Get products by category", description = "Fetches products by their category")
@@ -78,7 +126,7 @@ public class ProductController {
         if (products.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No products found for category: " + category);
         }
-        return new ResponseEntity<>(products, HttpStatus.OK);
+        return ETags.okList(products, Product::getProductId, Product::getVersion);
     }
 
     @Operation(summary = "Get products by supplier ID", description = "Fetches products by their supplier ID")
@@ -94,21 +142,142 @@ public class ProductController {
         if (products.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No products found for supplier ID: " + supplierId);
         }
-        return new ResponseEntity<>(products, HttpStatus.OK);
+        return ETags.okList(products, Product::getProductId, Product::getVersion);
+    }
+
+    @Operation(summary = "Browse products", description = "Filters products by category, tags (all must match), price range and stock, sorted by newest, price_asc, price_desc or popular, with facet counts for the whole filter")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products and facet counts fetched"),
+            @ApiResponse(responseCode = "400", description = "Unknown sort or paging out of range")
+    })
+    @GetMapping("/browse")
+    public ResponseEntity<ProductBrowseResult> browseProducts(@RequestParam(required = false) String category,
+                                                              @RequestParam(required = false) List<String> tags,
+                                                              @RequestParam(required = false) Double minPrice,
+                                                              @RequestParam(required = false) Double maxPrice,
+                                                              @RequestParam(defaultValue = "false") boolean inStock,
+                                                              @RequestParam(defaultValue = "newest") String sort,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        logger.info("Browsing products in category: {}", category);
+        ProductFilter filter = new ProductFilter(category, tags, minPrice, maxPrice, inStock);
+        try {
+            List<Product> items = productService.browseProducts(filter, sort, page, size);
+            return new ResponseEntity<>(new ProductBrowseResult(items, page, size, productService.getProductFacets(filter)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Get products near a point", description = "Finds products whose supplier is within radiusKm of lat/lng, nearest first, optionally in one category")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products fetched with their distance in kilometers"),
+            @ApiResponse(responseCode = "400", description = "Coordinates, radius or paging out of range")
+    })
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyProduct>> getNearbyProducts(@RequestParam double lat, @RequestParam double lng,
+                                                                 @RequestParam(defaultValue = "25") double radiusKm,
+                                                                 @RequestParam(required = false) String category,
+                                                                 @RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "20") int size) {
+        logger.info("Fetching products within {} km of {},{}", radiusKm, lat, lng);
+        try {
+            return new ResponseEntity<>(productService.getNearbyProducts(lat, lng, radiusKm, category, page, size), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Get trending products", description = "Products ranked by recent likes, favorites and comments, older engagement counting for less; optionally within one category")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Trending products with their current score"),
+            @ApiResponse(responseCode = "400", description = "Limit out of range")
+    })
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingItem<Product>>> getTrendingProducts(@RequestParam(required = false) String category,
+                                                                           @RequestParam(defaultValue = "20") int limit) {
+        logger.info("Fetching trending products in category: {}", category);
+        try {
+            return new ResponseEntity<>(productService.getTrendingProducts(category, limit), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Get similar products", description = "Products bought alongside, tagged alike or sold by suppliers with the same buyers, as of the last recommendation job run")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Similar products fetched, best match first",
+                    content = @Content(schema = @Schema(implementation = Product.class))),
+            @ApiResponse(responseCode = "400", description = "Limit out of range")
+    })
+    @GetMapping("/{productId}/similar")
+    public ResponseEntity<List<Product>> getSimilarProducts(@PathVariable String productId,
+                                                            @RequestParam(defaultValue = "10") int limit) {
+        logger.info("Fetching products similar to: {}", productId);
+        try {
+            return new ResponseEntity<>(productService.getSimilarProducts(productId, limit), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Like a product", description = "Increments the product's like count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Product liked",
+                    content = @Content(schema = @Schema(implementation = Product.class))),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @PostMapping("/{productId}/like")
+    public ResponseEntity<Product> likeProduct(@PathVariable String productId) {
+        logger.info("Liking product with ID: {}", productId);
+        return productService.likeProduct(productId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Favorite a product", description = "Increments the product's favorite count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Product favorited",
+                    content = @Content(schema = @Schema(implementation = Product.class))),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @PostMapping("/{productId}/favorite")
+    public ResponseEntity<Product> favoriteProduct(@PathVariable String productId) {
+        logger.info("Favoriting product with ID: {}", productId);
+        return productService.favoriteProduct(productId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Get product by ID", description = "Fetches a product by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product fetched",
                     content = @Content(schema = @Schema(implementation = Product.class))),
-            @ApiResponse(responseCode = "404", description = "Product not found")
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "304", description = "Unchanged since the If-None-Match ETag or If-Modified-Since date")
     })
     @GetMapping("/{productId}")
-    public ResponseEntity<Product> getProductById(@PathVariable String productId) {
+    public ResponseEntity<Product> getProductById(@PathVariable String productId, WebRequest request) {
         logger.info("Fetching product with ID: {}", productId);
-        Optional<Product> product = productService.getProductById(productId);
-        return product.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+        return ETags.conditional(request, () -> versionStampService.getProductStamp(productId), () -> {
+            Optional<Product> product = productService.getProductById(productId);
+            return product.map(value -> ETags.ok(value, value.getVersion(), value.getUpdatedAt()))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with ID: " + productId));
+        });
+    }
+
+    @Operation(summary = "Get a product by ID with expansions", description = "Fetches a product and embeds the related entities named in expand (e.g. supplier,comments.author), loading each entity type with one batch query per level")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Product fetched"),
+            @ApiResponse(responseCode = "400", description = "Unknown expansion or expansion limits exceeded"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @GetMapping(value = "/{productId}", params = "expand")
+    public ResponseEntity<Map<String, Object>> getExpandedProductById(@PathVariable String productId, @RequestParam String expand) {
+        logger.info("Fetching product with ID: {} expanded with {}", productId, expand);
+        Product product = productService.getProductById(productId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with ID: " + productId));
+        try {
+            return new ResponseEntity<>(expansionService.expandProduct(product, expand), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @Operation(summary = "Delete product", description = "Deletes a product by its ID")
@@ -127,38 +296,38 @@ public class ProductController {
         }
     }
 
-    @Operation(summary = "Update product", description = "Updates a product by its ID")
+    @Operation(summary = "Update product", description = "Updates a product by its ID; stockQuantity, the counters and commentIds are only taken when the product is created, use the stock, like, favorite and comment endpoints to change them")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product updated",
                     content = @Content(schema = @Schema(implementation = Product.class))),
-            @ApiResponse(responseCode = "404", description = "Product not found")
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PutMapping("/{productId}")
-    public ResponseEntity<Product> updateProduct(@PathVariable String productId, @Valid @RequestBody Product product) {
+    public ResponseEntity<Product> updateProduct(@PathVariable String productId, @Valid @RequestBody Product product,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Updating product with ID: {}", productId);
-        try {
-            Product updatedProduct = productService.updateProduct(productId, product);
-            return new ResponseEntity<>(updatedProduct, HttpStatus.OK);
-        } catch (IllegalArgumentException e) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        Product updatedProduct = productService.updateProduct(productId, product, ETags.expectedVersion(ifMatch));
+        if (updatedProduct == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with ID: " + productId);
         }
+        return ETags.ok(updatedProduct, updatedProduct.getVersion());
     }
 
-    @Operation(summary = "Patch product", description = "Partially updates a product by its ID")
+    @Operation(summary = "Patch product", description = "Partially updates a product by its ID; stockQuantity is ignored, use the stock endpoints to change it")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product patched",
                     content = @Content(schema = @Schema(implementation = Product.class))),
-            @ApiResponse(responseCode = "404", description = "Product not found")
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PatchMapping("/{productId}")
-    public ResponseEntity<Product> patchProduct(@PathVariable String productId, @RequestBody Product product) {
+    public ResponseEntity<Product> patchProduct(@PathVariable String productId, @RequestBody Product product,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Patching product with ID: {}", productId);
-        try {
-            Product updatedProduct = productService.updateProduct(productId, product);
-            return new ResponseEntity<>(updatedProduct, HttpStatus.OK);
-        } catch (IllegalArgumentException e) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
-        }
+        return productService.patchProduct(productId, product, ETags.expectedVersion(ifMatch))
+                .map(value -> ETags.ok(value, value.getVersion()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with ID: " + productId));
     }
 
     @ExceptionHandler(ResponseStatusException.class)
@@ -166,4 +335,10 @@ public class ProductController {
         logger.error("Error occurred: {}", ex.getMessage());
         return new ResponseEntity<>(ex.getReason(), ex.getStatusCode());
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        logger.warn("Conditional update rejected: {}", ex.getMessage());
+        return new ResponseEntity<>("Product was modified by another request", HttpStatus.PRECONDITION_FAILED);
+    }
 }
@@ -0,0 +1,180 @@
+package com.gri.agriconnect.controller;
+
+import com.gri.agriconnect.model.StockLevel;
+import com.gri.agriconnect.model.StockReservation;
+import com.gri.agriconnect.service.StockService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api")
+@Validated
+@Tag(name = "Stock", description = "API for stock changes and reservations")
+public class StockController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockController.class);
+
+    private final StockService stockService;
+
+    @Autowired
+    public StockController(StockService stockService) {
+        this.stockService = stockService;
+    }
+
+    @Operation(summary = "Reserve stock", description = "Holds stock for a buyer until the reservation is confirmed, released or expires")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Stock reserved",
+                    content = @Content(schema = @Schema(implementation = StockReservation.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid quantity"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Not enough stock")
+    })
+    @PostMapping("/products/{productId}/reservations")
+    public ResponseEntity<StockReservation> reserveStock(@PathVariable String productId, @RequestParam String userId,
+                                                         @RequestParam int quantity) {
+        requirePositive(quantity);
+        logger.info("Reserving {} of product {}", quantity, productId);
+        try {
+            return new ResponseEntity<>(stockService.reserve(productId, userId, quantity), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Get reservation by ID", description = "Fetches a stock reservation by its ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservation fetched",
+                    content = @Content(schema = @Schema(implementation = StockReservation.class))),
+            @ApiResponse(responseCode = "404", description = "Reservation not found")
+    })
+    @GetMapping("/reservations/{reservationId}")
+    public ResponseEntity<StockReservation> getReservation(@PathVariable String reservationId) {
+        logger.info("Fetching reservation with ID: {}", reservationId);
+        return stockService.getReservation(reservationId).map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Confirm reservation", description = "Turns a held reservation into a sale")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservation confirmed",
+                    content = @Content(schema = @Schema(implementation = StockReservation.class))),
+            @ApiResponse(responseCode = "404", description = "Reservation not found"),
+            @ApiResponse(responseCode = "409", description = "Reservation expired or no longer held")
+    })
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<StockReservation> confirmReservation(@PathVariable String reservationId) {
+        logger.info("Confirming reservation with ID: {}", reservationId);
+        try {
+            return ResponseEntity.ok(stockService.confirm(reservationId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Release reservation", description = "Cancels a held reservation and puts its stock back on sale")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reservation released",
+                    content = @Content(schema = @Schema(implementation = StockReservation.class))),
+            @ApiResponse(responseCode = "404", description = "Reservation not found"),
+            @ApiResponse(responseCode = "409", description = "Reservation no longer held")
+    })
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<StockReservation> releaseReservation(@PathVariable String reservationId) {
+        logger.info("Releasing reservation with ID: {}", reservationId);
+        try {
+            return ResponseEntity.ok(stockService.release(reservationId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Decrement stock", description = "Takes stock for an immediate sale, only if enough is left")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock decremented",
+                    content = @Content(schema = @Schema(implementation = StockLevel.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid quantity"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Not enough stock")
+    })
+    @PostMapping("/products/{productId}/stock/decrement")
+    public ResponseEntity<StockLevel> decrementStock(@PathVariable String productId, @RequestParam int quantity) {
+        requirePositive(quantity);
+        logger.info("Decrementing stock of product {} by {}", productId, quantity);
+        try {
+            return ResponseEntity.ok(stockService.decrement(productId, quantity));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Restock", description = "Adds stock to a product")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock added",
+                    content = @Content(schema = @Schema(implementation = StockLevel.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid quantity"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @PostMapping("/products/{productId}/stock/restock")
+    public ResponseEntity<StockLevel> restock(@PathVariable String productId, @RequestParam int quantity) {
+        requirePositive(quantity);
+        logger.info("Restocking product {} with {}", productId, quantity);
+        try {
+            return ResponseEntity.ok(stockService.restock(productId, quantity));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Split stock", description = "Spreads a hot product's stock over several buckets so concurrent buyers do not contend on one document")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock split",
+                    content = @Content(schema = @Schema(implementation = StockLevel.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid bucket count"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Product already split")
+    })
+    @PostMapping("/products/{productId}/stock/split")
+    public ResponseEntity<StockLevel> splitStock(@PathVariable String productId, @RequestParam int buckets) {
+        logger.info("Splitting stock of product {} into {} buckets", productId, buckets);
+        try {
+            return stockService.split(productId, buckets).map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    private void requirePositive(int quantity) {
+        if (quantity < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "quantity must be at least 1");
+        }
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<String> handleResponseStatusException(ResponseStatusException ex) {
+        logger.error("Error occurred: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getReason(), ex.getStatusCode());
+    }
+}
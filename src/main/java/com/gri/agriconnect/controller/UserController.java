@@ -1,7 +1,11 @@
 package com.gri.agriconnect.controller;
 
+import com.gri.agriconnect.model.BatchResult;
 import com.gri.agriconnect.model.User;
+import com.gri.agriconnect.model.UserProfile;
+import com.gri.agriconnect.service.ProfileService;
 import com.gri.agriconnect.service.UserService;
+import com.gri.agriconnect.service.VersionStampService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,10 +15,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
@@ -30,10 +37,14 @@ public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
     private final UserService userService;
+    private final VersionStampService versionStampService;
+    private final ProfileService profileService;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, VersionStampService versionStampService, ProfileService profileService) {
         this.userService = userService;
+        this.versionStampService = versionStampService;
+        this.profileService = profileService;
     }
 
     @Operation(summary = "Create a new user", description = "Adds a new user to the system")
@@ -53,13 +64,29 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User fetched",
                     content = @Content(schema = @Schema(implementation = User.class))),
-            @ApiResponse(responseCode = "404", description = "User not found")
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "304", description = "Unchanged since the If-None-Match ETag or If-Modified-Since date")
     })
     @GetMapping("/{userId}")
-    public ResponseEntity<User> getUserById(@PathVariable String userId) {
+    public ResponseEntity<User> getUserById(@PathVariable String userId, WebRequest request) {
         logger.info("Fetching user with ID: {}", userId);
-        Optional<User> user = userService.getUserById(userId);
-        return user.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        return ETags.conditional(request, () -> versionStampService.getUserStamp(userId), () -> {
+            Optional<User> user = userService.getUserById(userId);
+            return user.map(value -> ETags.ok(value, value.getVersion(), value.getLastModifiedDate()))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        });
+    }
+
+    @Operation(summary = "Get user profile", description = "Fetches a user's public summary, counters and latest posts, products and comments in one call")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Profile fetched",
+                    content = @Content(schema = @Schema(implementation = UserProfile.class))),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @GetMapping("/{userId}/profile")
+    public ResponseEntity<UserProfile> getUserProfile(@PathVariable String userId) {
+        logger.info("Fetching profile of user with ID: {}", userId);
+        return profileService.getProfile(userId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Get all users", description = "Fetches all users in the system")
@@ -71,20 +98,37 @@ public class UserController {
     public ResponseEntity<List<User>> getAllUsers() {
         logger.info("Fetching all users");
         List<User> users = userService.getAllUsers();
-        return new ResponseEntity<>(users, HttpStatus.OK);
+        return ETags.okList(users, User::getUserId, User::getVersion);
+    }
+
+    @Operation(summary = "Get users by IDs", description = "Fetches up to the configured maximum of users in one query, in request order, and lists the IDs that were not found")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users fetched"),
+            @ApiResponse(responseCode = "400", description = "Too many IDs requested")
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchResult<User>> getUsersByIds(@RequestParam List<String> ids) {
+        logger.info("Fetching users by IDs: {}", ids.size());
+        try {
+            return new ResponseEntity<>(userService.getUsersByIds(ids), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @Operation(summary = "Update user", description = "Updates a user by their ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User updated",
                     content = @Content(schema = @Schema(implementation = User.class))),
-            @ApiResponse(responseCode = "404", description = "User not found")
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PutMapping("/{userId}")
-    public ResponseEntity<User> updateUser(@PathVariable String userId, @Valid @RequestBody User userDetails) {
+    public ResponseEntity<User> updateUser(@PathVariable String userId, @Valid @RequestBody User userDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Updating user with ID: {}", userId);
-        Optional<User> updatedUser = userService.updateUser(userId, userDetails);
-        return updatedUser.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        Optional<User> updatedUser = userService.updateUser(userId, userDetails, ETags.expectedVersion(ifMatch));
+        return updatedUser.map(value -> ETags.ok(value, value.getVersion())).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Delete user", description = "Deletes a user by their ID")
@@ -114,7 +158,7 @@ public class UserController {
     public ResponseEntity<List<User>> searchUsersByAccountName(@RequestParam String accountName) {
         logger.info("Searching users by account name: {}", accountName);
         List<User> users = userService.searchUsersByAccountName(accountName);
-        return new ResponseEntity<>(users, HttpStatus.OK);
+        return ETags.okList(users, User::getUserId, User::getVersion);
     }
 
     @Operation(summary = "Update user status", description = "Updates the status of a user by their ID")
@@ -143,6 +187,24 @@ public class UserController {
         return updatedUser.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @Operation(summary = "Update user position", description = "Sets the user's map position; their products move with it for nearby searches")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "User position updated",
+                    content = @Content(schema = @Schema(implementation = User.class))),
+            @ApiResponse(responseCode = "400", description = "Coordinates out of range"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @PatchMapping("/{userId}/position")
+    public ResponseEntity<User> updateUserPosition(@PathVariable String userId, @RequestParam double lat, @RequestParam double lng) {
+        logger.info("Updating position of user with ID: {}", userId);
+        try {
+            Optional<User> updatedUser = userService.updateUserPosition(userId, lat, lng);
+            return updatedUser.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     @Operation(summary = "Update user password", description = "Updates the password of a user by their ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User password updated",
@@ -161,4 +223,10 @@ public class UserController {
         logger.error("Error occurred: {}", ex.getMessage());
         return new ResponseEntity<>(ex.getReason(), ex.getStatusCode());
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        logger.warn("Conditional update rejected: {}", ex.getMessage());
+        return new ResponseEntity<>("User was modified by another request", HttpStatus.PRECONDITION_FAILED);
+    }
 }
@@ -0,0 +1,200 @@
+package com.gri.agriconnect.index;
+
+import com.gri.agriconnect.model.ArchivedChunk;
+import com.gri.agriconnect.model.Comment;
+import com.gri.agriconnect.model.Message;
+import com.gri.agriconnect.model.MessageBucket;
+import com.gri.agriconnect.model.Notification;
+import com.gri.agriconnect.model.Post;
+import com.gri.agriconnect.model.Product;
+import com.gri.agriconnect.model.StockBucket;
+import com.gri.agriconnect.model.StockReservation;
+import com.gri.agriconnect.model.TrendingScore;
+import com.gri.agriconnect.model.User;
+import com.gri.agriconnect.retention.RetentionProperties;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Central list of the indexes backing repository finders, plus the query shapes
+// those finders issue so the startup check can explain them.
+@Component
+@EnableConfigurationProperties(RetentionProperties.class)
+public class IndexDefinitions {
+
+    public record IndexSpec(Class<?> entityClass, IndexDefinition definition) {
+    }
+
+    public record QueryShape(Class<?> entityClass, String name, Document filter, Document sort) {
+    }
+
+    private final List<IndexSpec> indexes = new ArrayList<>();
+    private final List<QueryShape> queryShapes = new ArrayList<>();
+
+    @Autowired
+    public IndexDefinitions(RetentionProperties retention) {
+        // PostRepository.findByUserId
+        index(Post.class, new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .named("user_createdAt"));
+        query(Post.class, "findByUserId", new Document("userId", "?"), null);
+
+        // ProductRepository.findByCategory / findBySupplierId list newest first
+        index(Product.class, new Index()
+                .on("category", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .named("category_createdAt"));
+        // Also the latest-products lookup of UserRepository.profile
+        index(Product.class, new Index()
+                .on("supplierId", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .named("supplier_createdAt"));
+        // ProductRepository.findNearby: $geoNear needs the 2dsphere key; category narrows it in the same index
+        index(Product.class, new CompoundIndexDefinition(new Document("position", "2dsphere").append("category", 1))
+                .named("position_category"));
+        // Supplier positions, for "near me" lookups of users
+        index(User.class, new GeospatialIndex("position")
+                .typed(GeoSpatialIndexType.GEO_2DSPHERE)
+                .named("position"));
+        // ProductRepository.browse: category plus a price range or price sort
+        index(Product.class, new Index()
+                .on("category", Sort.Direction.ASC)
+                .on("price", Sort.Direction.ASC)
+                .named("category_price"));
+        query(Product.class, "findByCategory", new Document("category", "?"), new Document("createdAt", -1));
+        query(Product.class, "browse", new Document("category", "?").append("price", new Document("$gte", 0)),
+                new Document("price", 1));
+        query(Product.class, "findBySupplierId", new Document("supplierId", "?"), new Document("createdAt", -1));
+
+        // CommentRepository.findByUserId, comment lookups by post or product
+        // Also the recent-comments lookup of UserRepository.profile
+        index(Comment.class, new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .named("user_createdAt"));
+        index(Comment.class, new Index()
+                .on("postId", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .named("post_createdAt"));
+        query(Comment.class, "findByUserId", new Document("userId", "?"), null);
+        query(Comment.class, "findByPostId", new Document("postId", "?"), null);
+
+        // MessageRepository.findByConversationId returns history in send order; also serves any
+        // conversationId-only lookup, so the field carries no index of its own
+        index(Message.class, new Index()
+                .on("conversationId", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.ASC)
+                .named("conversation_timestamp"));
+        // Only unread messages are indexed, which keeps this one small
+        index(Message.class, new Index()
+                .on("conversationId", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where("isRead").is(false)))
+                .named("conversation_unread"));
+        query(Message.class, "findByConversationId", new Document("conversationId", "?"), null);
+        query(Message.class, "findByConversationIdAndIsReadFalse",
+                new Document("conversationId", "?").append("isRead", false), null);
+
+        // BucketMessageStore: the open bucket and history pages by conversation, single messages by id
+        index(MessageBucket.class, new Index()
+                .on("conversationId", Sort.Direction.ASC)
+                .on("firstTimestamp", Sort.Direction.DESC)
+                .named("conversation_firstTimestamp"));
+        index(MessageBucket.class, new Index()
+                .on("messages.messageId", Sort.Direction.ASC)
+                .named("messages_messageId"));
+        query(MessageBucket.class, "findPage", new Document("conversationId", "?")
+                .append("firstTimestamp", new Document("$lt", "?")), new Document("firstTimestamp", -1));
+
+        // StockReservationRepository.findTop100ByStatusAndExpiresAtBefore, polled by the expiry sweeper
+        index(StockReservation.class, new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("expiresAt", Sort.Direction.ASC)
+                .named("status_expiresAt"));
+        query(StockReservation.class, "findTop100ByStatusAndExpiresAtBefore",
+                new Document("status", "HELD").append("expiresAt", new Document("$lt", "?")), null);
+
+        // StockBucketRepository.totalQuantity / findByProductId
+        index(StockBucket.class, new Index()
+                .on("productId", Sort.Direction.ASC)
+                .named("productId"));
+        query(StockBucket.class, "findByProductId", new Document("productId", "?"), null);
+
+        // TrendingScoreRepository.findByLogScoreGreaterThan at startup, deleteByLogScoreLessThan on every flush
+        index(TrendingScore.class, new Index()
+                .on("logScore", Sort.Direction.ASC)
+                .named("logScore"));
+        query(TrendingScore.class, "findByLogScoreGreaterThan", new Document("logScore", new Document("$gt", 0)), null);
+
+        // ArchiveService.page: a key's chunks newest first
+        index(ArchivedChunk.class, new Index()
+                .on("source", Sort.Direction.ASC)
+                .on("key", Sort.Direction.ASC)
+                .on("firstTimestamp", Sort.Direction.DESC)
+                .named("source_key_firstTimestamp"));
+        query(ArchivedChunk.class, "findBefore", new Document("source", "?").append("key", "?")
+                .append("firstTimestamp", new Document("$lt", "?")), new Document("firstTimestamp", -1));
+
+        // NotificationRepository.addUnread matches the one unread notification per type and target, and
+        // countUnread counts the recipient's entries of this index. Unique, so concurrent inserts collapse.
+        index(Notification.class, new Index()
+                .on("recipientId", Sort.Direction.ASC)
+                .on("type", Sort.Direction.ASC)
+                .on("targetId", Sort.Direction.ASC)
+                .unique()
+                .partial(PartialIndexFilter.of(Criteria.where("read").is(false)))
+                .named("recipient_type_target_unread"));
+        // NotificationRepository.findPage: the inbox newest first
+        index(Notification.class, new Index()
+                .on("recipientId", Sort.Direction.ASC)
+                .on("latestAt", Sort.Direction.DESC)
+                .named("recipient_latestAt"));
+        query(Notification.class, "countUnread", new Document("recipientId", "?").append("read", false), null);
+        query(Notification.class, "findPage", new Document("recipientId", "?")
+                .append("latestAt", new Document("$lt", "?")), new Document("latestAt", -1));
+
+        // Retention: data that expires rather than being archived. Changing a TTL later needs a collMod
+        // (or dropping the index), since ensureIndex refuses different options under the same name.
+        ttl(StockReservation.class, "expiresAt", retention.getReservationTtl());
+        ttl(ArchivedChunk.class, "archivedAt", retention.getArchiveTtl());
+        ttl(Message.class, "timestamp", retention.getMessages().expireAfter());
+        ttl(MessageBucket.class, "lastTimestamp", retention.getMessages().expireAfter());
+        ttl(Comment.class, "createdAt", retention.getComments().expireAfter());
+        ttl(Notification.class, "latestAt", retention.getNotificationTtl());
+    }
+
+    private void ttl(Class<?> entityClass, String field, Duration expireAfter) {
+        if (expireAfter != null) {
+            index(entityClass, new Index().on(field, Sort.Direction.ASC).expire(expireAfter).named(field + "_ttl"));
+        }
+    }
+
+    private void index(Class<?> entityClass, IndexDefinition definition) {
+        indexes.add(new IndexSpec(entityClass, definition));
+    }
+
+    private void query(Class<?> entityClass, String name, Document filter, Document sort) {
+        queryShapes.add(new QueryShape(entityClass, name, filter, sort));
+    }
+
+    public List<IndexSpec> getIndexes() {
+        return indexes;
+    }
+
+    public List<QueryShape> getQueryShapes() {
+        return queryShapes;
+    }
+}
@@ -0,0 +1,64 @@
+package com.gri.agriconnect.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@EnableConfigurationProperties(IndexProperties.class)
+public class IndexInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexInitializer.class);
+
+    private final IndexManager indexManager;
+    private final IndexProperties indexProperties;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Autowired
+    public IndexInitializer(IndexManager indexManager, IndexProperties indexProperties,
+                            ConfigurableApplicationContext applicationContext) {
+        this.indexManager = indexManager;
+        this.indexProperties = indexProperties;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (indexProperties.getMode() == IndexProperties.Mode.NONE) {
+            return;
+        }
+
+        if (indexProperties.getMode() == IndexProperties.Mode.CREATE) {
+            logger.info("Creating declared indexes");
+            indexManager.createIndexes();
+        }
+
+        List<String> missing = indexManager.verifyIndexes();
+        if (missing.isEmpty()) {
+            logger.info("All declared indexes are present");
+        } else {
+            missing.forEach(index -> logger.warn("Missing index: {}", index));
+            if (indexProperties.isFailOnMissing()) {
+                throw new IllegalStateException("Missing " + missing.size() + " declared indexes: " + missing);
+            }
+        }
+
+        if (indexProperties.isExplainQueries()) {
+            List<String> collectionScans = indexManager.findCollectionScans();
+            collectionScans.forEach(query -> logger.warn("Query runs as COLLSCAN: {}", query));
+        }
+
+        if (indexProperties.isExitAfterMigration()) {
+            logger.info("Index migration finished, shutting down");
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.gri.agriconnect.index;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class IndexManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexManager.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final IndexDefinitions indexDefinitions;
+
+    @Autowired
+    public IndexManager(MongoTemplate mongoTemplate, IndexDefinitions indexDefinitions) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexDefinitions = indexDefinitions;
+    }
+
+    // Declared indexes grouped by collection: @Indexed annotations on the models
+    // plus the central definitions
+    public Map<String, List<IndexDefinition>> getDeclaredIndexes() {
+        Map<String, List<IndexDefinition>> declared = new LinkedHashMap<>();
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+
+        for (MongoPersistentEntity<?> entity : mongoTemplate.getConverter().getMappingContext().getPersistentEntities()) {
+            if (entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                for (IndexDefinition definition : resolver.resolveIndexFor(entity.getType())) {
+                    declared.computeIfAbsent(entity.getCollection(), key -> new ArrayList<>()).add(definition);
+                }
+            }
+        }
+        for (IndexDefinitions.IndexSpec spec : indexDefinitions.getIndexes()) {
+            String collection = mongoTemplate.getCollectionName(spec.entityClass());
+            declared.computeIfAbsent(collection, key -> new ArrayList<>()).add(spec.definition());
+        }
+        return declared;
+    }
+
+    public void createIndexes() {
+        getDeclaredIndexes().forEach((collection, definitions) -> {
+            for (IndexDefinition definition : definitions) {
+                String name = mongoTemplate.indexOps(collection).ensureIndex(definition);
+                logger.info("Ensured index {} on {}", name, collection);
+            }
+        });
+    }
+
+    // Returns a description of every declared index that is missing from the live database
+    public List<String> verifyIndexes() {
+        List<String> missing = new ArrayList<>();
+        getDeclaredIndexes().forEach((collection, definitions) -> {
+            Set<String> existing = new HashSet<>();
+            for (Document index : mongoTemplate.getCollection(collection).listIndexes()) {
+                existing.add(signature(index.get("key", Document.class), index.get("partialFilterExpression", Document.class)));
+            }
+            for (IndexDefinition definition : definitions) {
+                Document partialFilter = definition.getIndexOptions().get("partialFilterExpression", Document.class);
+                if (!existing.contains(signature(definition.getIndexKeys(), partialFilter))) {
+                    missing.add(collection + " " + definition.getIndexKeys().toJson());
+                }
+            }
+        });
+        return missing;
+    }
+
+    // Returns the names of declared query shapes whose winning plan is a collection scan
+    public List<String> findCollectionScans() {
+        List<String> collectionScans = new ArrayList<>();
+        for (IndexDefinitions.QueryShape shape : indexDefinitions.getQueryShapes()) {
+            String collection = mongoTemplate.getCollectionName(shape.entityClass());
+            Document plan = explain(collection, shape.filter(), shape.sort());
+            if (usesCollectionScan(plan)) {
+                collectionScans.add(collection + "." + shape.name());
+            }
+        }
+        return collectionScans;
+    }
+
+    public Document explain(String collection, Document filter, Document sort) {
+        Document find = new Document("find", collection).append("filter", filter);
+        if (sort != null) {
+            find.append("sort", sort);
+        }
+        Document command = new Document("explain", find).append("verbosity", "queryPlanner");
+        Document result = mongoTemplate.getDb().runCommand(command);
+        Document queryPlanner = result.get("queryPlanner", Document.class);
+        return queryPlanner != null ? queryPlanner.get("winningPlan", Document.class) : new Document();
+    }
+
+    public boolean usesCollectionScan(Document plan) {
+        if (plan == null) {
+            return false;
+        }
+        if ("COLLSCAN".equals(plan.getString("stage"))) {
+            return true;
+        }
+        for (Object value : plan.values()) {
+            if (value instanceof Document child && usesCollectionScan(child)) {
+                return true;
+            }
+            if (value instanceof List<?> children) {
+                for (Object item : children) {
+                    if (item instanceof Document child && usesCollectionScan(child)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Key order matters for compound indexes, so the signature keeps it
+    private String signature(Document keys, Document partialFilter) {
+        StringBuilder signature = new StringBuilder();
+        keys.forEach((field, direction) -> {
+            Object normalized = direction instanceof Number number ? number.intValue() : direction;
+            signature.append(field).append(':').append(normalized).append(',');
+        });
+        if (partialFilter != null) {
+            signature.append(partialFilter.toJson());
+        }
+        return signature.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package com.gri.agriconnect.index;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "agriconnect.indexes")
+public class IndexProperties {
+
+    public enum Mode {
+        CREATE, // create missing indexes, then verify
+        VERIFY, // only compare declared indexes with the live database
+        NONE    // skip index management entirely
+    }
+
+    private Mode mode = Mode.CREATE;
+
+    // Fail startup when a declared index is missing after create/verify
+    private boolean failOnMissing = false;
+
+    // Run explain on the declared query shapes and warn about collection scans
+    private boolean explainQueries = true;
+
+    // Stop the application once indexes are created (used as a migration command)
+    private boolean exitAfterMigration = false;
+}
@@ -0,0 +1,27 @@
+package com.gri.agriconnect.metrics;
+
+// Counts Mongo commands issued while handling the current HTTP request
+public final class MongoCallCounter {
+
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    private MongoCallCounter() {
+    }
+
+    static void start() {
+        CURRENT.set(new int[1]);
+    }
+
+    static int stop() {
+        int[] count = CURRENT.get();
+        CURRENT.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    static void increment() {
+        int[] count = CURRENT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+}
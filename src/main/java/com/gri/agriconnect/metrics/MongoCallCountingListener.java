@@ -0,0 +1,25 @@
+package com.gri.agriconnect.metrics;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+// Feeds MongoCallCounter for RequestMetricsFilter. Registered on its own, so Mongo calls per request
+// are counted even when the per-command metrics (agriconnect.mongo.metrics.enabled) are off.
+@Component
+public class MongoCallCountingListener implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!MongoCommandMetricsListener.IGNORED_COMMANDS.contains(event.getCommandName())) {
+            MongoCallCounter.increment();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.gri.agriconnect.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonArray;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Records latency, returned documents and response size per collection, command and
+// repository method, and feeds the slow query log with the filter shape of each query.
+public class MongoCommandMetricsListener implements CommandListener {
+
+    // Handshake, session and index housekeeping rather than queries the application issued
+    static final Set<String> IGNORED_COMMANDS = Set.of(
+            "hello", "isMaster", "ismaster", "ping", "buildInfo", "saslStart", "saslContinue",
+            "endSessions", "killCursors", "listIndexes", "createIndexes", "explain");
+
+    private static final int MAX_SHAPE_LENGTH = 512;
+
+    private record StartedCommand(String collection, String repositoryMethod, String filterShape) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final SlowQueryLog slowQueryLog;
+    private final boolean recordResponseBytes;
+    private final Map<Integer, StartedCommand> inFlight = new ConcurrentHashMap<>();
+
+    public MongoCommandMetricsListener(MeterRegistry meterRegistry, SlowQueryLog slowQueryLog, boolean recordResponseBytes) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryLog = slowQueryLog;
+        this.recordResponseBytes = recordResponseBytes;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (IGNORED_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        BsonDocument command = event.getCommand();
+        inFlight.put(event.getRequestId(), new StartedCommand(
+                collectionOf(event.getCommandName(), command),
+                RepositoryMethodContext.current(),
+                filterShape(event.getCommandName(), command)));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        StartedCommand started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        BsonDocument response = event.getResponse();
+        long documents = documentsReturned(response);
+        long bytes = recordResponseBytes ? responseBytes(response) : -1;
+        record(event.getCommandName(), started, event.getElapsedTime(TimeUnit.NANOSECONDS), documents, bytes, false);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        StartedCommand started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        record(event.getCommandName(), started, event.getElapsedTime(TimeUnit.NANOSECONDS), 0, -1, true);
+    }
+
+    private void record(String commandName, StartedCommand started, long elapsedNanos,
+                        long documents, long bytes, boolean failed) {
+        Timer.builder("agriconnect.mongo.command")
+                .description("Latency of MongoDB commands")
+                .tag("collection", started.collection())
+                .tag("command", commandName)
+                .tag("repository.method", started.repositoryMethod())
+                .tag("outcome", failed ? "failure" : "success")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        if (!failed) {
+            DistributionSummary.builder("agriconnect.mongo.command.documents")
+                    .description("Documents returned or affected per MongoDB command")
+                    .tag("collection", started.collection())
+                    .tag("command", commandName)
+                    .register(meterRegistry)
+                    .record(documents);
+            if (bytes >= 0) {
+                DistributionSummary.builder("agriconnect.mongo.command.response.bytes")
+                        .description("Size of MongoDB command responses")
+                        .baseUnit("bytes")
+                        .tag("collection", started.collection())
+                        .tag("command", commandName)
+                        .register(meterRegistry)
+                        .record(bytes);
+            }
+        }
+
+        slowQueryLog.record(new SlowQuery(
+                started.collection(),
+                commandName,
+                started.repositoryMethod(),
+                started.filterShape(),
+                TimeUnit.NANOSECONDS.toMicros(elapsedNanos),
+                documents,
+                bytes,
+                failed,
+                Instant.now()));
+    }
+
+    private String collectionOf(String commandName, BsonDocument command) {
+        BsonValue value = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return value != null && value.isString() ? value.asString().getValue() : "none";
+    }
+
+    private String filterShape(String commandName, BsonDocument command) {
+        BsonValue filter = switch (commandName) {
+            case "find" -> command.get("filter");
+            case "count", "distinct", "findAndModify" -> command.get("query");
+            case "aggregate" -> firstMatchStage(command.get("pipeline"));
+            case "update" -> firstStatementField(command.get("updates"), "q");
+            case "delete" -> firstStatementField(command.get("deletes"), "q");
+            default -> null;
+        };
+        if (filter == null) {
+            return "";
+        }
+        String shape = shapeOf(filter);
+        return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) + "..." : shape;
+    }
+
+    private BsonValue firstMatchStage(BsonValue pipeline) {
+        if (pipeline != null && pipeline.isArray()) {
+            for (BsonValue stage : pipeline.asArray()) {
+                if (stage.isDocument() && stage.asDocument().containsKey("$match")) {
+                    return stage.asDocument().get("$match");
+                }
+            }
+        }
+        return null;
+    }
+
+    private BsonValue firstStatementField(BsonValue statements, String field) {
+        if (statements != null && statements.isArray() && !statements.asArray().isEmpty()) {
+            BsonValue first = statements.asArray().get(0);
+            return first.isDocument() ? first.asDocument().get(field) : null;
+        }
+        return null;
+    }
+
+    // Replaces literal values with '?' so queries differing only in parameters share a shape
+    private String shapeOf(BsonValue value) {
+        if (value.isDocument()) {
+            StringBuilder shape = new StringBuilder("{");
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                if (!first) {
+                    shape.append(", ");
+                }
+                shape.append(entry.getKey()).append(": ").append(shapeOf(entry.getValue()));
+                first = false;
+            }
+            return shape.append('}').toString();
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            return array.isEmpty() ? "[]" : "[" + shapeOf(array.get(0)) + (array.size() > 1 ? ", ..." : "") + "]";
+        }
+        return "?";
+    }
+
+    private long documentsReturned(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonValue batch = cursor.asDocument().containsKey("firstBatch")
+                    ? cursor.asDocument().get("firstBatch")
+                    : cursor.asDocument().get("nextBatch");
+            return batch != null && batch.isArray() ? batch.asArray().size() : 0;
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : 0;
+    }
+
+    private long responseBytes(BsonDocument response) {
+        if (response instanceof RawBsonDocument raw) {
+            return raw.getByteBuffer().remaining();
+        }
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        new BsonDocumentCodec().encode(new BsonBinaryWriter(buffer), response, EncoderContext.builder().build());
+        return buffer.getPosition();
+    }
+}
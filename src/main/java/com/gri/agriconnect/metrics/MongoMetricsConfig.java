@@ -0,0 +1,59 @@
+package com.gri.agriconnect.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+@Configuration
+@EnableConfigurationProperties(MongoMetricsProperties.class)
+@ConditionalOnProperty(prefix = "agriconnect.mongo.metrics", name = "enabled", matchIfMissing = true)
+public class MongoMetricsConfig {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(MongoMetricsProperties properties) {
+        return new SlowQueryLog(
+                properties.getSlowestSize(),
+                properties.getSlowThreshold().toNanos() / 1000,
+                properties.getRecentSlowSize());
+    }
+
+    @Bean
+    public MongoCommandMetricsListener mongoCommandMetricsListener(MeterRegistry meterRegistry, SlowQueryLog slowQueryLog,
+                                                                   MongoMetricsProperties properties) {
+        return new MongoCommandMetricsListener(meterRegistry, slowQueryLog, properties.isRecordResponseBytes());
+    }
+
+    @Bean
+    public MongoPoolWaitListener mongoPoolWaitListener(MeterRegistry meterRegistry) {
+        return new MongoPoolWaitListener(meterRegistry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolWaitCustomizer(MongoPoolWaitListener listener) {
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(listener));
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMetricsCustomizer(MongoCommandMetricsListener listener) {
+        return builder -> builder.addCommandListener(listener);
+    }
+
+    // Mongo command spans, parented to the repository observation that issued them
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(ObservationRegistry observationRegistry) {
+        return builder -> builder
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+
+    @Bean
+    public MongoQueriesEndpoint mongoQueriesEndpoint(SlowQueryLog slowQueryLog) {
+        return new MongoQueriesEndpoint(slowQueryLog);
+    }
+}
@@ -0,0 +1,30 @@
+package com.gri.agriconnect.metrics;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "agriconnect.mongo.metrics")
+public class MongoMetricsProperties {
+
+    private boolean enabled = true;
+
+    // Number of slowest queries kept for the mongoqueries endpoint; 0 keeps none
+    @PositiveOrZero
+    private int slowestSize = 50;
+
+    // Commands slower than this are also kept in the recent slow query buffer
+    private Duration slowThreshold = Duration.ofMillis(100);
+
+    // 0 keeps no recent slow queries
+    @PositiveOrZero
+    private int recentSlowSize = 200;
+
+    // Measuring responses that are not raw BSON requires re-encoding them
+    private boolean recordResponseBytes = true;
+}
@@ -0,0 +1,45 @@
+package com.gri.agriconnect.metrics;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Time operations spend waiting for a pooled connection, per server, as mongodb.driver.pool.wait.
+// Failed check-outs are tagged with their reason (timeout, connection_error, pool_closed).
+public class MongoPoolWaitListener implements ConnectionPoolListener {
+
+    private final MeterRegistry meterRegistry;
+    // One timer per server and outcome, so events do not rebuild meter ids
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public MongoPoolWaitListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        record(event.getConnectionId().getServerId().getAddress().toString(), "success", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        record(event.getServerId().getAddress().toString(), event.getReason().name().toLowerCase(),
+                event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void record(String server, String outcome, long nanos) {
+        timers.computeIfAbsent(server + "|" + outcome, key -> Timer.builder("mongodb.driver.pool.wait")
+                        .description("Time waiting to check out a pooled connection")
+                        .tag("server", server)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,31 @@
+package com.gri.agriconnect.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+import java.util.Map;
+
+// Exposed at /actuator/mongoqueries
+@Endpoint(id = "mongoqueries")
+public class MongoQueriesEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public MongoQueriesEndpoint(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ReadOperation
+    public Map<String, List<SlowQuery>> queries() {
+        return Map.of(
+                "slowest", slowQueryLog.getSlowest(),
+                "recent", slowQueryLog.getRecent());
+    }
+
+    @DeleteOperation
+    public void reset() {
+        slowQueryLog.reset();
+    }
+}
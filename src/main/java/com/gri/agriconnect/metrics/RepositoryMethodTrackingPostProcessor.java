@@ -0,0 +1,46 @@
+package com.gri.agriconnect.metrics;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+// Wraps every repository proxy so the invoked method is visible to MongoCommandMetricsListener
+// and shows up as its own observation between the service and the Mongo command
+@Component
+public class RepositoryMethodTrackingPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+    public RepositoryMethodTrackingPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> {
+                        String repositoryName = repositoryInformation.getRepositoryInterface().getSimpleName();
+                        proxyFactory.addAdvice(0, (MethodInterceptor) invocation -> {
+                            String method = repositoryName + "." + invocation.getMethod().getName();
+                            String previous = RepositoryMethodContext.enter(method);
+                            try {
+                                ObservationRegistry registry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+                                return Observation.createNotStarted("agriconnect.repository", registry)
+                                        .contextualName(method)
+                                        .lowCardinalityKeyValue("repository", repositoryName)
+                                        .lowCardinalityKeyValue("method", invocation.getMethod().getName())
+                                        .observeChecked(invocation::proceed);
+                            } finally {
+                                RepositoryMethodContext.exit(previous);
+                            }
+                        });
+                    }));
+        }
+        return bean;
+    }
+}
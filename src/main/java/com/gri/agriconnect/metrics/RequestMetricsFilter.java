@@ -0,0 +1,82 @@
+package com.gri.agriconnect.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Records request/response payload sizes and the number of Mongo commands per route.
+// Latency per route comes from the http.server.requests timer.
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int mongoCallWarnThreshold;
+
+    @Autowired
+    public RequestMetricsFilter(MeterRegistry meterRegistry,
+                                @Value("${agriconnect.http.metrics.mongo-call-warn-threshold:10}") int mongoCallWarnThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.mongoCallWarnThreshold = mongoCallWarnThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CountingResponseWrapper countingResponse = new CountingResponseWrapper(response);
+        MongoCallCounter.start();
+        try {
+            filterChain.doFilter(request, countingResponse);
+        } finally {
+            int mongoCalls = MongoCallCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            String method = request.getMethod();
+
+            if (request.getContentLengthLong() >= 0) {
+                summary("agriconnect.http.request.bytes", "Request body size", method, uri)
+                        .record(request.getContentLengthLong());
+            }
+            summary("agriconnect.http.response.bytes", "Response body size", method, uri)
+                    .record(countingResponse.getByteCount());
+            DistributionSummary.builder("agriconnect.http.mongo.calls")
+                    .description("Mongo commands issued per request")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(mongoCalls);
+
+            if (mongoCalls > mongoCallWarnThreshold) {
+                logger.warn("{} {} issued {} Mongo commands", method, uri, mongoCalls);
+            }
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, String method, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit("bytes")
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,54 @@
+package com.gri.agriconnect.metrics;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+
+// Opens an observation (a span once tracing is on the classpath) around every
+// service method, linking the HTTP request span to the repository and Mongo spans below it
+@Component
+public class ServiceObservationPostProcessor implements BeanPostProcessor {
+
+    private static final String SERVICE_PACKAGE = "com.gri.agriconnect.service";
+
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+    public ServiceObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> beanClass = AopUtils.getTargetClass(bean);
+        if (!beanClass.isAnnotationPresent(Service.class) || !beanClass.getPackageName().equals(SERVICE_PACKAGE)) {
+            return bean;
+        }
+        String serviceName = beanClass.getSimpleName();
+        MethodInterceptor interceptor = invocation -> {
+            ObservationRegistry registry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+            return Observation.createNotStarted("agriconnect.service", registry)
+                    .contextualName(serviceName + "." + invocation.getMethod().getName())
+                    .lowCardinalityKeyValue("service", serviceName)
+                    .lowCardinalityKeyValue("method", invocation.getMethod().getName())
+                    .observeChecked(invocation::proceed);
+        };
+
+        // Services already proxied (e.g. for caching) get the advice added to the existing proxy,
+        // outermost so cache hits are observed too
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,15 @@
+package com.gri.agriconnect.metrics;
+
+import java.time.Instant;
+
+public record SlowQuery(
+        String collection,
+        String command,
+        String repositoryMethod,
+        String filterShape,
+        long durationMicros,
+        long documents,
+        long bytes,
+        boolean failed,
+        Instant timestamp) {
+}
@@ -0,0 +1,81 @@
+package com.gri.agriconnect.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Keeps the slowest N queries seen since the last reset (a min-heap, so the fastest
+// entry is evicted first) and a ring buffer of the most recent slow queries. A size of 0 turns
+// that part off.
+public class SlowQueryLog {
+
+    private static final Comparator<SlowQuery> BY_DURATION = Comparator.comparingLong(SlowQuery::durationMicros);
+
+    private final int slowestSize;
+    private final long slowThresholdMicros;
+    private final PriorityQueue<SlowQuery> slowest;
+    private final SlowQuery[] recent;
+    private int recentNext;
+    private long recentCount;
+
+    // Read without locking so fast queries never contend on the heap
+    private volatile long admissionMicros;
+
+    public SlowQueryLog(int slowestSize, long slowThresholdMicros, int recentSize) {
+        this.slowestSize = slowestSize;
+        this.slowThresholdMicros = slowThresholdMicros;
+        this.slowest = new PriorityQueue<>(Math.max(slowestSize, 1), BY_DURATION);
+        this.recent = new SlowQuery[recentSize];
+    }
+
+    public void record(SlowQuery query) {
+        boolean slow = query.durationMicros() >= slowThresholdMicros;
+        if (!slow && (slowestSize == 0 || query.durationMicros() <= admissionMicros)) {
+            return;
+        }
+        synchronized (this) {
+            if (slowestSize > 0) {
+                if (slowest.size() < slowestSize) {
+                    slowest.add(query);
+                } else if (query.durationMicros() > slowest.peek().durationMicros()) {
+                    slowest.poll();
+                    slowest.add(query);
+                }
+                if (slowest.size() == slowestSize) {
+                    admissionMicros = slowest.peek().durationMicros();
+                }
+            }
+            if (slow && recent.length > 0) {
+                recent[recentNext] = query;
+                recentNext = (recentNext + 1) % recent.length;
+                recentCount++;
+            }
+        }
+    }
+
+    public synchronized List<SlowQuery> getSlowest() {
+        List<SlowQuery> result = new ArrayList<>(slowest);
+        result.sort(BY_DURATION.reversed());
+        return result;
+    }
+
+    // Most recent first
+    public synchronized List<SlowQuery> getRecent() {
+        int size = (int) Math.min(recentCount, recent.length);
+        List<SlowQuery> result = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            result.add(recent[(recentNext - i + recent.length) % recent.length]);
+        }
+        return result;
+    }
+
+    public synchronized void reset() {
+        slowest.clear();
+        admissionMicros = 0;
+        Arrays.fill(recent, null);
+        recentNext = 0;
+        recentCount = 0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.gri.agriconnect.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// A run of consecutive cold documents of one conversation or post, moved out of the hot collection.
+// data is the documents as a gzipped sequence of BSON documents, the same layout as a mongodump file.
+@Data
+@NoArgsConstructor
+@Document(collection = "archive")
+public class ArchivedChunk {
+
+    @Id
+    private String id;
+
+    // Collection the documents came from
+    private String source;
+
+    // conversationId of messages, postId of comments
+    private String key;
+
+    private LocalDateTime firstTimestamp;
+    private LocalDateTime lastTimestamp;
+    private int count;
+
+    private byte[] data;
+
+    private LocalDateTime archivedAt;
+}
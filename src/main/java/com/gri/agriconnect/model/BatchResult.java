@@ -0,0 +1,16 @@
+package com.gri.agriconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Response of the ?ids= batch lookups: found entities in request order plus the ids that do not exist
+@Data
+@AllArgsConstructor
+public class BatchResult<T> {
+
+    private List<T> items;
+
+    private List<String> missingIds;
+}
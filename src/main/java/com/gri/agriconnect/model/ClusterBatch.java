@@ -0,0 +1,70 @@
+package com.gri.agriconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Events one node publishes to the others in a single write; see ClusterBus. The collection name
+// is agriconnect.cluster.collection, so the mapping here is only used for reading and writing.
+@Data
+@NoArgsConstructor
+@Document(collection = "cluster_events")
+public class ClusterBatch {
+
+    public enum Type {
+        INVALIDATE, // drop key from cache
+        CLEAR,      // drop every entry of cache
+        MESSAGE,    // a new message to push to WebSocket subscribers
+        PRESENCE    // a presence or typing change, or a re-announcement of a user still online
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Event {
+        private Type type;
+        private String cache;
+        private String key;
+        private Message message;
+        private PresenceChange presence;
+        // Set on re-announcements, which are not pushed to clients
+        private boolean refresh;
+
+        public static Event invalidate(String cache, String key) {
+            return new Event(Type.INVALIDATE, cache, key, null, null, false);
+        }
+
+        public static Event clear(String cache) {
+            return new Event(Type.CLEAR, cache, null, null, null, false);
+        }
+
+        public static Event message(Message message) {
+            return new Event(Type.MESSAGE, null, null, message, null, false);
+        }
+
+        public static Event presence(PresenceChange presence, boolean refresh) {
+            return new Event(Type.PRESENCE, null, null, null, presence, refresh);
+        }
+    }
+
+    @Id
+    private String id;
+
+    private String node;
+
+    private LocalDateTime createdAt;
+
+    private List<Event> events = new ArrayList<>();
+
+    public ClusterBatch(String node, LocalDateTime createdAt, List<Event> events) {
+        this.node = node;
+        this.createdAt = createdAt;
+        this.events = events;
+    }
+}
@@ -1,9 +1,11 @@
 package com.gri.agriconnect.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.NotBlank;
 
@@ -32,6 +34,10 @@ public class Comment {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     // Custom constructor for mandatory fields
     public Comment(String userId, String content, String postId) {
         this.userId = userId;
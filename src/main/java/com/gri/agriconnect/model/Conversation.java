@@ -1,9 +1,11 @@
 package com.gri.agriconnect.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.NotBlank;
@@ -35,6 +37,10 @@ public class Conversation {
     @LastModifiedDate
     private LocalDateTime updatedAt; // Track when the conversation was last updated
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     // Custom constructor for mandatory fields
     public Conversation(String senderId, String receiverId) {
         this.senderId = senderId;
@@ -18,7 +18,6 @@ public class Message {
     private String messageId;
 
     @NotBlank
-    @Indexed
     private String conversationId; // ID of the conversation this message belongs to
 
     @NotBlank
@@ -0,0 +1,58 @@
+package com.gri.agriconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Up to agriconnect.messages.bucket-size messages of one conversation in send order, used when
+// agriconnect.messages.storage=bucket. One document and one index entry per bucket instead of per message.
+@Data
+@NoArgsConstructor
+@Document(collection = "message_buckets")
+public class MessageBucket {
+
+    // A message without its conversationId, which the bucket already holds
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private String messageId;
+        private String senderId;
+        private String content;
+        private LocalDateTime timestamp;
+        private boolean read;
+
+        public static Entry of(Message message) {
+            return new Entry(message.getMessageId(), message.getSenderId(), message.getContent(),
+                    message.getTimestamp(), message.isRead());
+        }
+
+        public Message toMessage(String conversationId) {
+            Message message = new Message(conversationId, senderId, content);
+            message.setMessageId(messageId);
+            message.setTimestamp(timestamp);
+            message.setRead(read);
+            return message;
+        }
+    }
+
+    @Id
+    private String id;
+
+    private String conversationId;
+
+    // Slots used; never decremented, so a bucket that had messages deleted is not appended to again
+    private int count;
+    private int unreadCount;
+
+    private LocalDateTime firstTimestamp;
+    private LocalDateTime lastTimestamp;
+
+    private List<Entry> messages = new ArrayList<>();
+}
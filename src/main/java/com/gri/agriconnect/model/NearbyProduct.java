@@ -0,0 +1,14 @@
+package com.gri.agriconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// One result of GET /api/products/nearby: the product and its distance from the search point
+@Data
+@AllArgsConstructor
+public class NearbyProduct {
+
+    private Product product;
+
+    private double distanceKm;
+}
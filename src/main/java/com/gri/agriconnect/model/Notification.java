@@ -0,0 +1,49 @@
+package com.gri.agriconnect.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// One inbox entry standing for every event of one type on one target since the recipient last
+// read it: "12 new comments on your post" is a single COMMENT notification with count 12.
+@Data
+@NoArgsConstructor
+@Document(collection = "notifications")
+public class Notification {
+
+    public enum Type {
+        MESSAGE, // targetId is the conversation
+        COMMENT, // targetId is the post or product, see targetType
+        FOLLOW   // targetId is the recipient
+    }
+
+    // Most recent actors kept per notification
+    public static final int MAX_ACTORS = 5;
+
+    @Id
+    private String notificationId;
+
+    private String recipientId;
+    private Type type;
+    private String targetId;
+
+    // conversation, post, product or user
+    private String targetType;
+
+    // Events collapsed into this notification
+    private int count;
+
+    // Latest actors, oldest first, at most MAX_ACTORS
+    private List<String> actorIds = new ArrayList<>();
+
+    private LocalDateTime createdAt;
+    private LocalDateTime latestAt;
+
+    private boolean read;
+    private LocalDateTime readAt;
+}
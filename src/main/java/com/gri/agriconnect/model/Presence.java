@@ -0,0 +1,18 @@
+package com.gri.agriconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Presence {
+    private String userId;
+    private boolean online;
+
+    // When the user was last online; null while online or if never seen
+    private LocalDateTime lastSeen;
+}
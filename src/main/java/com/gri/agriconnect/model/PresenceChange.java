@@ -0,0 +1,31 @@
+package com.gri.agriconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Pushed to /topic/conversations/{conversationId}/presence (ONLINE, OFFLINE) and
+// /topic/conversations/{conversationId}/typing (TYPING, STOPPED_TYPING)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceChange {
+
+    public enum Kind {
+        ONLINE, OFFLINE, TYPING, STOPPED_TYPING
+    }
+
+    private Kind kind;
+    private String userId;
+
+    // Only for TYPING and STOPPED_TYPING
+    private String conversationId;
+
+    private LocalDateTime at;
+
+    public boolean typing() {
+        return kind == Kind.TYPING || kind == Kind.STOPPED_TYPING;
+    }
+}
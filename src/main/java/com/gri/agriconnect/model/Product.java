@@ -1,5 +1,6 @@
 package com.gri.agriconnect.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
@@ -8,6 +9,8 @@ import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.NotBlank;
 
@@ -35,6 +38,9 @@ public class Product {
     private String supplierId;
 
     private Integer stockQuantity;
+    // Set once stock is split across stock_buckets; stockQuantity is then a periodic rollup of the buckets
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer stockBuckets;
     private Integer favoriteCount;
     private Integer likeCount;
     private Integer commentCount;
@@ -46,12 +52,19 @@ public class Product {
     @Size(max = 10)
     private List<String> imageLinks;
 
+    // Copied from the supplier's position, so nearby searches run on products alone
+    private GeoJsonPoint position;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     // Custom constructor for mandatory fields
     public Product(String name, String supplierId) {
         this.name = name;
@@ -0,0 +1,20 @@
+package com.gri.agriconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Response of GET /api/products/browse: one page of products plus the facet counts for the filter
+@Data
+@AllArgsConstructor
+public class ProductBrowseResult {
+
+    private List<Product> items;
+
+    private int page;
+
+    private int size;
+
+    private ProductFacets facets;
+}
@@ -0,0 +1,21 @@
+package com.gri.agriconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+// Counts of the products matching a browse filter, broken down by category, tag and price range
+@Data
+@AllArgsConstructor
+public class ProductFacets {
+
+    private long total;
+
+    private Map<String, Long> categories;
+
+    private Map<String, Long> tags;
+
+    // Keyed by range, e.g. "10-50", with "1000+" for the open upper bucket
+    private Map<String, Long> priceRanges;
+}
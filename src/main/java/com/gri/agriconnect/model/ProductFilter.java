@@ -0,0 +1,11 @@
+package com.gri.agriconnect.model;
+
+import java.util.List;
+
+// Browse filters; also the key of the cached facet counts, so it must stay a value type
+public record ProductFilter(String category, List<String> tags, Double minPrice, Double maxPrice, boolean inStock) {
+
+    public ProductFilter {
+        tags = tags == null ? List.of() : List.copyOf(tags);
+    }
+}
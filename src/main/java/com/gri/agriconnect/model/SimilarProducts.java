@@ -0,0 +1,33 @@
+package com.gri.agriconnect.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Precomputed nearest neighbours of one product, best first, written by the similar-products job
+@Data
+@NoArgsConstructor
+@Document(collection = "similar_products")
+public class SimilarProducts {
+
+    public record Neighbor(String productId, double score) {
+    }
+
+    // The product id
+    @Id
+    private String id;
+
+    private List<Neighbor> neighbors;
+
+    private LocalDateTime computedAt;
+
+    public SimilarProducts(String id, List<Neighbor> neighbors, LocalDateTime computedAt) {
+        this.id = id;
+        this.neighbors = neighbors;
+        this.computedAt = computedAt;
+    }
+}
@@ -0,0 +1,32 @@
+package com.gri.agriconnect.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// One slice of a hot product's stock. Buyers decrement a random bucket, so concurrent
+// writes spread over several documents instead of queueing on the product.
+@Data
+@NoArgsConstructor
+@Document(collection = "stock_buckets")
+public class StockBucket {
+
+    @Id
+    private String id;
+
+    private String productId;
+    private int bucket;
+    private int quantity;
+
+    public StockBucket(String productId, int bucket, int quantity) {
+        this.id = idOf(productId, bucket);
+        this.productId = productId;
+        this.bucket = bucket;
+        this.quantity = quantity;
+    }
+
+    public static String idOf(String productId, int bucket) {
+        return productId + "#" + bucket;
+    }
+}
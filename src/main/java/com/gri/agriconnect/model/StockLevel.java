@@ -0,0 +1,5 @@
+package com.gri.agriconnect.model;
+
+// Stock available right after a stock change; buckets is null when the product is not split
+public record StockLevel(String productId, int stockQuantity, Integer buckets) {
+}
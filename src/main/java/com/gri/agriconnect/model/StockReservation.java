@@ -0,0 +1,41 @@
+package com.gri.agriconnect.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Stock held for a buyer until it is confirmed, released, or expires and goes back on sale
+@Data
+@NoArgsConstructor
+@Document(collection = "stock_reservations")
+public class StockReservation {
+
+    public enum Status { HELD, CONFIRMED, RELEASED, EXPIRED }
+
+    @Id
+    private String reservationId;
+
+    private String productId;
+    private String userId;
+    private int quantity;
+
+    // The stock bucket the quantity was taken from; null when the product is not split
+    private Integer bucket;
+
+    private Status status;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+
+    public StockReservation(String productId, String userId, int quantity, Integer bucket, LocalDateTime expiresAt) {
+        this.productId = productId;
+        this.userId = userId;
+        this.quantity = quantity;
+        this.bucket = bucket;
+        this.status = Status.HELD;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+}
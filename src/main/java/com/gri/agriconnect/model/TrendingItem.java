@@ -0,0 +1,14 @@
+package com.gri.agriconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// One entry of a trending list: the post or product and its current decayed score
+@Data
+@AllArgsConstructor
+public class TrendingItem<T> {
+
+    private T item;
+
+    private double score;
+}
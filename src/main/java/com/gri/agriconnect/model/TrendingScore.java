@@ -0,0 +1,32 @@
+package com.gri.agriconnect.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+// Persisted trending score of a post or product, reloaded into memory at startup.
+// logScore is log2 of the decayed engagement scaled to the Unix epoch, so it never needs rewriting as time passes.
+@Data
+@NoArgsConstructor
+@Document(collection = "trending_scores")
+public class TrendingScore {
+
+    @Id
+    private String id;
+
+    private String kind;
+    private String targetId;
+    private List<String> categories;
+    private double logScore;
+
+    public TrendingScore(String kind, String targetId, List<String> categories, double logScore) {
+        this.id = kind + ":" + targetId;
+        this.kind = kind;
+        this.targetId = targetId;
+        this.categories = categories;
+        this.logScore = logScore;
+    }
+}
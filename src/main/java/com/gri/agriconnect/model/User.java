@@ -1,10 +1,14 @@
 package com.gri.agriconnect.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -43,9 +47,16 @@ public class User {
     @LastModifiedDate
     private LocalDateTime lastModifiedDate;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     private String phoneNo;
     private String location;
 
+    // GeoJSON point (longitude, latitude) for "near me" searches; location stays the display text
+    private GeoJsonPoint position;
+
     @PositiveOrZero
     private Integer followerCount;
 
@@ -61,6 +72,11 @@ public class User {
     @PositiveOrZero
     private Integer postCount;
 
+    // Written in batches by PresenceService when the user goes offline and served by the presence
+    // endpoint. Each write bumps version, so saves of a user read before it fail their version check.
+    @JsonIgnore
+    private LocalDateTime lastSeen;
+
     private List<String> followerIds;
     private List<String> followingIds;
     private List<String> conversationIds;
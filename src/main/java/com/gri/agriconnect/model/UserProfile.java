@@ -0,0 +1,36 @@
+package com.gri.agriconnect.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Public profile page of a user: summary, counters and their latest posts, products and comments.
+// Read in one aggregation selecting only the UserSummary fields; private fields are never selected.
+@Data
+@NoArgsConstructor
+public class UserProfile {
+
+    @Id
+    private String userId;
+
+    private String accountName;
+    private String firstName;
+    private String lastName;
+    private String location;
+    private GeoJsonPoint position;
+    private LocalDateTime createdDate;
+
+    private Integer followerCount;
+    private Integer followingCount;
+    private Integer postCount;
+    private Integer productCount;
+
+    // Newest first, without their comment id lists
+    private List<Post> latestPosts;
+    private List<Product> latestProducts;
+    private List<Comment> recentComments;
+}
@@ -0,0 +1,47 @@
+package com.gri.agriconnect.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.LocalDateTime;
+
+// Public view of a user, as embedded by expand=author/supplier. The same fields a UserProfile
+// selects; private fields (email, password, phone, id lists) are never copied.
+@Data
+@NoArgsConstructor
+public class UserSummary {
+
+    public static final String[] FIELDS = {"accountName", "firstName", "lastName", "location", "position", "createdDate",
+            "followerCount", "followingCount", "postCount", "productCount"};
+
+    private String userId;
+
+    private String accountName;
+    private String firstName;
+    private String lastName;
+    private String location;
+    private GeoJsonPoint position;
+    private LocalDateTime createdDate;
+
+    private Integer followerCount;
+    private Integer followingCount;
+    private Integer postCount;
+    private Integer productCount;
+
+    public static UserSummary of(User user) {
+        UserSummary summary = new UserSummary();
+        summary.setUserId(user.getUserId());
+        summary.setAccountName(user.getAccountName());
+        summary.setFirstName(user.getFirstName());
+        summary.setLastName(user.getLastName());
+        summary.setLocation(user.getLocation());
+        summary.setPosition(user.getPosition());
+        summary.setCreatedDate(user.getCreatedDate());
+        summary.setFollowerCount(user.getFollowerCount());
+        summary.setFollowingCount(user.getFollowingCount());
+        summary.setPostCount(user.getPostCount());
+        summary.setProductCount(user.getProductCount());
+        return summary;
+    }
+}
@@ -0,0 +1,7 @@
+package com.gri.agriconnect.model;
+
+import java.time.LocalDateTime;
+
+// What a conditional GET needs to decide on 304: the document version (ETag) and its last write time
+public record VersionStamp(Long version, LocalDateTime lastModified) {
+}
@@ -0,0 +1,27 @@
+package com.gri.agriconnect.realtime;
+
+import com.gri.agriconnect.service.MessagePostedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+// New messages to the subscribers of /topic/conversations/{conversationId} on this node, whether
+// the message was sent here or on another node
+@Component
+public class ConversationPush {
+
+    public static final String CONVERSATION_TOPIC = "/topic/conversations/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    public ConversationPush(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @EventListener
+    public void onMessagePosted(MessagePostedEvent event) {
+        messagingTemplate.convertAndSend(CONVERSATION_TOPIC + event.message().getConversationId(), event.message());
+    }
+}
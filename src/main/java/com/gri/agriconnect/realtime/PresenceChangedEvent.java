@@ -0,0 +1,9 @@
+package com.gri.agriconnect.realtime;
+
+import com.gri.agriconnect.model.PresenceChange;
+
+// A coalesced presence or typing change. remote is set when it came from another node through the
+// ClusterBus; refresh marks the periodic re-announcement of users still online, which only other
+// nodes' presence views need.
+public record PresenceChangedEvent(PresenceChange change, boolean remote, boolean refresh) {
+}
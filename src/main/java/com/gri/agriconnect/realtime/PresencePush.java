@@ -0,0 +1,44 @@
+package com.gri.agriconnect.realtime;
+
+import com.gri.agriconnect.model.PresenceChange;
+import com.gri.agriconnect.model.User;
+import com.gri.agriconnect.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Presence changes to the subscribers of the user's conversations on this node, typing changes to
+// the subscribers of the one conversation
+@Component
+public class PresencePush {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final UserService userService;
+
+    @Autowired
+    public PresencePush(SimpMessagingTemplate messagingTemplate, UserService userService) {
+        this.messagingTemplate = messagingTemplate;
+        this.userService = userService;
+    }
+
+    @EventListener
+    public void onPresenceChanged(PresenceChangedEvent event) {
+        if (event.refresh()) {
+            return;
+        }
+        PresenceChange change = event.change();
+        if (change.typing()) {
+            messagingTemplate.convertAndSend(ConversationPush.CONVERSATION_TOPIC + change.getConversationId() + "/typing", change);
+            return;
+        }
+        // Served from the user cache, so a status change does not normally read Mongo
+        List<String> conversationIds = userService.getUserById(change.getUserId())
+                .map(User::getConversationIds).orElse(List.of());
+        for (String conversationId : conversationIds) {
+            messagingTemplate.convertAndSend(ConversationPush.CONVERSATION_TOPIC + conversationId + "/presence", change);
+        }
+    }
+}
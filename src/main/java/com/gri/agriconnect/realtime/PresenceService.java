@@ -0,0 +1,249 @@
+package com.gri.agriconnect.realtime;
+
+import com.gri.agriconnect.config.CacheConfig;
+import com.gri.agriconnect.model.Presence;
+import com.gri.agriconnect.model.PresenceChange;
+import com.gri.agriconnect.model.User;
+import com.gri.agriconnect.repository.UserRepository;
+import com.gri.agriconnect.service.EntityBatchLoader;
+import com.gri.agriconnect.service.MessagePostedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Online and typing status from client heartbeats, held in memory only. Heartbeats refresh a
+// deadline in a timing wheel; a user goes offline, or stops typing, when the wheel passes it.
+// Changes are coalesced per user and pushed every push interval, and "last seen" is written to
+// users in one bulk update per flush, only for users who went offline. Each node knows its own
+// connections plus what the other nodes announce through the ClusterBus.
+@Service
+public class PresenceService {
+
+    private record Typing(String userId, String conversationId) {
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+    private final UserRepository userRepository;
+    private final EntityBatchLoader entityBatchLoader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration ttl;
+    private final Duration typingTtl;
+    private final Duration remoteTtl;
+    private final int maxIds;
+
+    private final TimeWheel<String> online;
+    private final TimeWheel<Typing> typing;
+    // Users online on other nodes; refreshed by their announcements, so a node that dies drops out
+    private final TimeWheel<String> remoteOnline;
+
+    // Latest unpushed change per user (presence) or per user and conversation (typing)
+    private final Map<Object, PresenceChange> changes = new ConcurrentHashMap<>();
+    // Unwritten "last seen" times
+    private final Map<String, LocalDateTime> lastSeen = new ConcurrentHashMap<>();
+    // WebSocket session of each user heartbeating over STOMP, so a disconnect ends their presence at once
+    private final Map<String, String> sessions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PresenceService(UserRepository userRepository, EntityBatchLoader entityBatchLoader,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${agriconnect.presence.ttl:30s}") Duration ttl,
+                           @Value("${agriconnect.presence.typing-ttl:6s}") Duration typingTtl,
+                           @Value("${agriconnect.presence.remote-ttl:150s}") Duration remoteTtl,
+                           @Value("${agriconnect.presence.tick-ms:1000}") long tickMillis,
+                           @Value("${agriconnect.batch.max-ids:100}") int maxIds) {
+        this.userRepository = userRepository;
+        this.entityBatchLoader = entityBatchLoader;
+        this.eventPublisher = eventPublisher;
+        this.ttl = ttl;
+        this.typingTtl = typingTtl;
+        this.remoteTtl = remoteTtl;
+        this.maxIds = maxIds;
+        Duration tick = Duration.ofMillis(tickMillis);
+        this.online = new TimeWheel<>(tick, ttl);
+        this.typing = new TimeWheel<>(tick, typingTtl);
+        this.remoteOnline = new TimeWheel<>(tick, remoteTtl);
+    }
+
+    public void heartbeat(String userId) {
+        if (online.touch(userId, ttl)) {
+            lastSeen.remove(userId);
+            change(userId, new PresenceChange(PresenceChange.Kind.ONLINE, userId, null, LocalDateTime.now()));
+        }
+    }
+
+    public void heartbeat(String userId, String sessionId) {
+        if (sessionId != null) {
+            sessions.put(sessionId, userId);
+        }
+        heartbeat(userId);
+    }
+
+    // Typing counts as a heartbeat
+    public void typing(String userId, String conversationId) {
+        heartbeat(userId);
+        Typing key = new Typing(userId, conversationId);
+        if (typing.touch(key, typingTtl)) {
+            change(key, new PresenceChange(PresenceChange.Kind.TYPING, userId, conversationId, LocalDateTime.now()));
+        }
+    }
+
+    public void stoppedTyping(String userId, String conversationId) {
+        Typing key = new Typing(userId, conversationId);
+        if (typing.remove(key)) {
+            change(key, new PresenceChange(PresenceChange.Kind.STOPPED_TYPING, userId, conversationId, LocalDateTime.now()));
+        }
+    }
+
+    public void disconnect(String userId) {
+        if (online.remove(userId)) {
+            wentOffline(userId, LocalDateTime.now());
+        }
+    }
+
+    // lastSeen of offline users comes from the user cache unless a newer
+    // time is still waiting to be written
+    public List<Presence> getPresence(List<String> userIds) {
+        if (userIds.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids can be requested at once, got " + userIds.size());
+        }
+        List<Presence> presence = new ArrayList<>(userIds.size());
+        List<String> offline = new ArrayList<>();
+        for (String userId : userIds) {
+            if (online.contains(userId) || remoteOnline.contains(userId)) {
+                presence.add(new Presence(userId, true, null));
+            } else {
+                offline.add(userId);
+            }
+        }
+        if (!offline.isEmpty()) {
+            Map<String, User> users = entityBatchLoader.loadAll(offline, CacheConfig.USERS, User.class,
+                    userRepository::findAllById, User::getUserId);
+            for (String userId : offline) {
+                LocalDateTime seen = lastSeen.get(userId);
+                User user = users.get(userId);
+                if (seen == null && user != null) {
+                    seen = user.getLastSeen();
+                }
+                presence.add(new Presence(userId, false, seen));
+            }
+        }
+        return presence;
+    }
+
+    // Sending a message ends the sender's typing in that conversation
+    @EventListener
+    public void onMessagePosted(MessagePostedEvent event) {
+        if (!event.remote()) {
+            stoppedTyping(event.message().getSenderId(), event.message().getConversationId());
+        }
+    }
+
+    @EventListener
+    public void onPresenceChanged(PresenceChangedEvent event) {
+        if (!event.remote() || event.change().typing()) {
+            return;
+        }
+        String userId = event.change().getUserId();
+        if (event.change().getKind() == PresenceChange.Kind.ONLINE) {
+            remoteOnline.touch(userId, remoteTtl);
+        } else {
+            remoteOnline.remove(userId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String userId = sessions.remove(event.getSessionId());
+        if (userId != null && !sessions.containsValue(userId)) {
+            disconnect(userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agriconnect.presence.tick-ms:1000}")
+    public void expire() {
+        LocalDateTime now = LocalDateTime.now();
+        for (String userId : online.advance()) {
+            wentOffline(userId, now);
+        }
+        for (Typing key : typing.advance()) {
+            change(key, new PresenceChange(PresenceChange.Kind.STOPPED_TYPING, key.userId(), key.conversationId(), now));
+        }
+        remoteOnline.advance();
+    }
+
+    // A user who goes online and offline between two pushes is pushed once, with the later state
+    @Scheduled(fixedDelayString = "${agriconnect.presence.push-interval-ms:250}")
+    public void push() {
+        for (Object key : List.copyOf(changes.keySet())) {
+            PresenceChange change = changes.remove(key);
+            if (change != null) {
+                eventPublisher.publishEvent(new PresenceChangedEvent(change, false, false));
+            }
+        }
+    }
+
+    // Tells the other nodes who is still online here, well within their remote TTL
+    @Scheduled(fixedDelayString = "${agriconnect.presence.announce-interval-ms:60000}")
+    public void announce() {
+        LocalDateTime now = LocalDateTime.now();
+        for (String userId : List.copyOf(online.keys())) {
+            eventPublisher.publishEvent(new PresenceChangedEvent(
+                    new PresenceChange(PresenceChange.Kind.ONLINE, userId, null, now), false, true));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agriconnect.presence.last-seen-flush-interval-ms:60000}")
+    public void flushLastSeen() {
+        Map<String, LocalDateTime> batch = new HashMap<>();
+        for (String userId : List.copyOf(lastSeen.keySet())) {
+            LocalDateTime seen = lastSeen.remove(userId);
+            if (seen != null) {
+                batch.put(userId, seen);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            userRepository.updateLastSeen(batch);
+            entityBatchLoader.evict(CacheConfig.USERS, batch.keySet());
+        } catch (RuntimeException e) {
+            batch.forEach((userId, seen) -> lastSeen.merge(userId, seen, (a, b) -> a.isAfter(b) ? a : b));
+            logger.warn("Could not write last seen of {} users: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    // Users still connected at shutdown were last seen now
+    @PreDestroy
+    public void shutdown() {
+        LocalDateTime now = LocalDateTime.now();
+        online.keys().forEach(userId -> lastSeen.put(userId, now));
+        flushLastSeen();
+    }
+
+    private void wentOffline(String userId, LocalDateTime at) {
+        lastSeen.put(userId, at);
+        // Typing ends with the connection; its STOPPED_TYPING is pushed when the typing entry expires
+        change(userId, new PresenceChange(PresenceChange.Kind.OFFLINE, userId, null, at));
+    }
+
+    private void change(Object key, PresenceChange change) {
+        changes.put(key, change);
+    }
+}
@@ -0,0 +1,85 @@
+package com.gri.agriconnect.realtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keys that expire unless touched again, in a hashed timing wheel: a touch is one map put and one
+// set add, and advancing only looks at the slots of the ticks that passed. A key touched again
+// stays in its old slot until the wheel reaches it and sees the later deadline.
+final class TimeWheel<K> {
+
+    private final long tickMillis;
+    private final long mask;
+    private final List<Set<K>> slots;
+    // Tick at which each live key expires
+    private final Map<K, Long> deadlines = new ConcurrentHashMap<>();
+    // Next tick to expire; only advance() moves it
+    private long cursor;
+
+    TimeWheel(Duration tick, Duration maxTtl) {
+        this.tickMillis = tick.toMillis();
+        // More slots than ticks in the longest TTL, so a deadline never lands in the slot being expired
+        long ticks = maxTtl.toMillis() / tickMillis + 2;
+        int size = (int) (Long.highestOneBit(ticks) << 1);
+        this.mask = size - 1;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(ConcurrentHashMap.newKeySet());
+        }
+        this.cursor = tick(System.currentTimeMillis());
+    }
+
+    // Returns true when the key was not live before. The extra tick makes a key expire between ttl
+    // and ttl plus one tick after its last touch, never before.
+    boolean touch(K key, Duration ttl) {
+        long deadline = tick(System.currentTimeMillis()) + Math.max(1, (ttl.toMillis() + tickMillis - 1) / tickMillis) + 1;
+        Long previous = deadlines.put(key, deadline);
+        slots.get((int) (deadline & mask)).add(key);
+        return previous == null;
+    }
+
+    // Returns true when the key was live; its slot entry is dropped when the wheel reaches it
+    boolean remove(K key) {
+        return deadlines.remove(key) != null;
+    }
+
+    boolean contains(K key) {
+        return deadlines.containsKey(key);
+    }
+
+    Set<K> keys() {
+        return deadlines.keySet();
+    }
+
+    // Removes and returns the keys whose deadline has passed
+    synchronized List<K> advance() {
+        long now = tick(System.currentTimeMillis());
+        List<K> expired = new ArrayList<>();
+        for (; cursor <= now; cursor++) {
+            int slot = (int) (cursor & mask);
+            for (K key : slots.get(slot)) {
+                Long deadline = deadlines.get(key);
+                if (deadline == null) {
+                    slots.get(slot).remove(key);
+                } else if (deadline <= now) {
+                    // Conditional, so a touch racing with the expiry wins
+                    if (deadlines.remove(key, deadline)) {
+                        expired.add(key);
+                        slots.get(slot).remove(key);
+                    }
+                } else if ((deadline & mask) != slot) {
+                    slots.get(slot).remove(key);
+                }
+            }
+        }
+        return expired;
+    }
+
+    private long tick(long millis) {
+        return millis / tickMillis;
+    }
+}
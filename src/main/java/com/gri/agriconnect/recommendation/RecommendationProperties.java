@@ -0,0 +1,28 @@
+package com.gri.agriconnect.recommendation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "agriconnect.recommendations")
+public class RecommendationProperties {
+
+    // Fork-join workers for scoring; 0 uses the common pool
+    private int parallelism = 0;
+
+    // Neighbours stored per product
+    private int topN = 20;
+
+    // Products per user (and suppliers per buyer) considered, which bounds the co-engagement pairs
+    private int maxBasketSize = 100;
+
+    // Products per tag considered as candidates; common tags keep their most-liked products
+    private int maxTagPostings = 200;
+
+    // Documents per bulk write
+    private int writeBatchSize = 1000;
+
+    private double coEngagementWeight = 1.0;
+    private double tagWeight = 0.5;
+    private double supplierWeight = 0.25;
+}
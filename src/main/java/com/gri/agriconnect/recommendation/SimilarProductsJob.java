@@ -0,0 +1,110 @@
+package com.gri.agriconnect.recommendation;
+
+import com.gri.agriconnect.config.MongoConfig;
+import com.gri.agriconnect.model.Comment;
+import com.gri.agriconnect.model.Conversation;
+import com.gri.agriconnect.model.Product;
+import com.gri.agriconnect.model.SimilarProducts;
+import com.gri.agriconnect.repository.SimilarProductsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+// Offline job behind GET /api/products/{id}/similar. It streams the projected products, comments and
+// conversations once, scores every product in parallel and replaces the similar_products collection,
+// so a request only does a single lookup by id.
+@Component
+@EnableConfigurationProperties(RecommendationProperties.class)
+public class SimilarProductsJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarProductsJob.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final SimilarProductsRepository similarProductsRepository;
+    private final RecommendationProperties properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public SimilarProductsJob(@Qualifier(MongoConfig.QUERY_TEMPLATE) MongoTemplate mongoTemplate, SimilarProductsRepository similarProductsRepository,
+                              RecommendationProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.similarProductsRepository = similarProductsRepository;
+        this.properties = properties;
+    }
+
+    // The cron fires on every instance. Runs on the same data write the same documents, and stale entries
+    // are found by product id rather than by computedAt, so one instance never deletes what another just wrote.
+    @Scheduled(cron = "${agriconnect.recommendations.cron:0 30 3 * * *}")
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Similar products job is already running");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            LocalDateTime computedAt = LocalDateTime.now();
+            SimilarityModel model = load();
+            ForkJoinPool pool = properties.getParallelism() > 0 ? new ForkJoinPool(properties.getParallelism()) : ForkJoinPool.commonPool();
+            List<SimilarProducts> results;
+            try {
+                results = model.compute(pool, computedAt);
+            } finally {
+                if (pool != ForkJoinPool.commonPool()) {
+                    pool.shutdown();
+                }
+            }
+            for (int from = 0; from < results.size(); from += properties.getWriteBatchSize()) {
+                similarProductsRepository.replaceAll(results.subList(from, Math.min(results.size(), from + properties.getWriteBatchSize())));
+            }
+            // Products deleted since the last run
+            Set<String> productIds = new HashSet<>(results.size() * 2);
+            results.forEach(similar -> productIds.add(similar.getId()));
+            long removed = similarProductsRepository.deleteAllExcept(productIds, properties.getWriteBatchSize());
+            logger.info("Computed similar products for {} products in {} ms, removed {} stale entries",
+                    results.size(), (System.nanoTime() - start) / 1_000_000, removed);
+        } catch (RuntimeException e) {
+            logger.error("Similar products job failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private SimilarityModel load() {
+        SimilarityModel model = new SimilarityModel(properties);
+
+        Query products = new Query();
+        products.fields().include("supplierId", "likeCount", "categoryTags");
+        try (Stream<Product> stream = mongoTemplate.stream(products, Product.class)) {
+            stream.forEach(product -> model.addProduct(product.getProductId(), product.getSupplierId(),
+                    product.getLikeCount(), product.getCategoryTags()));
+        }
+
+        Query comments = new Query();
+        comments.fields().include("userId", "postId");
+        try (Stream<Comment> stream = mongoTemplate.stream(comments, Comment.class)) {
+            stream.forEach(comment -> model.addEngagement(comment.getUserId(), comment.getPostId()));
+        }
+
+        Query conversations = new Query();
+        conversations.fields().include("senderId", "receiverId");
+        try (Stream<Conversation> stream = mongoTemplate.stream(conversations, Conversation.class)) {
+            stream.forEach(conversation -> model.addConversation(conversation.getSenderId(), conversation.getReceiverId()));
+        }
+        logger.info("Loaded {} products for the similar products job", model.size());
+        return model;
+    }
+}
@@ -0,0 +1,256 @@
+package com.gri.agriconnect.recommendation;
+
+import com.gri.agriconnect.model.SimilarProducts;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// The in-memory half of the similar-products job: products, who engaged with them and which
+// suppliers buyers talk to, turned into top-N neighbours per product. Scoring reads only
+// immutable arrays, so products are scored in parallel by a fork-join split over the index range.
+final class SimilarityModel {
+
+    // Products scored per fork-join leaf
+    private static final int LEAF_SIZE = 256;
+
+    private final RecommendationProperties properties;
+
+    private final List<String> productIds = new ArrayList<>();
+    private final Map<String, Integer> productIndex = new HashMap<>();
+    private final List<Integer> supplierOf = new ArrayList<>();
+    private final List<Integer> likesOf = new ArrayList<>();
+    private final List<int[]> tagsOf = new ArrayList<>();
+    private final Map<String, Integer> supplierIndex = new HashMap<>();
+    private final Map<String, Integer> tagIndex = new HashMap<>();
+    // Products each user commented on, and suppliers each buyer has a conversation with
+    private final Map<String, Set<Integer>> baskets = new HashMap<>();
+    private final Map<String, Set<Integer>> contacts = new HashMap<>();
+
+    SimilarityModel(RecommendationProperties properties) {
+        this.properties = properties;
+    }
+
+    void addProduct(String productId, String supplierId, Integer likeCount, List<String> tags) {
+        productIndex.put(productId, productIds.size());
+        productIds.add(productId);
+        supplierOf.add(supplierId == null ? -1 : supplierIndex.computeIfAbsent(supplierId, k -> supplierIndex.size()));
+        likesOf.add(likeCount == null ? 0 : likeCount);
+        tagsOf.add(tags == null ? new int[0] : tags.stream().distinct()
+                .mapToInt(tag -> tagIndex.computeIfAbsent(tag, k -> tagIndex.size())).toArray());
+    }
+
+    // Comments carry the id of a post or a product; only products count here
+    void addEngagement(String userId, String targetId) {
+        Integer product = productIndex.get(targetId);
+        if (userId == null || product == null) {
+            return;
+        }
+        Set<Integer> basket = baskets.computeIfAbsent(userId, k -> new LinkedHashSet<>());
+        if (basket.size() < properties.getMaxBasketSize()) {
+            basket.add(product);
+        }
+    }
+
+    // Either side of a conversation may be the supplier
+    void addConversation(String senderId, String receiverId) {
+        addContact(senderId, receiverId);
+        addContact(receiverId, senderId);
+    }
+
+    private void addContact(String buyerId, String supplierId) {
+        Integer supplier = supplierIndex.get(supplierId);
+        if (buyerId == null || supplier == null || buyerId.equals(supplierId)) {
+            return;
+        }
+        Set<Integer> suppliers = contacts.computeIfAbsent(buyerId, k -> new LinkedHashSet<>());
+        if (suppliers.size() < properties.getMaxBasketSize()) {
+            suppliers.add(supplier);
+        }
+    }
+
+    int size() {
+        return productIds.size();
+    }
+
+    List<SimilarProducts> compute(ForkJoinPool pool, LocalDateTime computedAt) {
+        Scorer scorer = new Scorer(computedAt);
+        SimilarProducts[] results = new SimilarProducts[productIds.size()];
+        pool.invoke(new ScoreRange(scorer, results, 0, results.length));
+        return Arrays.asList(results);
+    }
+
+    private final class ScoreRange extends RecursiveAction {
+        private final Scorer scorer;
+        private final SimilarProducts[] results;
+        private final int from;
+        private final int to;
+
+        private ScoreRange(Scorer scorer, SimilarProducts[] results, int from, int to) {
+            this.scorer = scorer;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int product = from; product < to; product++) {
+                    results[product] = scorer.score(product);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreRange(scorer, results, from, middle), new ScoreRange(scorer, results, middle, to));
+        }
+    }
+
+    // Frozen, array-based view of the model shared by all fork-join workers
+    private final class Scorer {
+        private final LocalDateTime computedAt;
+        private final int[] suppliers;
+        private final int[][] tags;
+        private final int[][] basketItems;
+        private final int[][] productBaskets;
+        private final int[][] tagPostings;
+        private final Map<Long, Double> supplierAffinity;
+
+        private Scorer(LocalDateTime computedAt) {
+            this.computedAt = computedAt;
+            int products = productIds.size();
+            suppliers = supplierOf.stream().mapToInt(Integer::intValue).toArray();
+            tags = tagsOf.toArray(new int[0][]);
+
+            basketItems = baskets.values().stream()
+                    .filter(basket -> basket.size() > 1)
+                    .map(basket -> basket.stream().mapToInt(Integer::intValue).toArray())
+                    .toArray(int[][]::new);
+            productBaskets = invert(basketItems, products);
+
+            // Postings of very common tags are cut to their most-liked products, which bounds the
+            // candidates per product while keeping the ones most worth recommending
+            int[][] postings = invert(tags, tagIndex.size());
+            for (int tag = 0; tag < postings.length; tag++) {
+                if (postings[tag].length > properties.getMaxTagPostings()) {
+                    postings[tag] = Arrays.stream(postings[tag]).boxed()
+                            .sorted(Comparator.comparingInt((Integer product) -> likesOf.get(product)).reversed())
+                            .limit(properties.getMaxTagPostings())
+                            .mapToInt(Integer::intValue).toArray();
+                }
+            }
+            tagPostings = postings;
+            supplierAffinity = supplierAffinity();
+        }
+
+        private SimilarProducts score(int product) {
+            Map<Integer, double[]> candidates = new HashMap<>();
+            for (int basket : productBaskets[product]) {
+                for (int other : basketItems[basket]) {
+                    if (other != product) {
+                        candidates.computeIfAbsent(other, k -> new double[2])[0]++;
+                    }
+                }
+            }
+            for (int tag : tags[product]) {
+                for (int other : tagPostings[tag]) {
+                    if (other != product) {
+                        candidates.computeIfAbsent(other, k -> new double[2])[1]++;
+                    }
+                }
+            }
+
+            int topN = properties.getTopN();
+            PriorityQueue<SimilarProducts.Neighbor> best =
+                    new PriorityQueue<>(topN + 1, Comparator.comparingDouble(SimilarProducts.Neighbor::score));
+            candidates.forEach((other, counts) -> {
+                double score = properties.getCoEngagementWeight() * coEngagement(product, other, counts[0])
+                        + properties.getTagWeight() * jaccard(product, other, counts[1])
+                        + properties.getSupplierWeight() * affinity(suppliers[product], suppliers[other]);
+                if (score > 0) {
+                    best.add(new SimilarProducts.Neighbor(productIds.get(other), score));
+                    if (best.size() > topN) {
+                        best.poll();
+                    }
+                }
+            });
+            List<SimilarProducts.Neighbor> neighbors = new ArrayList<>(best);
+            neighbors.sort(Collections.reverseOrder(Comparator.comparingDouble(SimilarProducts.Neighbor::score)));
+            return new SimilarProducts(productIds.get(product), neighbors, computedAt);
+        }
+
+        // Cosine of the two products' sets of engaged users
+        private double coEngagement(int product, int other, double shared) {
+            if (shared == 0) {
+                return 0;
+            }
+            return shared / Math.sqrt((double) productBaskets[product].length * productBaskets[other].length);
+        }
+
+        private double jaccard(int product, int other, double shared) {
+            if (shared == 0) {
+                return 0;
+            }
+            return shared / (tags[product].length + tags[other].length - shared);
+        }
+
+        private double affinity(int supplier, int other) {
+            if (supplier < 0 || other < 0 || supplier == other) {
+                return 0;
+            }
+            return supplierAffinity.getOrDefault(pair(supplier, other), 0.0);
+        }
+
+        // Cosine of two suppliers' sets of buyers, from buyers who talk to both
+        private Map<Long, Double> supplierAffinity() {
+            int[] buyers = new int[supplierIndex.size()];
+            Map<Long, Double> shared = new HashMap<>();
+            for (Set<Integer> suppliersOfBuyer : contacts.values()) {
+                int[] list = suppliersOfBuyer.stream().mapToInt(Integer::intValue).toArray();
+                for (int i = 0; i < list.length; i++) {
+                    buyers[list[i]]++;
+                    for (int j = i + 1; j < list.length; j++) {
+                        shared.merge(pair(list[i], list[j]), 1.0, Double::sum);
+                    }
+                }
+            }
+            shared.replaceAll((pair, count) -> count / Math.sqrt((double) buyers[(int) (pair >>> 32)] * buyers[(int) (long) pair]));
+            return shared;
+        }
+    }
+
+    private static long pair(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+
+    // rows[i] lists columns; returns, per column, the rows that list it
+    private static int[][] invert(int[][] rows, int columns) {
+        int[] counts = new int[columns];
+        for (int[] row : rows) {
+            for (int column : row) {
+                counts[column]++;
+            }
+        }
+        int[][] inverted = new int[columns][];
+        for (int column = 0; column < columns; column++) {
+            inverted[column] = new int[counts[column]];
+        }
+        int[] filled = new int[columns];
+        for (int row = 0; row < rows.length; row++) {
+            for (int column : rows[row]) {
+                inverted[column][filled[column]++] = row;
+            }
+        }
+        return inverted;
+    }
+}
@@ -0,0 +1,184 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Message;
+import com.gri.agriconnect.model.MessageBucket;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Messages packed into MessageBucket documents. An append is one upsert that $pushes onto the
+// conversation's open bucket (or starts a new one), and a history page reads one or two buckets.
+@Component
+@ConditionalOnProperty(prefix = "agriconnect.messages", name = "storage", havingValue = "bucket")
+public class BucketMessageStore implements MessageStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final int bucketSize;
+
+    @Autowired
+    public BucketMessageStore(MongoTemplate mongoTemplate, @Value("${agriconnect.messages.bucket-size:100}") int bucketSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.bucketSize = bucketSize;
+    }
+
+    @Override
+    public Message save(Message message) {
+        if (message.getMessageId() != null && update(message)) {
+            return message;
+        }
+        if (message.getMessageId() == null) {
+            message.setMessageId(new ObjectId().toHexString());
+        }
+        if (message.getTimestamp() == null) {
+            message.setTimestamp(LocalDateTime.now());
+        }
+        // The newest bucket with a free slot; when every bucket is full the upsert starts a new one.
+        // Only _id comes back, not the bucket's messages.
+        Query open = Query.query(Criteria.where("conversationId").is(message.getConversationId()).and("count").lt(bucketSize))
+                .with(Sort.by(Sort.Direction.DESC, "firstTimestamp"));
+        open.fields().include("_id");
+        Update append = new Update()
+                .push("messages", MessageBucket.Entry.of(message))
+                .inc("count", 1)
+                .inc("unreadCount", message.isRead() ? 0 : 1)
+                .min("firstTimestamp", message.getTimestamp())
+                .max("lastTimestamp", message.getTimestamp());
+        mongoTemplate.findAndModify(open, append, FindAndModifyOptions.options().upsert(true), MessageBucket.class);
+        return message;
+    }
+
+    // Positional updates of one entry; the unread counter only moves when the read flag flips
+    private boolean update(Message message) {
+        Query flips = Query.query(Criteria.where("messages").elemMatch(
+                Criteria.where("messageId").is(message.getMessageId()).and("read").is(!message.isRead())));
+        Update flip = new Update()
+                .set("messages.$.content", message.getContent())
+                .set("messages.$.read", message.isRead())
+                .inc("unreadCount", message.isRead() ? -1 : 1);
+        if (mongoTemplate.updateFirst(flips, flip, MessageBucket.class).getMatchedCount() > 0) {
+            return true;
+        }
+        return mongoTemplate.updateFirst(byMessageId(message.getMessageId()),
+                new Update().set("messages.$.content", message.getContent()), MessageBucket.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public Optional<Message> findById(String messageId) {
+        Query query = byMessageId(messageId);
+        query.fields().include("conversationId").elemMatch("messages", Criteria.where("messageId").is(messageId));
+        MessageBucket bucket = mongoTemplate.findOne(query, MessageBucket.class);
+        if (bucket == null || bucket.getMessages() == null || bucket.getMessages().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(bucket.getMessages().get(0).toMessage(bucket.getConversationId()));
+    }
+
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        Query query = Query.query(Criteria.where("conversationId").is(conversationId))
+                .with(Sort.by(Sort.Direction.ASC, "firstTimestamp"));
+        return flatten(mongoTemplate.find(query, MessageBucket.class), null);
+    }
+
+    @Override
+    public List<Message> findUnreadByConversationId(String conversationId) {
+        Query query = Query.query(Criteria.where("conversationId").is(conversationId).and("unreadCount").gt(0))
+                .with(Sort.by(Sort.Direction.ASC, "firstTimestamp"));
+        return flatten(mongoTemplate.find(query, MessageBucket.class), null).stream()
+                .filter(message -> !message.isRead())
+                .toList();
+    }
+
+    @Override
+    public List<Message> findPage(String conversationId, LocalDateTime before, int limit) {
+        // Buckets hold up to bucketSize messages but may hold fewer: deletes pull entries and concurrent
+        // appends can open parallel buckets. Older buckets are read until the page is full or none are left,
+        // since a short page tells MessageService the hot history has run out.
+        Query query = Query.query(Criteria.where("conversationId").is(conversationId).and("firstTimestamp").lt(before))
+                .with(Sort.by(Sort.Direction.DESC, "firstTimestamp"))
+                .cursorBatchSize((limit + bucketSize - 1) / bucketSize + 1);
+        List<MessageBucket> read = new ArrayList<>();
+        int collected = 0;
+        try (Stream<MessageBucket> buckets = mongoTemplate.stream(query, MessageBucket.class)) {
+            Iterator<MessageBucket> newestFirst = buckets.iterator();
+            while (collected < limit && newestFirst.hasNext()) {
+                MessageBucket bucket = newestFirst.next();
+                read.add(bucket);
+                collected += (int) bucket.getMessages().stream().filter(entry -> entry.getTimestamp().isBefore(before)).count();
+            }
+        }
+        List<Message> older = flatten(read, before);
+        return older.subList(Math.max(0, older.size() - limit), older.size());
+    }
+
+    @Override
+    public boolean deleteById(String messageId) {
+        Query unread = Query.query(Criteria.where("messages").elemMatch(
+                Criteria.where("messageId").is(messageId).and("read").is(false)));
+        Update pull = new Update().pull("messages", new Document("messageId", messageId));
+        if (mongoTemplate.updateFirst(unread, pull.inc("unreadCount", -1), MessageBucket.class).getModifiedCount() > 0) {
+            return true;
+        }
+        return mongoTemplate.updateFirst(byMessageId(messageId), new Update().pull("messages", new Document("messageId", messageId)),
+                MessageBucket.class).getModifiedCount() > 0;
+    }
+
+    // Whole buckets are moved once their newest message is older than cutoff; a bucket is already one
+    // conversation's batch, so batchSize does not apply
+    @Override
+    public int moveOlderThan(LocalDateTime cutoff, int batchSize, Consumer<List<Message>> archive) {
+        int moved = 0;
+        Query cold = Query.query(Criteria.where("lastTimestamp").lt(cutoff));
+        try (Stream<MessageBucket> buckets = mongoTemplate.stream(cold, MessageBucket.class)) {
+            for (MessageBucket bucket : (Iterable<MessageBucket>) buckets::iterator) {
+                List<Message> messages = flatten(List.of(bucket), null);
+                if (!messages.isEmpty()) {
+                    archive.accept(messages);
+                }
+                // Only removed if nothing was appended since it was read; otherwise the next run
+                // archives it again and reads skip the duplicates
+                Query unchanged = Query.query(Criteria.where("_id").is(bucket.getId()).and("count").is(bucket.getCount()));
+                if (mongoTemplate.remove(unchanged, MessageBucket.class).getDeletedCount() > 0) {
+                    moved += messages.size();
+                }
+            }
+        }
+        return moved;
+    }
+
+    private Query byMessageId(String messageId) {
+        return Query.query(Criteria.where("messages.messageId").is(messageId));
+    }
+
+    // Messages of the buckets in send order, optionally only those sent before a time
+    private List<Message> flatten(List<MessageBucket> buckets, LocalDateTime before) {
+        List<Message> messages = new ArrayList<>();
+        for (MessageBucket bucket : buckets) {
+            for (MessageBucket.Entry entry : bucket.getMessages()) {
+                if (before == null || entry.getTimestamp().isBefore(before)) {
+                    messages.add(entry.toMessage(bucket.getConversationId()));
+                }
+            }
+        }
+        messages.sort(Comparator.comparing(Message::getTimestamp));
+        return messages;
+    }
+}
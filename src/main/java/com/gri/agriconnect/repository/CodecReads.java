@@ -0,0 +1,74 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.codec.BsonFields;
+import com.gri.agriconnect.codec.EntityCodecs;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.StreamSupport;
+
+// Finds that decode with the entity's codec from codec.EntityCodecs instead of MappingMongoConverter.
+// The fragments use it to override the hot finders of their repository; filters are plain driver
+// filters, so values have to be in their stored form (BsonFields.id, BsonFields.date). Writes stay
+// on Spring Data, which owns versioning and auditing.
+final class CodecReads<T> {
+
+    private final MongoTemplate mongoTemplate;
+    private final Class<T> entityClass;
+
+    CodecReads(MongoTemplate mongoTemplate, Class<T> entityClass) {
+        this.mongoTemplate = mongoTemplate;
+        this.entityClass = entityClass;
+    }
+
+    Optional<T> findById(String id) {
+        List<T> found = find(Filters.eq("_id", BsonFields.id(id)), null, 1);
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    List<T> findAllById(Iterable<String> ids) {
+        List<Object> keys = StreamSupport.stream(ids.spliterator(), false).map(BsonFields::id).toList();
+        return find(Filters.in("_id", keys), null, 0);
+    }
+
+    List<T> find(Bson filter, Pageable pageable) {
+        return find(filter, sort(pageable.getSort()), pageable.isPaged() ? pageable.getPageSize() : 0,
+                pageable.isPaged() ? pageable.getOffset() : 0);
+    }
+
+    List<T> find(Bson filter, Bson sort, int limit) {
+        return find(filter, sort, limit, 0);
+    }
+
+    // execute() keeps Spring's exception translation
+    private List<T> find(Bson filter, Bson sort, int limit, long skip) {
+        return mongoTemplate.execute(entityClass, collection -> {
+            FindIterable<T> find = collection.withDocumentClass(entityClass)
+                    .withCodecRegistry(EntityCodecs.REGISTRY)
+                    .find(filter)
+                    .limit(limit)
+                    .skip((int) skip);
+            if (sort != null) {
+                find.sort(sort);
+            }
+            return find.into(new ArrayList<>());
+        });
+    }
+
+    private static Bson sort(Sort sort) {
+        if (sort.isUnsorted()) {
+            return null;
+        }
+        Document document = new Document();
+        sort.forEach(order -> document.append(order.getProperty(), order.isAscending() ? 1 : -1));
+        return document;
+    }
+}
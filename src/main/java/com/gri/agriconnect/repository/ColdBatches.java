@@ -0,0 +1,40 @@
+package com.gri.agriconnect.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Moves a key-ordered stream of cold documents out of a hot collection: batches of one key are handed
+// to the archive and only deleted once that succeeded, so a failure leaves documents in place
+final class ColdBatches {
+
+    private ColdBatches() {
+    }
+
+    static <T> int move(Stream<T> documents, Function<T, String> keyOf, int batchSize,
+                        Consumer<List<T>> archive, Consumer<List<T>> delete) {
+        int moved = 0;
+        List<T> batch = new ArrayList<>();
+        try (documents) {
+            for (T document : (Iterable<T>) documents::iterator) {
+                if (!batch.isEmpty() && (batch.size() == batchSize || !keyOf.apply(batch.get(0)).equals(keyOf.apply(document)))) {
+                    moved += flush(batch, archive, delete);
+                    batch = new ArrayList<>();
+                }
+                batch.add(document);
+            }
+        }
+        if (!batch.isEmpty()) {
+            moved += flush(batch, archive, delete);
+        }
+        return moved;
+    }
+
+    private static <T> int flush(List<T> batch, Consumer<List<T>> archive, Consumer<List<T>> delete) {
+        archive.accept(batch);
+        delete.accept(batch);
+        return batch.size();
+    }
+}
@@ -3,15 +3,19 @@ package com.gri.agriconnect.repository;
 
 
 import com.gri.agriconnect.model.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface CommentRepository extends MongoRepository<Comment, String> {
+public interface CommentRepository extends MongoRepository<Comment, String>, CommentRepositoryCustom {
     // Find all comments by a specific user
     List<Comment> findByUserId(String userId);
 
+    List<Comment> findByPostIdAndCreatedAtBefore(String postId, LocalDateTime before, Pageable pageable);
+
 
 }
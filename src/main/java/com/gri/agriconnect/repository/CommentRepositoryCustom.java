@@ -0,0 +1,24 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Comment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface CommentRepositoryCustom {
+    // Single findAndModify round trip; returns null when the comment does not exist and is not upserted.
+    // A non-null expectedVersion disables the upsert and throws OptimisticLockingFailureException on a mismatch.
+    Comment updateFields(String commentId, Map<String, Object> fields, Long expectedVersion, boolean upsert);
+
+    // Upsert whose insertOnly fields are only written when the comment is created
+    Comment upsertFields(String commentId, Map<String, Object> fields, Map<String, Object> insertOnly, Long expectedVersion);
+
+    // Atomic likeCount increment; null when the comment does not exist
+    Comment incrementCount(String commentId, String countField);
+
+    // Hands comments created before cutoff to archive in batches of one post or product, then deletes
+    // them. Returns how many were moved.
+    int moveOlderThan(LocalDateTime cutoff, int batchSize, Consumer<List<Comment>> archive);
+}
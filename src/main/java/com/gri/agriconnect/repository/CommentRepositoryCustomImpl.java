@@ -0,0 +1,46 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Comment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class CommentRepositoryCustomImpl extends FieldUpdateSupport<Comment> implements CommentRepositoryCustom {
+
+    @Autowired
+    public CommentRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        super(mongoTemplate, Comment.class);
+    }
+
+    @Override
+    public Comment updateFields(String commentId, Map<String, Object> fields, Long expectedVersion, boolean upsert) {
+        return setFields(commentId, fields, Map.of(), expectedVersion, upsert);
+    }
+
+    @Override
+    public Comment upsertFields(String commentId, Map<String, Object> fields, Map<String, Object> insertOnly, Long expectedVersion) {
+        return setFields(commentId, fields, insertOnly, expectedVersion, true);
+    }
+
+    @Override
+    public Comment incrementCount(String commentId, String countField) {
+        return incrementCounter(commentId, countField);
+    }
+
+    // post_createdAt order, so each post's comments arrive together
+    @Override
+    public int moveOlderThan(LocalDateTime cutoff, int batchSize, Consumer<List<Comment>> archive) {
+        Query cold = Query.query(Criteria.where("createdAt").lt(cutoff))
+                .with(Sort.by(Sort.Order.asc("postId"), Sort.Order.desc("createdAt")));
+        return ColdBatches.move(mongoTemplate.stream(cold, Comment.class), Comment::getPostId, batchSize, archive,
+                batch -> mongoTemplate.remove(Query.query(Criteria.where("_id").in(batch.stream().map(Comment::getCommentId).toList())),
+                        Comment.class));
+    }
+}
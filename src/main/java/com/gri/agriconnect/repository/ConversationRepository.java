@@ -5,9 +5,12 @@ import com.gri.agriconnect.model.Conversation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface ConversationRepository extends MongoRepository<Conversation, String> {
-    List<Conversation> findBySenderIdOrReceiverId(String senderId, String receiverId);
+public interface ConversationRepository extends MongoRepository<Conversation, String>, ConversationRepositoryCustom {
+    // Also declared by the fragment, which implements it; redeclared so calls are not ambiguous
+    Optional<Conversation> findById(String conversationId);
+
     Conversation findByConversationId(String conversationId);
 }
@@ -0,0 +1,22 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Conversation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface ConversationRepositoryCustom {
+    // Hot reads, decoded with ConversationCodec instead of the mapping converter
+    Optional<Conversation> findById(String conversationId);
+
+    List<Conversation> findBySenderIdOrReceiverId(String senderId, String receiverId);
+
+    // Single findAndModify round trip; returns null when the conversation does not exist and is not upserted.
+    // A non-null expectedVersion disables the upsert and throws OptimisticLockingFailureException on a mismatch.
+    Conversation updateFields(String conversationId, Map<String, Object> fields, Long expectedVersion, boolean upsert);
+
+    boolean addMessageId(String conversationId, String messageId);
+
+    boolean removeMessageId(String conversationId, String messageId);
+}
@@ -0,0 +1,46 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Conversation;
+import com.mongodb.client.model.Filters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class ConversationRepositoryCustomImpl extends FieldUpdateSupport<Conversation> implements ConversationRepositoryCustom {
+
+    private final CodecReads<Conversation> codecReads;
+
+    @Autowired
+    public ConversationRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        super(mongoTemplate, Conversation.class);
+        this.codecReads = new CodecReads<>(mongoTemplate, Conversation.class);
+    }
+
+    @Override
+    public Optional<Conversation> findById(String conversationId) {
+        return codecReads.findById(conversationId);
+    }
+
+    @Override
+    public List<Conversation> findBySenderIdOrReceiverId(String senderId, String receiverId) {
+        return codecReads.find(Filters.or(Filters.eq("senderId", senderId), Filters.eq("receiverId", receiverId)), null, 0);
+    }
+
+    @Override
+    public Conversation updateFields(String conversationId, Map<String, Object> fields, Long expectedVersion, boolean upsert) {
+        return setFields(conversationId, fields, Map.of(), expectedVersion, upsert);
+    }
+
+    @Override
+    public boolean addMessageId(String conversationId, String messageId) {
+        return push(conversationId, "messageIds", messageId, null);
+    }
+
+    @Override
+    public boolean removeMessageId(String conversationId, String messageId) {
+        return pull(conversationId, "messageIds", messageId, null);
+    }
+}
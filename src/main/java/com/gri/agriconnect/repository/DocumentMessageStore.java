@@ -0,0 +1,74 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Message;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// One document per message in the messages collection
+@Component
+@ConditionalOnProperty(prefix = "agriconnect.messages", name = "storage", havingValue = "document", matchIfMissing = true)
+public class DocumentMessageStore implements MessageStore {
+
+    private final MessageRepository messageRepository;
+
+    @Autowired
+    public DocumentMessageStore(MessageRepository messageRepository) {
+        this.messageRepository = messageRepository;
+    }
+
+    @Override
+    public Message save(Message message) {
+        return messageRepository.save(message);
+    }
+
+    @Override
+    public Optional<Message> findById(String messageId) {
+        return messageRepository.findById(messageId);
+    }
+
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        return messageRepository.findByConversationId(conversationId);
+    }
+
+    @Override
+    public List<Message> findUnreadByConversationId(String conversationId) {
+        return messageRepository.findByConversationIdAndIsReadFalse(conversationId);
+    }
+
+    @Override
+    public List<Message> findPage(String conversationId, LocalDateTime before, int limit) {
+        List<Message> newestFirst = messageRepository.findByConversationIdAndTimestampBefore(conversationId, before,
+                PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "timestamp")));
+        List<Message> page = new ArrayList<>(newestFirst);
+        Collections.reverse(page);
+        return page;
+    }
+
+    @Override
+    public boolean deleteById(String messageId) {
+        if (!messageRepository.existsById(messageId)) {
+            return false;
+        }
+        messageRepository.deleteById(messageId);
+        return true;
+    }
+
+    // Streamed in conversation_timestamp order, so each conversation's messages arrive together
+    @Override
+    public int moveOlderThan(LocalDateTime cutoff, int batchSize, Consumer<List<Message>> archive) {
+        return ColdBatches.move(messageRepository.findByTimestampBefore(cutoff, Sort.by("conversationId", "timestamp")),
+                Message::getConversationId, batchSize, archive,
+                batch -> messageRepository.deleteAllById(batch.stream().map(Message::getMessageId).toList()));
+    }
+}
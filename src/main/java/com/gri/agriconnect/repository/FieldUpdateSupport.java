@@ -0,0 +1,106 @@
+package com.gri.agriconnect.repository;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Shared implementation of the custom repository fragments: field-level $set updates
+// and array appends that touch only the given fields in a single round trip
+public abstract class FieldUpdateSupport<T> {
+
+    // The @Version field of every entity. Saves and every write here bump it, and conditional
+    // updates (expectedVersion) and If-Match / If-None-Match (see ETags) compare against it.
+    protected static final String VERSION = "version";
+
+    protected final MongoTemplate mongoTemplate;
+    private final Class<T> entityClass;
+    private final String modifiedField;
+
+    protected FieldUpdateSupport(MongoTemplate mongoTemplate, Class<T> entityClass) {
+        this(mongoTemplate, entityClass, "updatedAt");
+    }
+
+    protected FieldUpdateSupport(MongoTemplate mongoTemplate, Class<T> entityClass, String modifiedField) {
+        this.mongoTemplate = mongoTemplate;
+        this.entityClass = entityClass;
+        this.modifiedField = modifiedField;
+    }
+
+    // $set the non-null values and $unset the null ones, bumping the version and returning the
+    // updated document. With upsert a missing document is created with createdAt and the
+    // insertOnly fields applied via $setOnInsert.
+    // A non-null expectedVersion makes the write conditional: it never upserts, and a document
+    // that exists at another version raises OptimisticLockingFailureException.
+    protected T setFields(String id, Map<String, Object> fields, Map<String, Object> insertOnly,
+                          Long expectedVersion, boolean upsert) {
+        Update update = new Update();
+        fields.forEach((field, value) -> {
+            if (value != null) {
+                update.set(field, value);
+            } else {
+                update.unset(field);
+            }
+        });
+        update.inc(VERSION, 1);
+        boolean insert = upsert && expectedVersion == null;
+        if (insert) {
+            update.setOnInsert("createdAt", LocalDateTime.now());
+            insertOnly.forEach(update::setOnInsert);
+        }
+        Query query = byId(id);
+        if (expectedVersion != null) {
+            query.addCriteria(Criteria.where(VERSION).is(expectedVersion));
+        }
+        T result = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true).upsert(insert), entityClass);
+        if (result == null && expectedVersion != null && mongoTemplate.exists(byId(id), entityClass)) {
+            throw new OptimisticLockingFailureException(
+                    entityClass.getSimpleName() + " " + id + " is no longer at version " + expectedVersion);
+        }
+        return result;
+    }
+
+    // $inc a counter by one and returns the updated document, or null when it does not exist
+    protected T incrementCounter(String id, String countField) {
+        Update update = new Update().inc(countField, 1).set(modifiedField, LocalDateTime.now()).inc(VERSION, 1);
+        return mongoTemplate.findAndModify(byId(id), update, FindAndModifyOptions.options().returnNew(true), entityClass);
+    }
+
+    // Appends value to an id list and bumps its counter; false when the document does not exist
+    protected boolean push(String id, String listField, String value, String countField) {
+        Update update = new Update().push(listField, value).set(modifiedField, LocalDateTime.now()).inc(VERSION, 1);
+        if (countField != null) {
+            update.inc(countField, 1);
+        }
+        return mongoTemplate.updateFirst(byId(id), update, entityClass).getMatchedCount() > 0;
+    }
+
+    // Appends value only if it is not already in the list, so the counter moves exactly once
+    // even when concurrent writers race; false when the document is missing or already has it
+    protected boolean pushUnique(String id, String listField, String value, String countField) {
+        Query query = Query.query(Criteria.where("_id").is(id).and(listField).ne(value));
+        Update update = new Update().push(listField, value).inc(countField, 1)
+                .set(modifiedField, LocalDateTime.now()).inc(VERSION, 1);
+        return mongoTemplate.updateFirst(query, update, entityClass).getModifiedCount() > 0;
+    }
+
+    // Removes value from an id list, decrementing the counter only if it was present
+    protected boolean pull(String id, String listField, String value, String countField) {
+        Query query = Query.query(Criteria.where("_id").is(id).and(listField).is(value));
+        Update update = new Update().pull(listField, value).set(modifiedField, LocalDateTime.now()).inc(VERSION, 1);
+        if (countField != null) {
+            update.inc(countField, -1);
+        }
+        return mongoTemplate.updateFirst(query, update, entityClass).getModifiedCount() > 0;
+    }
+
+    protected Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+}
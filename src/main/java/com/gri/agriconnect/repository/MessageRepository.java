@@ -3,12 +3,18 @@ package com.gri.agriconnect.repository;
 
 
 import com.gri.agriconnect.model.Message;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface MessageRepository extends MongoRepository<Message, String> {
-    List<Message> findByConversationId(String conversationId);
+public interface MessageRepository extends MongoRepository<Message, String>, MessageRepositoryCustom {
+    // Also declared by the fragment, which implements it; redeclared so calls are not ambiguous
+    Optional<Message> findById(String messageId);
+
+    Stream<Message> findByTimestampBefore(LocalDateTime cutoff, Sort sort);
 }
\ No newline at end of file
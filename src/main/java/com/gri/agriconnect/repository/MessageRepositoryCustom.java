@@ -0,0 +1,19 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Message;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface MessageRepositoryCustom {
+    // Hot reads, decoded with MessageCodec instead of the mapping converter
+    Optional<Message> findById(String messageId);
+
+    List<Message> findByConversationId(String conversationId);
+
+    List<Message> findByConversationIdAndIsReadFalse(String conversationId);
+
+    List<Message> findByConversationIdAndTimestampBefore(String conversationId, LocalDateTime before, Pageable pageable);
+}
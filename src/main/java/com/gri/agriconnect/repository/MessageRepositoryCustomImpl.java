@@ -0,0 +1,45 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.codec.BsonFields;
+import com.gri.agriconnect.model.Message;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public class MessageRepositoryCustomImpl implements MessageRepositoryCustom {
+
+    private final CodecReads<Message> codecReads;
+
+    @Autowired
+    public MessageRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.codecReads = new CodecReads<>(mongoTemplate, Message.class);
+    }
+
+    @Override
+    public Optional<Message> findById(String messageId) {
+        return codecReads.findById(messageId);
+    }
+
+    // Sorted explicitly: the conversation_timestamp index returns send order at no extra cost
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        return codecReads.find(Filters.eq("conversationId", conversationId), Sorts.ascending("timestamp"), 0);
+    }
+
+    @Override
+    public List<Message> findByConversationIdAndIsReadFalse(String conversationId) {
+        return codecReads.find(Filters.and(Filters.eq("conversationId", conversationId), Filters.eq("isRead", false)), null, 0);
+    }
+
+    @Override
+    public List<Message> findByConversationIdAndTimestampBefore(String conversationId, LocalDateTime before, Pageable pageable) {
+        return codecReads.find(Filters.and(Filters.eq("conversationId", conversationId),
+                Filters.lt("timestamp", BsonFields.date(before))), pageable);
+    }
+}
@@ -0,0 +1,31 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Message;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Where MessageService keeps messages: one document per message, or packed into per-conversation
+// buckets. Chosen with agriconnect.messages.storage (document | bucket).
+public interface MessageStore {
+    // Inserts a message without an id (assigning one) or updates the content and read flag of an existing one
+    Message save(Message message);
+
+    Optional<Message> findById(String messageId);
+
+    // Whole history in send order
+    List<Message> findByConversationId(String conversationId);
+
+    List<Message> findUnreadByConversationId(String conversationId);
+
+    // The newest limit messages sent before the given time, in send order
+    List<Message> findPage(String conversationId, LocalDateTime before, int limit);
+
+    boolean deleteById(String messageId);
+
+    // Hands messages sent before cutoff to archive in batches of one conversation, then deletes them.
+    // Returns how many were moved.
+    int moveOlderThan(LocalDateTime cutoff, int batchSize, Consumer<List<Message>> archive);
+}
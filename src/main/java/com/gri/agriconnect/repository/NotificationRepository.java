@@ -0,0 +1,9 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Notification;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationRepository extends MongoRepository<Notification, String>, NotificationRepositoryCustom {
+}
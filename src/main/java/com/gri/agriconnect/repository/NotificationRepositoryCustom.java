@@ -0,0 +1,23 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Notification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface NotificationRepositoryCustom {
+
+    // One unordered bulk write: each notification is added onto the recipient's unread one for the
+    // same type and target, or inserted when there is none. Returns the number of events written.
+    int addUnread(Collection<Notification> notifications);
+
+    // Newest first, latestAt before the given time
+    List<Notification> findPage(String recipientId, LocalDateTime before, int limit);
+
+    long countUnread(String recipientId);
+
+    long markRead(String recipientId, String notificationId, LocalDateTime readAt);
+
+    long markAllRead(String recipientId, LocalDateTime readAt);
+}
@@ -0,0 +1,100 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Notification;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class NotificationRepositoryCustomImpl implements NotificationRepositoryCustom {
+
+    // Duplicate key: two nodes inserted the same unread notification at once
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public NotificationRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public int addUnread(Collection<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+        List<Notification> batch = new ArrayList<>(notifications);
+        try {
+            upsert(batch);
+        } catch (BulkOperationException e) {
+            // The losing upserts are retried once and now match the winner's document; anything else
+            // failed for a reason a retry would not fix
+            List<Notification> retry = new ArrayList<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                retry.add(batch.get(error.getIndex()));
+            }
+            upsert(retry);
+        }
+        return batch.stream().mapToInt(Notification::getCount).sum();
+    }
+
+    private void upsert(List<Notification> notifications) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        for (Notification notification : notifications) {
+            Query unread = Query.query(Criteria.where("recipientId").is(notification.getRecipientId())
+                    .and("type").is(notification.getType())
+                    .and("targetId").is(notification.getTargetId())
+                    .and("read").is(false));
+            Update update = new Update()
+                    .inc("count", notification.getCount())
+                    .max("latestAt", notification.getLatestAt())
+                    .setOnInsert("targetType", notification.getTargetType())
+                    .setOnInsert("createdAt", notification.getCreatedAt());
+            update.push("actorIds").slice(-Notification.MAX_ACTORS).each(notification.getActorIds().toArray());
+            bulk.upsert(unread, update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public List<Notification> findPage(String recipientId, LocalDateTime before, int limit) {
+        Query query = Query.query(Criteria.where("recipientId").is(recipientId).and("latestAt").lt(before))
+                .with(Sort.by(Sort.Direction.DESC, "latestAt"))
+                .limit(limit);
+        return mongoTemplate.find(query, Notification.class);
+    }
+
+    // Counted on the unread partial index without touching documents
+    @Override
+    public long countUnread(String recipientId) {
+        return mongoTemplate.count(Query.query(Criteria.where("recipientId").is(recipientId).and("read").is(false)),
+                Notification.class);
+    }
+
+    @Override
+    public long markRead(String recipientId, String notificationId, LocalDateTime readAt) {
+        Query query = Query.query(Criteria.where("_id").is(notificationId).and("recipientId").is(recipientId).and("read").is(false));
+        return mongoTemplate.updateFirst(query, new Update().set("read", true).set("readAt", readAt), Notification.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public long markAllRead(String recipientId, LocalDateTime readAt) {
+        Query query = Query.query(Criteria.where("recipientId").is(recipientId).and("read").is(false));
+        return mongoTemplate.updateMulti(query, new Update().set("read", true).set("readAt", readAt), Notification.class)
+                .getModifiedCount();
+    }
+}
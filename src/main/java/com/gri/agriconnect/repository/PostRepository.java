@@ -7,7 +7,12 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface PostRepository extends MongoRepository<Post, String> {
-    List<Post> findByUserId(String userId);
+public interface PostRepository extends MongoRepository<Post, String>, PostRepositoryCustom {
+    // Also declared by the fragment, which implements it; redeclared so calls are not ambiguous
+    Optional<Post> findById(String postId);
+
+    List<Post> findAllById(Iterable<String> postIds);
 }
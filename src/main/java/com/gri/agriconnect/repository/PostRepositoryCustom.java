@@ -0,0 +1,30 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Post;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface PostRepositoryCustom {
+    // Hot reads, decoded with PostCodec instead of the mapping converter
+    Optional<Post> findById(String postId);
+
+    List<Post> findAllById(Iterable<String> postIds);
+
+    List<Post> findByUserId(String userId);
+
+    // Single findAndModify round trip; returns null when the post does not exist and is not upserted.
+    // A non-null expectedVersion disables the upsert and throws OptimisticLockingFailureException on a mismatch.
+    Post updateFields(String postId, Map<String, Object> fields, Long expectedVersion, boolean upsert);
+
+    // Upsert whose insertOnly fields are only written when the post is created
+    Post upsertFields(String postId, Map<String, Object> fields, Map<String, Object> insertOnly, Long expectedVersion);
+
+    boolean addCommentId(String postId, String commentId);
+
+    // Atomic likeCount/favoriteCount increment; null when the post does not exist
+    Post incrementCount(String postId, String countField);
+
+    boolean removeCommentId(String postId, String commentId);
+}
@@ -0,0 +1,61 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Post;
+import com.mongodb.client.model.Filters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class PostRepositoryCustomImpl extends FieldUpdateSupport<Post> implements PostRepositoryCustom {
+
+    private final CodecReads<Post> codecReads;
+
+    @Autowired
+    public PostRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        super(mongoTemplate, Post.class);
+        this.codecReads = new CodecReads<>(mongoTemplate, Post.class);
+    }
+
+    @Override
+    public Optional<Post> findById(String postId) {
+        return codecReads.findById(postId);
+    }
+
+    @Override
+    public List<Post> findAllById(Iterable<String> postIds) {
+        return codecReads.findAllById(postIds);
+    }
+
+    @Override
+    public List<Post> findByUserId(String userId) {
+        return codecReads.find(Filters.eq("userId", userId), null, 0);
+    }
+
+    @Override
+    public Post updateFields(String postId, Map<String, Object> fields, Long expectedVersion, boolean upsert) {
+        return setFields(postId, fields, Map.of(), expectedVersion, upsert);
+    }
+
+    @Override
+    public Post upsertFields(String postId, Map<String, Object> fields, Map<String, Object> insertOnly, Long expectedVersion) {
+        return setFields(postId, fields, insertOnly, expectedVersion, true);
+    }
+
+    @Override
+    public boolean addCommentId(String postId, String commentId) {
+        return push(postId, "commentIds", commentId, "commentCount");
+    }
+
+    @Override
+    public Post incrementCount(String postId, String countField) {
+        return incrementCounter(postId, countField);
+    }
+
+    @Override
+    public boolean removeCommentId(String postId, String commentId) {
+        return pull(postId, "commentIds", commentId, "commentCount");
+    }
+}
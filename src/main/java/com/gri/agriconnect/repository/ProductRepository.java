@@ -7,8 +7,12 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface ProductRepository extends MongoRepository<Product, String> {
-    List<Product> findByCategory(String category);
-    List<Product> findBySupplierId(String supplierId);
+public interface ProductRepository extends MongoRepository<Product, String>, ProductRepositoryCustom {
+    // Also declared by the fragment, which implements it; redeclared so calls are not ambiguous
+    Optional<Product> findById(String productId);
+
+    List<Product> findAllById(Iterable<String> productIds);
 }
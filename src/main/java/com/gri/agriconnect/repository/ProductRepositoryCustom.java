@@ -0,0 +1,61 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Product;
+
+import com.gri.agriconnect.model.ProductFacets;
+import com.gri.agriconnect.model.ProductFilter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface ProductRepositoryCustom {
+    // Hot reads, decoded with ProductCodec instead of the mapping converter
+    Optional<Product> findById(String productId);
+
+    List<Product> findAllById(Iterable<String> productIds);
+
+    List<Product> findByCategory(String category);
+
+    List<Product> findBySupplierId(String supplierId);
+
+    // Single findAndModify round trip; returns null when the product does not exist and is not upserted.
+    // A non-null expectedVersion disables the upsert and throws OptimisticLockingFailureException on a mismatch.
+    Product updateFields(String productId, Map<String, Object> fields, Long expectedVersion, boolean upsert);
+
+    // Upsert whose insertOnly fields are only written when the product is created
+    Product upsertFields(String productId, Map<String, Object> fields, Map<String, Object> insertOnly, Long expectedVersion);
+
+    boolean addCommentId(String productId, String commentId);
+
+    // Atomic likeCount/favoriteCount increment; null when the product does not exist
+    Product incrementCount(String productId, String countField);
+
+    boolean removeCommentId(String productId, String commentId);
+
+    // $geoNear over the products' 2dsphere index, nearest first, optionally within one category
+    GeoResults<Product> findNearby(GeoJsonPoint point, double radiusKm, String category, int page, int size);
+
+    // One page of the products matching the filter
+    List<Product> browse(ProductFilter filter, Sort sort, int page, int size);
+
+    // Category, tag and price-range counts for the filter in a single $facet aggregation
+    ProductFacets facets(ProductFilter filter);
+
+    // Moves every product of a supplier to the supplier's new position
+    long updateSupplierPosition(String supplierId, GeoJsonPoint position);
+
+    // Conditional $inc on stockQuantity: a negative delta only applies while at least that much is in
+    // stock. Returns the updated product, or null when it is missing, short of stock or split.
+    Product adjustStock(String productId, int delta);
+
+    // Marks an unsplit product as split into the given number of buckets and returns it as it was
+    // before, so its stockQuantity is what the buckets start with; null when missing or already split
+    Product markStockSplit(String productId, int buckets);
+
+    // Writes the rolled-up bucket total of a split product; returns the product as it was before
+    Product setStockRollup(String productId, int stockQuantity);
+}
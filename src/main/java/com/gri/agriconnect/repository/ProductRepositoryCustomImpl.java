@@ -0,0 +1,216 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.config.MongoConfig;
+import com.gri.agriconnect.model.Product;
+import com.gri.agriconnect.model.ProductFacets;
+import com.gri.agriconnect.model.ProductFilter;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.NearQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class ProductRepositoryCustomImpl extends FieldUpdateSupport<Product> implements ProductRepositoryCustom {
+
+    private static final Object[] PRICE_BOUNDARIES = {0, 10, 50, 100, 500, 1000};
+    private static final String OPEN_PRICE_BUCKET = "1000+";
+    private static final int MAX_TAG_FACETS = 50;
+
+    private final CodecReads<Product> codecReads;
+    // Listing and search read through the query template; by-id reads, facets and writes stay on the primary
+    private final MongoTemplate queryTemplate;
+    private final CodecReads<Product> codecQueries;
+
+    @Autowired
+    public ProductRepositoryCustomImpl(MongoTemplate mongoTemplate, @Qualifier(MongoConfig.QUERY_TEMPLATE) MongoTemplate queryTemplate) {
+        super(mongoTemplate, Product.class);
+        this.codecReads = new CodecReads<>(mongoTemplate, Product.class);
+        this.queryTemplate = queryTemplate;
+        this.codecQueries = new CodecReads<>(queryTemplate, Product.class);
+    }
+
+    @Override
+    public Optional<Product> findById(String productId) {
+        return codecReads.findById(productId);
+    }
+
+    @Override
+    public List<Product> findAllById(Iterable<String> productIds) {
+        return codecReads.findAllById(productIds);
+    }
+
+    @Override
+    public List<Product> findByCategory(String category) {
+        return codecQueries.find(Filters.eq("category", category), Sorts.descending("createdAt"), 0);
+    }
+
+    @Override
+    public List<Product> findBySupplierId(String supplierId) {
+        return codecQueries.find(Filters.eq("supplierId", supplierId), Sorts.descending("createdAt"), 0);
+    }
+
+    @Override
+    public Product updateFields(String productId, Map<String, Object> fields, Long expectedVersion, boolean upsert) {
+        return setFields(productId, fields, Map.of(), expectedVersion, upsert);
+    }
+
+    @Override
+    public Product upsertFields(String productId, Map<String, Object> fields, Map<String, Object> insertOnly, Long expectedVersion) {
+        return setFields(productId, fields, insertOnly, expectedVersion, true);
+    }
+
+    @Override
+    public boolean addCommentId(String productId, String commentId) {
+        return push(productId, "commentIds", commentId, "commentCount");
+    }
+
+    @Override
+    public Product incrementCount(String productId, String countField) {
+        return incrementCounter(productId, countField);
+    }
+
+    @Override
+    public boolean removeCommentId(String productId, String commentId) {
+        return pull(productId, "commentIds", commentId, "commentCount");
+    }
+
+    @Override
+    public GeoResults<Product> findNearby(GeoJsonPoint point, double radiusKm, String category, int page, int size) {
+        NearQuery nearQuery = NearQuery.near(point)
+                .spherical(true)
+                .maxDistance(new Distance(radiusKm, Metrics.KILOMETERS))
+                .with(PageRequest.of(page, size));
+        if (category != null) {
+            nearQuery.query(Query.query(Criteria.where("category").is(category)));
+        }
+        return queryTemplate.geoNear(nearQuery, Product.class);
+    }
+
+    @Override
+    public List<Product> browse(ProductFilter filter, Sort sort, int page, int size) {
+        Query query = Query.query(matching(filter)).with(sort).skip((long) page * size).limit(size);
+        return queryTemplate.find(query, Product.class);
+    }
+
+    // On the primary: facets are cached until the next product write clears them, and a secondary
+    // that has not applied that write yet would keep its stale counts cached for the whole TTL
+    @Override
+    public ProductFacets facets(ProductFilter filter) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(matching(filter)),
+                Aggregation.facet(Aggregation.count().as("count")).as("total")
+                        .and(Aggregation.sortByCount("category")).as("categories")
+                        .and(Aggregation.unwind("categoryTags"), Aggregation.sortByCount("categoryTags"),
+                                Aggregation.limit(MAX_TAG_FACETS)).as("tags")
+                        // Unpriced products would land in the default bucket, so they are left out here
+                        .and(Aggregation.match(Criteria.where("price").gte(0)), Aggregation.bucket("price").withBoundaries(PRICE_BOUNDARIES)
+                                .withDefaultBucket(OPEN_PRICE_BUCKET).andOutputCount().as("count")).as("prices"));
+        Document result = mongoTemplate.aggregate(aggregation, Product.class, Document.class).getUniqueMappedResult();
+        if (result == null) {
+            return new ProductFacets(0, Map.of(), Map.of(), Map.of());
+        }
+        List<Document> total = result.getList("total", Document.class);
+        return new ProductFacets(
+                total.isEmpty() ? 0 : ((Number) total.get(0).get("count")).longValue(),
+                counts(result.getList("categories", Document.class)),
+                counts(result.getList("tags", Document.class)),
+                priceCounts(result.getList("prices", Document.class)));
+    }
+
+    private Criteria matching(ProductFilter filter) {
+        Criteria criteria = new Criteria();
+        if (filter.category() != null) {
+            criteria.and("category").is(filter.category());
+        }
+        if (!filter.tags().isEmpty()) {
+            criteria.and("categoryTags").all(filter.tags());
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            Criteria price = criteria.and("price");
+            if (filter.minPrice() != null) {
+                price.gte(filter.minPrice());
+            }
+            if (filter.maxPrice() != null) {
+                price.lte(filter.maxPrice());
+            }
+        }
+        if (filter.inStock()) {
+            criteria.and("stockQuantity").gt(0);
+        }
+        return criteria;
+    }
+
+    private Map<String, Long> counts(List<Document> buckets) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Document bucket : buckets) {
+            counts.put(String.valueOf(bucket.get("_id")), ((Number) bucket.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    // $bucket ids are the lower boundaries; label each range with both ends
+    private Map<String, Long> priceCounts(List<Document> buckets) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Document bucket : buckets) {
+            Object lower = bucket.get("_id");
+            String label = OPEN_PRICE_BUCKET;
+            for (int i = 0; i < PRICE_BOUNDARIES.length - 1; i++) {
+                if (lower instanceof Number number && number.doubleValue() == ((Number) PRICE_BOUNDARIES[i]).doubleValue()) {
+                    label = PRICE_BOUNDARIES[i] + "-" + PRICE_BOUNDARIES[i + 1];
+                }
+            }
+            counts.put(label, ((Number) bucket.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    @Override
+    public long updateSupplierPosition(String supplierId, GeoJsonPoint position) {
+        Update update = position != null ? new Update().set("position", position) : new Update().unset("position");
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("supplierId").is(supplierId)),
+                update.inc(VERSION, 1), Product.class).getModifiedCount();
+    }
+
+    @Override
+    public Product adjustStock(String productId, int delta) {
+        Criteria criteria = Criteria.where("_id").is(productId).and("stockBuckets").not().gt(0);
+        if (delta < 0) {
+            criteria.and("stockQuantity").gte(-delta);
+        }
+        Update update = new Update().inc("stockQuantity", delta).set("updatedAt", LocalDateTime.now()).inc(VERSION, 1);
+        return mongoTemplate.findAndModify(Query.query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    @Override
+    public Product markStockSplit(String productId, int buckets) {
+        Query query = Query.query(Criteria.where("_id").is(productId).and("stockBuckets").not().gt(0));
+        Update update = new Update().set("stockBuckets", buckets).set("updatedAt", LocalDateTime.now()).inc(VERSION, 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Product.class);
+    }
+
+    @Override
+    public Product setStockRollup(String productId, int stockQuantity) {
+        Update update = new Update().set("stockQuantity", stockQuantity).set("updatedAt", LocalDateTime.now()).inc(VERSION, 1);
+        return mongoTemplate.findAndModify(byId(productId), update, FindAndModifyOptions.options().returnNew(false), Product.class);
+    }
+}
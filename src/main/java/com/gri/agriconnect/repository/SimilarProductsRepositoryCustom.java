@@ -0,0 +1,14 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.SimilarProducts;
+
+import java.util.List;
+import java.util.Set;
+
+public interface SimilarProductsRepositoryCustom {
+    // Replaces (or inserts) every document in one unordered bulk write
+    void replaceAll(List<SimilarProducts> batch);
+
+    // Deletes the entries of products not in productIds, in batches of batchSize; returns how many were deleted
+    long deleteAllExcept(Set<String> productIds, int batchSize);
+}
@@ -0,0 +1,65 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.SimilarProducts;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class SimilarProductsRepositoryCustomImpl implements SimilarProductsRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public SimilarProductsRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void replaceAll(List<SimilarProducts> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SimilarProducts.class);
+        for (SimilarProducts similar : batch) {
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(similar.getId())), similar,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public long deleteAllExcept(Set<String> productIds, int batchSize) {
+        Query all = new Query();
+        all.fields().include("_id");
+        List<String> stale = new ArrayList<>();
+        long deleted = 0;
+        try (Stream<SimilarProducts> stream = mongoTemplate.stream(all, SimilarProducts.class)) {
+            for (SimilarProducts similar : (Iterable<SimilarProducts>) stream::iterator) {
+                if (!productIds.contains(similar.getId())) {
+                    stale.add(similar.getId());
+                }
+                if (stale.size() == batchSize) {
+                    deleted += delete(stale);
+                }
+            }
+        }
+        return deleted + delete(stale);
+    }
+
+    private long delete(List<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        long deleted = mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), SimilarProducts.class).getDeletedCount();
+        ids.clear();
+        return deleted;
+    }
+}
@@ -0,0 +1,13 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.StockBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockBucketRepository extends MongoRepository<StockBucket, String>, StockBucketRepositoryCustom {
+    List<StockBucket> findByProductId(String productId);
+    void deleteByProductId(String productId);
+}
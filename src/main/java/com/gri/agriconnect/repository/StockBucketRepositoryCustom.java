@@ -0,0 +1,10 @@
+package com.gri.agriconnect.repository;
+
+public interface StockBucketRepositoryCustom {
+    // Conditional $inc: a negative delta only applies while the bucket holds at least that much.
+    // Any other delta upserts, so stock returned before split() has written the bucket is not lost.
+    boolean adjust(String productId, int bucket, int delta);
+
+    // Sum of the product's buckets in one aggregation
+    int totalQuantity(String productId);
+}
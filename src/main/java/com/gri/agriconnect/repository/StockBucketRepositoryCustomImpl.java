@@ -0,0 +1,43 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.StockBucket;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class StockBucketRepositoryCustomImpl implements StockBucketRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public StockBucketRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean adjust(String productId, int bucket, int delta) {
+        Criteria criteria = Criteria.where("_id").is(StockBucket.idOf(productId, bucket));
+        if (delta < 0) {
+            criteria.and("quantity").gte(-delta);
+            return mongoTemplate.updateFirst(Query.query(criteria), new Update().inc("quantity", delta), StockBucket.class)
+                    .getModifiedCount() > 0;
+        }
+        Update update = new Update().inc("quantity", delta).setOnInsert("productId", productId).setOnInsert("bucket", bucket);
+        UpdateResult result = mongoTemplate.upsert(Query.query(criteria), update, StockBucket.class);
+        return result.getMatchedCount() > 0 || result.getUpsertedId() != null;
+    }
+
+    @Override
+    public int totalQuantity(String productId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("productId").is(productId)),
+                Aggregation.group("productId").sum("quantity").as("total"));
+        Document result = mongoTemplate.aggregate(aggregation, StockBucket.class, Document.class).getUniqueMappedResult();
+        return result == null ? 0 : ((Number) result.get("total")).intValue();
+    }
+}
@@ -0,0 +1,13 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.StockReservation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends MongoRepository<StockReservation, String>, StockReservationRepositoryCustom {
+    List<StockReservation> findTop100ByStatusAndExpiresAtBefore(StockReservation.Status status, LocalDateTime time);
+}
@@ -0,0 +1,13 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.StockReservation;
+
+import java.time.LocalDateTime;
+
+public interface StockReservationRepositoryCustom {
+    // Moves a HELD reservation to the given status and returns it, or null if it is no longer HELD.
+    // Exactly one caller wins, so the held stock is returned at most once.
+    // expiringBefore/expiringAfter, when non-null, additionally bound expiresAt.
+    StockReservation finishHeld(String reservationId, StockReservation.Status status,
+                                LocalDateTime expiringBefore, LocalDateTime expiringAfter);
+}
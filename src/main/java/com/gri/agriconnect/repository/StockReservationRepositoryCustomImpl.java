@@ -0,0 +1,57 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.config.MongoClientProperties;
+import com.gri.agriconnect.model.StockReservation;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+public class StockReservationRepositoryCustomImpl implements StockReservationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final QueryMapper queryMapper;
+    private final UpdateMapper updateMapper;
+    // Concern configured for the collection, or null for the client default
+    private final WriteConcern writeConcern;
+
+    @Autowired
+    public StockReservationRepositoryCustomImpl(MongoTemplate mongoTemplate, MongoClientProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        this.updateMapper = new UpdateMapper(mongoTemplate.getConverter());
+        this.writeConcern = properties.collectionWriteConcern(mongoTemplate.getCollectionName(StockReservation.class));
+    }
+
+    @Override
+    public StockReservation finishHeld(String reservationId, StockReservation.Status status,
+                                       LocalDateTime expiringBefore, LocalDateTime expiringAfter) {
+        Criteria criteria = Criteria.where("_id").is(reservationId).and("status").is(StockReservation.Status.HELD);
+        if (expiringBefore != null) {
+            criteria.and("expiresAt").lt(expiringBefore);
+        } else if (expiringAfter != null) {
+            criteria.and("expiresAt").gt(expiringAfter);
+        }
+        // The status change decides whether stock is sold or returned, so it is written with the collection's
+        // configured concern; MongoTemplate.findAndModify would bypass the WriteConcernResolver
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(StockReservation.class);
+        Document filter = queryMapper.getMappedObject(Query.query(criteria).getQueryObject(), entity);
+        Document update = updateMapper.getMappedObject(new Update().set("status", status).getUpdateObject(), entity);
+        return mongoTemplate.execute(StockReservation.class, collection -> {
+            MongoCollection<Document> target = writeConcern != null ? collection.withWriteConcern(writeConcern) : collection;
+            Document finished = target.findOneAndUpdate(filter, update, new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+            return finished != null ? mongoTemplate.getConverter().read(StockReservation.class, finished) : null;
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.TrendingScore;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TrendingScoreRepository extends MongoRepository<TrendingScore, String>, TrendingScoreRepositoryCustom {
+    List<TrendingScore> findByLogScoreGreaterThan(double logScore);
+    long deleteByLogScoreLessThan(double logScore);
+}
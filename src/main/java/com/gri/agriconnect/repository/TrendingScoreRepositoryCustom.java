@@ -0,0 +1,10 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.TrendingScore;
+
+import java.util.Collection;
+
+public interface TrendingScoreRepositoryCustom {
+    // Upserts all scores in one unordered bulk write
+    void saveScores(Collection<TrendingScore> scores);
+}
@@ -0,0 +1,37 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.TrendingScore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+
+public class TrendingScoreRepositoryCustomImpl implements TrendingScoreRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public TrendingScoreRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void saveScores(Collection<TrendingScore> scores) {
+        if (scores.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrendingScore.class);
+        for (TrendingScore score : scores) {
+            bulk.upsert(Query.query(Criteria.where("_id").is(score.getId())), new Update()
+                    .set("kind", score.getKind())
+                    .set("targetId", score.getTargetId())
+                    .set("categories", score.getCategories())
+                    .set("logScore", score.getLogScore()));
+        }
+        bulk.execute();
+    }
+}
@@ -0,0 +1,29 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.UserProfile;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Membership changes as single conditional updates, so concurrent writers never
+// lose each other's ids and the counters stay in step with the lists
+public interface UserRepositoryCustom {
+    boolean addConversationId(String userId, String conversationId);
+
+    boolean removeConversationId(String userId, String conversationId);
+
+    boolean addPostId(String userId, String postId);
+
+    boolean removePostId(String userId, String postId);
+
+    boolean addProductId(String userId, String productId);
+
+    boolean removeProductId(String userId, String productId);
+
+    // The user's public fields plus their latest posts, products and comments from one aggregation:
+    // $lookup sub-pipelines run on the server, each bounded by limit and served by an index
+    UserProfile profile(String userId, int limit);
+
+    // One unordered bulk write; a time older than the stored one is ignored, a newer one bumps version
+    void updateLastSeen(Map<String, LocalDateTime> lastSeen);
+}
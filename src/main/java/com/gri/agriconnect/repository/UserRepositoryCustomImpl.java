@@ -0,0 +1,96 @@
+package com.gri.agriconnect.repository;
+
+import com.gri.agriconnect.model.Comment;
+import com.gri.agriconnect.model.Post;
+import com.gri.agriconnect.model.Product;
+import com.gri.agriconnect.model.User;
+import com.gri.agriconnect.model.UserProfile;
+import com.gri.agriconnect.model.UserSummary;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class UserRepositoryCustomImpl extends FieldUpdateSupport<User> implements UserRepositoryCustom {
+
+    @Autowired
+    public UserRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        super(mongoTemplate, User.class, "lastModifiedDate");
+    }
+
+    @Override
+    public boolean addConversationId(String userId, String conversationId) {
+        return pushUnique(userId, "conversationIds", conversationId, "conversationCount");
+    }
+
+    @Override
+    public boolean removeConversationId(String userId, String conversationId) {
+        return pull(userId, "conversationIds", conversationId, "conversationCount");
+    }
+
+    @Override
+    public boolean addPostId(String userId, String postId) {
+        return pushUnique(userId, "postIds", postId, "postCount");
+    }
+
+    @Override
+    public boolean removePostId(String userId, String postId) {
+        return pull(userId, "postIds", postId, "postCount");
+    }
+
+    @Override
+    public boolean addProductId(String userId, String productId) {
+        return pushUnique(userId, "productIds", productId, "productCount");
+    }
+
+    @Override
+    public boolean removeProductId(String userId, String productId) {
+        return pull(userId, "productIds", productId, "productCount");
+    }
+
+    @Override
+    public UserProfile profile(String userId, int limit) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").is(userId)),
+                Aggregation.project(UserSummary.FIELDS),
+                latest(Post.class, "userId", userId, limit, "latestPosts"),
+                latest(Product.class, "supplierId", userId, limit, "latestProducts"),
+                latest(Comment.class, "userId", userId, limit, "recentComments"));
+        return mongoTemplate.aggregate(aggregation, User.class, UserProfile.class).getUniqueMappedResult();
+    }
+
+    @Override
+    public void updateLastSeen(Map<String, LocalDateTime> lastSeen) {
+        if (lastSeen.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        // Only a later time is written, and it bumps version so a concurrent read-modify-save of the
+        // user fails its version check instead of writing back the older lastSeen
+        lastSeen.forEach((userId, seen) -> bulk.updateOne(
+                Query.query(Criteria.where("_id").is(userId).and("lastSeen").not().gte(seen)),
+                new Update().set("lastSeen", seen).inc(VERSION, 1)));
+        bulk.execute();
+    }
+
+    // Uncorrelated $lookup: the owner id is a constant, so each sub-pipeline is an index range scan
+    private AggregationOperation latest(Class<?> entityClass, String ownerField, String ownerId, int limit, String as) {
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        return context -> new Document("$lookup", new Document("from", collection)
+                .append("pipeline", List.of(
+                        new Document("$match", new Document(ownerField, ownerId)),
+                        new Document("$sort", new Document("createdAt", -1)),
+                        new Document("$limit", limit),
+                        new Document("$project", new Document("commentIds", 0))))
+                .append("as", as));
+    }
+}
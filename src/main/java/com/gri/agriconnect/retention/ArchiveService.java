@@ -0,0 +1,152 @@
+package com.gri.agriconnect.retention;
+
+import com.gri.agriconnect.model.ArchivedChunk;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Writes cold documents to the archive and reads history back from it once a page goes past the hot
+// window. Documents are stored as the mapping converter writes them to the hot collection, so an
+// archived chunk reads back into the same model classes.
+@Service
+@EnableConfigurationProperties(RetentionProperties.class)
+public class ArchiveService {
+
+    public enum Source {
+        MESSAGES("messages"), COMMENTS("comments");
+
+        private final String collection;
+
+        Source(String collection) {
+            this.collection = collection;
+        }
+    }
+
+    private static final Codec<Document> CODEC = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+    private final ArchiveStore archiveStore;
+    private final MongoConverter mongoConverter;
+    private final RetentionProperties properties;
+
+    @Autowired
+    public ArchiveService(ArchiveStore archiveStore, MongoConverter mongoConverter, RetentionProperties properties) {
+        this.archiveStore = archiveStore;
+        this.mongoConverter = mongoConverter;
+        this.properties = properties;
+    }
+
+    public boolean archives(Source source) {
+        return policy(source).archives();
+    }
+
+    public <T> void archive(Source source, String key, List<T> documents, Function<T, LocalDateTime> timestampOf) {
+        ArchivedChunk chunk = new ArchivedChunk();
+        chunk.setSource(source.collection);
+        chunk.setKey(key);
+        chunk.setFirstTimestamp(documents.stream().map(timestampOf).min(Comparator.naturalOrder()).orElseThrow());
+        chunk.setLastTimestamp(documents.stream().map(timestampOf).max(Comparator.naturalOrder()).orElseThrow());
+        chunk.setCount(documents.size());
+        chunk.setData(encode(documents));
+        chunk.setArchivedAt(LocalDateTime.now());
+        archiveStore.save(chunk);
+    }
+
+    // The newest limit archived documents of a key sent before the given time, oldest first. Empty
+    // when the source is not archived. A document archived twice (a run that stopped between writing
+    // the chunk and deleting the originals) is only returned once.
+    public <T> List<T> page(Source source, String key, LocalDateTime before, int limit, Class<T> type,
+                            Function<T, LocalDateTime> timestampOf, Function<T, String> idOf) {
+        if (!archives(source)) {
+            return List.of();
+        }
+        List<T> found = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        // Chunks of one key do not overlap, so once a page is filled every further chunk is older
+        try (Stream<ArchivedChunk> chunks = archiveStore.findBefore(source.collection, key, before)) {
+            Iterator<ArchivedChunk> iterator = chunks.iterator();
+            while (found.size() < limit && iterator.hasNext()) {
+                for (T document : decode(iterator.next().getData(), type)) {
+                    if (timestampOf.apply(document).isBefore(before) && seen.add(idOf.apply(document))) {
+                        found.add(document);
+                    }
+                }
+            }
+        }
+        found.sort(Comparator.comparing(timestampOf));
+        return found.subList(Math.max(0, found.size() - limit), found.size());
+    }
+
+    public void expire() {
+        if (properties.getArchiveTtl() != null) {
+            archiveStore.expire(properties.getArchiveTtl());
+        }
+    }
+
+    private RetentionProperties.Policy policy(Source source) {
+        return switch (source) {
+            case MESSAGES -> properties.getMessages();
+            case COMMENTS -> properties.getComments();
+        };
+    }
+
+    private byte[] encode(List<?> documents) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            for (Object document : documents) {
+                Document bson = new Document();
+                mongoConverter.write(document, bson);
+                BasicOutputBuffer buffer = new BasicOutputBuffer();
+                CODEC.encode(new BsonBinaryWriter(buffer), bson, EncoderContext.builder().build());
+                buffer.pipe(gzip);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode archive chunk", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private <T> List<T> decode(byte[] data, Class<T> type) {
+        byte[] raw;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            raw = gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode archive chunk", e);
+        }
+        // Each BSON document starts with its own little-endian length
+        ByteBuffer lengths = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+        List<T> documents = new ArrayList<>();
+        for (int offset = 0; offset < raw.length; ) {
+            int length = lengths.getInt(offset);
+            Document bson = new RawBsonDocument(raw, offset, length).decode(CODEC);
+            documents.add(mongoConverter.read(type, bson));
+            offset += length;
+        }
+        return documents;
+    }
+}
@@ -0,0 +1,19 @@
+package com.gri.agriconnect.retention;
+
+import com.gri.agriconnect.model.ArchivedChunk;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+// Where archived chunks are kept, chosen with agriconnect.retention.target (collection | file)
+public interface ArchiveStore {
+    void save(ArchivedChunk chunk);
+
+    // Chunks of one source and key that start before the given time, newest first. Read lazily, so
+    // callers close the stream once they have enough.
+    Stream<ArchivedChunk> findBefore(String source, String key, LocalDateTime before);
+
+    // Drops chunks archived longer ago than ttl
+    void expire(Duration ttl);
+}
@@ -0,0 +1,48 @@
+package com.gri.agriconnect.retention;
+
+import com.gri.agriconnect.model.ArchivedChunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+// Chunks in the archive collection, in the same database as the hot data
+@Component
+@ConditionalOnProperty(prefix = "agriconnect.retention", name = "target", havingValue = "collection", matchIfMissing = true)
+public class CollectionArchiveStore implements ArchiveStore {
+
+    // Chunks fetched per cursor batch; a page rarely needs more than a couple
+    private static final int CURSOR_BATCH = 4;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public CollectionArchiveStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void save(ArchivedChunk chunk) {
+        mongoTemplate.insert(chunk);
+    }
+
+    @Override
+    public Stream<ArchivedChunk> findBefore(String source, String key, LocalDateTime before) {
+        Query query = Query.query(Criteria.where("source").is(source).and("key").is(key).and("firstTimestamp").lt(before))
+                .with(Sort.by(Sort.Direction.DESC, "firstTimestamp"))
+                .cursorBatchSize(CURSOR_BATCH);
+        return mongoTemplate.stream(query, ArchivedChunk.class);
+    }
+
+    // The archivedAt TTL index expires chunks
+    @Override
+    public void expire(Duration ttl) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.gri.agriconnect.retention;
+
+import com.gri.agriconnect.model.ArchivedChunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Chunks as files: <directory>/<source>/<key>/<firstMillis>-<lastMillis>-<count>.bson.gz. Everything a read
+// filters and sorts on is in the file name, so only the chunks that are used get read.
+@Component
+@ConditionalOnProperty(prefix = "agriconnect.retention", name = "target", havingValue = "file")
+public class FileArchiveStore implements ArchiveStore {
+
+    private static final String SUFFIX = ".bson.gz";
+
+    private final Path directory;
+
+    @Autowired
+    public FileArchiveStore(RetentionProperties properties) {
+        this.directory = Paths.get(properties.getDirectory());
+    }
+
+    @Override
+    public void save(ArchivedChunk chunk) {
+        String name = millis(chunk.getFirstTimestamp()) + "-" + millis(chunk.getLastTimestamp()) + "-" + chunk.getCount() + SUFFIX;
+        Path dir = directory.resolve(safe(chunk.getSource())).resolve(safe(chunk.getKey()));
+        try {
+            Files.createDirectories(dir);
+            // Written aside and moved into place, so readers never see a partial chunk
+            Path temp = Files.createTempFile(dir, "chunk", ".tmp");
+            Files.write(temp, chunk.getData());
+            Files.move(temp, dir.resolve(name), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive chunk " + dir.resolve(name), e);
+        }
+    }
+
+    @Override
+    public Stream<ArchivedChunk> findBefore(String source, String key, LocalDateTime before) {
+        Path dir = directory.resolve(safe(source)).resolve(safe(key));
+        if (!Files.isDirectory(dir)) {
+            return Stream.empty();
+        }
+        long beforeMillis = millis(before);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .filter(file -> nameField(file, 0) < beforeMillis)
+                    .sorted(Comparator.comparingLong((Path file) -> nameField(file, 0)).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list archive chunks in " + dir, e);
+        }
+        return files.stream().map(file -> read(source, key, file));
+    }
+
+    @Override
+    public void expire(Duration ttl) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(ttl));
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.filter(path -> path.toString().endsWith(SUFFIX))::iterator) {
+                if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not expire archive chunks in " + directory, e);
+        }
+    }
+
+    private ArchivedChunk read(String source, String key, Path file) {
+        ArchivedChunk chunk = new ArchivedChunk();
+        chunk.setId(file.getFileName().toString());
+        chunk.setSource(source);
+        chunk.setKey(key);
+        chunk.setFirstTimestamp(time(nameField(file, 0)));
+        chunk.setLastTimestamp(time(nameField(file, 1)));
+        chunk.setCount((int) nameField(file, 2));
+        try {
+            chunk.setData(Files.readAllBytes(file));
+            chunk.setArchivedAt(LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive chunk " + file, e);
+        }
+        return chunk;
+    }
+
+    private static long nameField(Path file, int field) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()).split("-")[field]);
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime time(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    // Ids end up in paths; anything but letters, digits, '_' and '-' is replaced
+    private static String safe(String segment) {
+        return segment.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+}
@@ -0,0 +1,75 @@
+package com.gri.agriconnect.retention;
+
+import com.gri.agriconnect.config.CacheConfig;
+import com.gri.agriconnect.model.Comment;
+import com.gri.agriconnect.model.Message;
+import com.gri.agriconnect.repository.CommentRepository;
+import com.gri.agriconnect.repository.MessageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Moves messages and comments older than their hot window into the archive. Ids stay listed on their
+// conversation, post or product; those documents are only reachable through the paged history reads.
+@Component
+public class RetentionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionJob.class);
+
+    private final MessageStore messageStore;
+    private final CommentRepository commentRepository;
+    private final ArchiveService archiveService;
+    private final CacheManager cacheManager;
+    private final RetentionProperties properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public RetentionJob(MessageStore messageStore, CommentRepository commentRepository, ArchiveService archiveService,
+                        CacheManager cacheManager, RetentionProperties properties) {
+        this.messageStore = messageStore;
+        this.commentRepository = commentRepository;
+        this.archiveService = archiveService;
+        this.cacheManager = cacheManager;
+        this.properties = properties;
+    }
+
+    @Scheduled(cron = "${agriconnect.retention.cron:0 0 4 * * *}")
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Retention job is already running");
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (archiveService.archives(ArchiveService.Source.MESSAGES)) {
+                int moved = messageStore.moveOlderThan(now.minus(properties.getMessages().getHotWindow()), properties.getBatchSize(),
+                        batch -> archiveService.archive(ArchiveService.Source.MESSAGES, batch.get(0).getConversationId(), batch,
+                                Message::getTimestamp));
+                logger.info("Archived {} messages", moved);
+            }
+            if (archiveService.archives(ArchiveService.Source.COMMENTS)) {
+                Cache comments = cacheManager.getCache(CacheConfig.COMMENTS);
+                int moved = commentRepository.moveOlderThan(now.minus(properties.getComments().getHotWindow()), properties.getBatchSize(),
+                        batch -> {
+                            archiveService.archive(ArchiveService.Source.COMMENTS, batch.get(0).getPostId(), batch, Comment::getCreatedAt);
+                            if (comments != null) {
+                                batch.forEach(comment -> comments.evict(comment.getCommentId()));
+                            }
+                        });
+                logger.info("Archived {} comments", moved);
+            }
+            archiveService.expire();
+        } catch (RuntimeException e) {
+            logger.warn("Retention job failed: {}", e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+}
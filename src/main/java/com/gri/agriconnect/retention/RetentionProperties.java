@@ -0,0 +1,52 @@
+package com.gri.agriconnect.retention;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "agriconnect.retention")
+public class RetentionProperties {
+
+    public enum Target {
+        COLLECTION, // gzipped chunks in the archive collection
+        FILE        // gzipped chunk files under directory
+    }
+
+    @Data
+    public static class Policy {
+        // Age after which documents leave the hot collection; unset keeps them there forever
+        private Duration hotWindow;
+
+        // Move them to the archive, or let a TTL index delete them
+        private boolean archive = true;
+
+        public boolean archives() {
+            return hotWindow != null && archive;
+        }
+
+        // TTL of the hot collection, or null when nothing expires there
+        public Duration expireAfter() {
+            return hotWindow != null && !archive ? hotWindow : null;
+        }
+    }
+
+    private Policy messages = new Policy();
+    private Policy comments = new Policy();
+
+    // How long finished stock reservations are kept after they expire
+    private Duration reservationTtl = Duration.ofDays(30);
+
+    // How long notifications are kept after their latest event, read or not; unset keeps them forever
+    private Duration notificationTtl = Duration.ofDays(90);
+
+    // How long archived chunks are kept; unset keeps them forever
+    private Duration archiveTtl;
+
+    private Target target = Target.COLLECTION;
+    private String directory = "archive";
+
+    // Documents per archived chunk
+    private int batchSize = 500;
+}
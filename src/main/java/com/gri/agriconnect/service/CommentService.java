@@ -1,16 +1,28 @@
 package com.gri.agriconnect.service;
 
+import com.gri.agriconnect.config.CacheConfig;
+import com.gri.agriconnect.model.BatchResult;
 import com.gri.agriconnect.model.Comment;
 import com.gri.agriconnect.model.Post;
 import com.gri.agriconnect.model.Product;
 import com.gri.agriconnect.repository.CommentRepository;
-import com.gri.agriconnect.repository.PostRepository;
-import com.gri.agriconnect.repository.ProductRepository;
+import com.gri.agriconnect.retention.ArchiveService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -19,41 +31,50 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final PostService postService;
     private final ProductService productService;
+    private final EntityBatchLoader entityBatchLoader;
+    private final TrendingService trendingService;
+    private final ArchiveService archiveService;
+    private final NotificationService notificationService;
+    private final int maxPageSize;
 
     @Autowired
-    public CommentService(CommentRepository commentRepository, PostService postService, ProductService productService) {
+    public CommentService(CommentRepository commentRepository, PostService postService, ProductService productService,
+                          EntityBatchLoader entityBatchLoader, TrendingService trendingService, ArchiveService archiveService,
+                          NotificationService notificationService,
+                          @Value("${agriconnect.comments.max-page-size:100}") int maxPageSize) {
         this.commentRepository = commentRepository;
         this.postService = postService;
         this.productService = productService;
+        this.entityBatchLoader = entityBatchLoader;
+        this.trendingService = trendingService;
+        this.archiveService = archiveService;
+        this.notificationService = notificationService;
+        this.maxPageSize = maxPageSize;
     }
 
     public Comment saveComment(Comment comment) {
-        boolean isValid = false;
-
-        Optional<Post> postOpt = postService.getPostById(comment.getPostId());
-        if (postOpt.isPresent()) {
-            Post post = postOpt.get();
-            Comment savedComment = commentRepository.save(comment);
-            post.getCommentIds().add(savedComment.getCommentId());
-            postService.updatePost(post.getPostId(), post);
-            isValid = true;
-        }
-
-        Optional<Product> productOpt = productService.getProductById(comment.getPostId());
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            Comment savedComment = commentRepository.save(comment);
-            product.getCommentIds().add(savedComment.getCommentId());
-            productService.updateProduct(product.getProductId(), product);
-            isValid = true;
-        }
-
-        if (!isValid) {
+        // Existence checks are served from the entity cache; the parent is then updated
+        // with a single $push instead of being read and rewritten
+        Optional<Post> post = postService.getPostById(comment.getPostId());
+        Optional<Product> product = post.isPresent() ? Optional.empty() : productService.getProductById(comment.getPostId());
+        if (post.isEmpty() && product.isEmpty()) {
             throw new IllegalArgumentException("Post or Product with ID " + comment.getPostId() + " does not exist.");
         }
 
         comment.setUpdatedAt(LocalDateTime.now());
-        return commentRepository.save(comment);
+        Comment savedComment = commentRepository.save(comment);
+        if (post.isPresent()) {
+            postService.addCommentToPost(comment.getPostId(), savedComment.getCommentId());
+            trendingService.record(TrendingService.Kind.POST, comment.getPostId(), post.get().getCategoryTags(),
+                    TrendingService.Engagement.COMMENT);
+            notificationService.commented(post.get().getUserId(), "post", comment.getPostId(), comment.getUserId());
+        } else {
+            productService.addCommentToProduct(comment.getPostId(), savedComment.getCommentId());
+            trendingService.record(TrendingService.Kind.PRODUCT, comment.getPostId(), ProductService.categories(product.get()),
+                    TrendingService.Engagement.COMMENT);
+            notificationService.commented(product.get().getSupplierId(), "product", comment.getPostId(), comment.getUserId());
+        }
+        return savedComment;
     }
 
     public List<Comment> getAllComments() {
@@ -64,46 +85,88 @@ public class CommentService {
         return commentRepository.findByUserId(userId);
     }
 
+    // The newest limit comments of a post or product created before the given time (now when null),
+    // newest first. Past the hot window the page continues from the archive.
+    public List<Comment> getCommentPage(String postId, LocalDateTime before, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        LocalDateTime cursor = before != null ? before : LocalDateTime.now();
+        List<Comment> page = commentRepository.findByPostIdAndCreatedAtBefore(postId, cursor,
+                PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt")));
+        if (page.size() == limit) {
+            return page;
+        }
+        LocalDateTime oldest = page.isEmpty() ? cursor : page.get(page.size() - 1).getCreatedAt();
+        List<Comment> archived = new ArrayList<>(archiveService.page(ArchiveService.Source.COMMENTS, postId, oldest,
+                limit - page.size(), Comment.class, Comment::getCreatedAt, Comment::getCommentId));
+        if (archived.isEmpty()) {
+            return page;
+        }
+        Collections.reverse(archived);
+        List<Comment> combined = new ArrayList<>(page);
+        combined.addAll(archived);
+        return combined;
+    }
+
+    @Cacheable(value = CacheConfig.COMMENTS, key = "#commentId")
     public Optional<Comment> getCommentById(String commentId) {
         return commentRepository.findById(commentId);
     }
 
+    public BatchResult<Comment> getCommentsByIds(List<String> commentIds) {
+        return entityBatchLoader.load(commentIds, CacheConfig.COMMENTS, Comment.class,
+                commentRepository::findAllById, Comment::getCommentId);
+    }
+
+    @CacheEvict(value = CacheConfig.COMMENTS, key = "#commentId")
     public void deleteComment(String commentId) {
         Optional<Comment> commentOpt = commentRepository.findById(commentId);
         if (commentOpt.isPresent()) {
             Comment comment = commentOpt.get();
-
-            Optional<Post> postOpt = postService.getPostById(comment.getPostId());
-            if (postOpt.isPresent()) {
-                Post post = postOpt.get();
-                post.getCommentIds().remove(commentId);
-                postService.updatePost(post.getPostId(), post);
-            }
-
-            Optional<Product> productOpt = productService.getProductById(comment.getPostId());
-            if (productOpt.isPresent()) {
-                Product product = productOpt.get();
-                product.getCommentIds().remove(commentId);
-                productService.updateProduct(product.getProductId(), product);
+            if (!postService.removeCommentFromPost(comment.getPostId(), commentId)) {
+                productService.removeCommentFromProduct(comment.getPostId(), commentId);
             }
-
             commentRepository.deleteById(commentId);
         } else {
             throw new IllegalArgumentException("Comment with ID " + commentId + " does not exist.");
         }
     }
 
-    public Comment updateComment(String commentId, Comment updatedComment) {
-        return commentRepository.findById(commentId).map(comment -> {
-            comment.setContent(updatedComment.getContent());
-            comment.setLikeCount(updatedComment.getLikeCount());
-            comment.setUpdatedAt(LocalDateTime.now());
-            return commentRepository.save(comment);
-        }).orElseGet(() -> {
-            updatedComment.setCommentId(commentId);
-            updatedComment.setCreatedAt(LocalDateTime.now());
-            updatedComment.setUpdatedAt(LocalDateTime.now());
-            return commentRepository.save(updatedComment);
-        });
+    // PUT: replaces every updatable field, creating the comment if it does not exist.
+    // With expectedVersion it only updates that version and returns null when the comment is missing.
+    @CachePut(value = CacheConfig.COMMENTS, key = "#commentId", unless = "#result == null")
+    public Comment updateComment(String commentId, Comment updatedComment, Long expectedVersion) {
+        Map<String, Object> fields = updatableFields(updatedComment);
+        fields.put("updatedAt", LocalDateTime.now());
+        // Author, parent and like count are only taken from the body when the comment is created
+        Map<String, Object> insertOnly = new LinkedHashMap<>();
+        insertOnly.put("userId", updatedComment.getUserId());
+        insertOnly.put("postId", updatedComment.getPostId());
+        insertOnly.put("likeCount", updatedComment.getLikeCount());
+        insertOnly.values().removeIf(Objects::isNull);
+        return commentRepository.upsertFields(commentId, fields, insertOnly, expectedVersion);
+    }
+
+    // PATCH: sets only the fields present in the request
+    @CachePut(value = CacheConfig.COMMENTS, key = "#commentId", unless = "#result == null")
+    public Optional<Comment> patchComment(String commentId, Comment patch, Long expectedVersion) {
+        Map<String, Object> fields = updatableFields(patch);
+        fields.values().removeIf(Objects::isNull);
+        fields.put("updatedAt", LocalDateTime.now());
+        return Optional.ofNullable(commentRepository.updateFields(commentId, fields, expectedVersion, false));
+    }
+
+    // One $inc, so concurrent likes are never lost to a read-modify-write
+    @CachePut(value = CacheConfig.COMMENTS, key = "#commentId", unless = "#result == null")
+    public Optional<Comment> likeComment(String commentId) {
+        return Optional.ofNullable(commentRepository.incrementCount(commentId, "likeCount"));
+    }
+
+    // The like count is left out: it only changes through likeComment's $inc
+    private Map<String, Object> updatableFields(Comment comment) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("content", comment.getContent());
+        return fields;
     }
 }
@@ -7,7 +7,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -49,6 +51,10 @@ public class ConversationService {
         return conversationRepository.findById(conversationId);
     }
 
+    public boolean existsById(String conversationId) {
+        return conversationRepository.existsById(conversationId);
+    }
+
     public void deleteConversation(String conversationId) {
         Optional<Conversation> conversationOpt = conversationRepository.findById(conversationId);
         if (conversationOpt.isPresent()) {
@@ -61,18 +67,34 @@ public class ConversationService {
         }
     }
 
-    public Conversation updateConversation(String conversationId, Conversation updatedConversation) {
-        return conversationRepository.findById(conversationId).map(conversation -> {
-            conversation.setSenderId(updatedConversation.getSenderId());
-            conversation.setReceiverId(updatedConversation.getReceiverId());
-            conversation.setMessageIds(updatedConversation.getMessageIds());
-            conversation.setUpdatedAt(LocalDateTime.now());
-            return conversationRepository.save(conversation);
-        }).orElseGet(() -> {
-            updatedConversation.setConversationId(conversationId);
-            updatedConversation.setCreatedAt(LocalDateTime.now());
-            updatedConversation.setUpdatedAt(LocalDateTime.now());
-            return conversationRepository.save(updatedConversation);
-        });
+    // PUT: replaces the participants; empty when the conversation does not exist. The message list
+    // is left out: it only changes through addMessageToConversation's $push, which a stale body would undo.
+    public Optional<Conversation> updateConversation(String conversationId, Conversation updatedConversation, Long expectedVersion) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("senderId", updatedConversation.getSenderId());
+        fields.put("receiverId", updatedConversation.getReceiverId());
+        fields.put("updatedAt", LocalDateTime.now());
+        return Optional.ofNullable(conversationRepository.updateFields(conversationId, fields, expectedVersion, false));
+    }
+
+    // PATCH: sets only the participants present in the request; the message list is left out as in PUT
+    public Optional<Conversation> patchConversation(String conversationId, Conversation patch, Long expectedVersion) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (patch.getSenderId() != null) {
+            fields.put("senderId", patch.getSenderId());
+        }
+        if (patch.getReceiverId() != null) {
+            fields.put("receiverId", patch.getReceiverId());
+        }
+        fields.put("updatedAt", LocalDateTime.now());
+        return Optional.ofNullable(conversationRepository.updateFields(conversationId, fields, expectedVersion, false));
+    }
+
+    public boolean addMessageToConversation(String conversationId, String messageId) {
+        return conversationRepository.addMessageId(conversationId, messageId);
+    }
+
+    public boolean removeMessageFromConversation(String conversationId, String messageId) {
+        return conversationRepository.removeMessageId(conversationId, messageId);
     }
 }
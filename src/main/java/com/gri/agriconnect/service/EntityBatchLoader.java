@@ -0,0 +1,86 @@
+package com.gri.agriconnect.service;
+
+import com.gri.agriconnect.model.BatchResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Resolves a list of ids from the entity cache first and loads the misses with a single $in query
+@Component
+public class EntityBatchLoader {
+
+    private final CacheManager cacheManager;
+    private final int maxIds;
+
+    @Autowired
+    public EntityBatchLoader(CacheManager cacheManager, @Value("${agriconnect.batch.max-ids:100}") int maxIds) {
+        this.cacheManager = cacheManager;
+        this.maxIds = maxIds;
+    }
+
+    public <T> BatchResult<T> load(List<String> ids, String cacheName, Class<T> type,
+                                   Function<List<String>, Iterable<T>> loader, Function<T, String> idOf) {
+        LinkedHashSet<String> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids can be requested at once, got " + requested.size());
+        }
+
+        Map<String, T> found = loadAll(requested, cacheName, type, loader, idOf);
+        List<T> items = new ArrayList<>(found.size());
+        List<String> missingIds = new ArrayList<>();
+        for (String id : requested) {
+            T entity = found.get(id);
+            if (entity != null) {
+                items.add(entity);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BatchResult<>(items, missingIds);
+    }
+
+    // No size check: callers bound the number of ids themselves
+    public <T> Map<String, T> loadAll(Collection<String> ids, String cacheName, Class<T> type,
+                                      Function<List<String>, Iterable<T>> loader, Function<T, String> idOf) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Map<String, T> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String id : ids) {
+            Cache.ValueWrapper cached = cache != null ? cache.get(id) : null;
+            if (cached == null) {
+                misses.add(id);
+            } else if (cached.get() != null) {
+                found.put(id, type.cast(cached.get()));
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            for (T entity : loader.apply(misses)) {
+                String id = idOf.apply(entity);
+                found.put(id, entity);
+                if (cache != null) {
+                    cache.put(id, entity);
+                }
+            }
+        }
+        return found;
+    }
+
+    // For writes that change many documents at once, where @CacheEvict cannot name the keys
+    public void evict(String cacheName, Collection<String> ids) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && ids != null) {
+            ids.forEach(cache::evict);
+        }
+    }
+}
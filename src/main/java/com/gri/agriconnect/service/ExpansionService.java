@@ -0,0 +1,221 @@
+package com.gri.agriconnect.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gri.agriconnect.config.CacheConfig;
+import com.gri.agriconnect.model.Comment;
+import com.gri.agriconnect.model.Post;
+import com.gri.agriconnect.model.Product;
+import com.gri.agriconnect.model.User;
+import com.gri.agriconnect.model.UserSummary;
+import com.gri.agriconnect.repository.CommentRepository;
+import com.gri.agriconnect.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Resolves expand=author,comments.author style requests. Expansion runs level by level:
+// every id referenced at one level is collected per entity type and loaded with a single
+// batch query (cache first), so a post with 50 comments costs one comment query and one
+// user query instead of 51 round trips.
+@Service
+public class ExpansionService {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+
+    private enum EntityType {
+        USER, POST, PRODUCT, COMMENT
+    }
+
+    private record Relation(EntityType target, Function<Object, List<String>> ids, boolean many) {
+    }
+
+    private record Node(EntityType type, Object entity, Map<String, Object> json, ExpandTree spec) {
+    }
+
+    // Parsed expand parameter: relation name -> nested expansions
+    private static final class ExpandTree {
+        private final Map<String, ExpandTree> children = new LinkedHashMap<>();
+    }
+
+    private static final Map<EntityType, Map<String, Relation>> RELATIONS = Map.of(
+            EntityType.POST, Map.of(
+                    "author", new Relation(EntityType.USER, post -> single(((Post) post).getUserId()), false),
+                    "comments", new Relation(EntityType.COMMENT, post -> nonNull(((Post) post).getCommentIds()), true)),
+            EntityType.PRODUCT, Map.of(
+                    "supplier", new Relation(EntityType.USER, product -> single(((Product) product).getSupplierId()), false),
+                    "comments", new Relation(EntityType.COMMENT, product -> nonNull(((Product) product).getCommentIds()), true)),
+            EntityType.COMMENT, Map.of(
+                    "author", new Relation(EntityType.USER, comment -> single(((Comment) comment).getUserId()), false)),
+            EntityType.USER, Map.of());
+
+    private final UserRepository userRepository;
+    private final CommentRepository commentRepository;
+    private final EntityBatchLoader entityBatchLoader;
+    private final ObjectMapper objectMapper;
+    private final int maxDepth;
+    private final int maxFanOut;
+    private final int maxPerLevel;
+
+    @Autowired
+    public ExpansionService(UserRepository userRepository, CommentRepository commentRepository,
+                            EntityBatchLoader entityBatchLoader, ObjectMapper objectMapper,
+                            @Value("${agriconnect.expand.max-depth:3}") int maxDepth,
+                            @Value("${agriconnect.expand.max-fan-out:50}") int maxFanOut,
+                            @Value("${agriconnect.expand.max-per-level:500}") int maxPerLevel) {
+        this.userRepository = userRepository;
+        this.commentRepository = commentRepository;
+        this.entityBatchLoader = entityBatchLoader;
+        this.objectMapper = objectMapper;
+        this.maxDepth = maxDepth;
+        this.maxFanOut = maxFanOut;
+        this.maxPerLevel = maxPerLevel;
+    }
+
+    public Map<String, Object> expandPost(Post post, String expand) {
+        return expand(EntityType.POST, List.of(post), expand).get(0);
+    }
+
+    public List<Map<String, Object>> expandPosts(List<Post> posts, String expand) {
+        return expand(EntityType.POST, posts, expand);
+    }
+
+    public Map<String, Object> expandProduct(Product product, String expand) {
+        return expand(EntityType.PRODUCT, List.of(product), expand).get(0);
+    }
+
+    public List<Map<String, Object>> expandProducts(List<Product> products, String expand) {
+        return expand(EntityType.PRODUCT, products, expand);
+    }
+
+    public Map<String, Object> expandComment(Comment comment, String expand) {
+        return expand(EntityType.COMMENT, List.of(comment), expand).get(0);
+    }
+
+    private List<Map<String, Object>> expand(EntityType rootType, List<?> roots, String expand) {
+        ExpandTree spec = parse(rootType, expand);
+        List<Map<String, Object>> result = new ArrayList<>(roots.size());
+        List<Node> level = new ArrayList<>(roots.size());
+        for (Object root : roots) {
+            Map<String, Object> json = toJson(root);
+            result.add(json);
+            level.add(new Node(rootType, root, json, spec));
+        }
+
+        while (!level.isEmpty()) {
+            // Collect every id referenced at this level, per target type
+            Map<EntityType, Set<String>> idsByType = new HashMap<>();
+            for (Node node : level) {
+                node.spec().children.forEach((name, child) -> {
+                    Relation relation = RELATIONS.get(node.type()).get(name);
+                    idsByType.computeIfAbsent(relation.target(), type -> new LinkedHashSet<>())
+                            .addAll(limit(relation.ids().apply(node.entity())));
+                });
+            }
+            int levelSize = idsByType.values().stream().mapToInt(Set::size).sum();
+            if (levelSize > maxPerLevel) {
+                throw new IllegalArgumentException("Expansion would load " + levelSize
+                        + " entities at one level, the limit is " + maxPerLevel);
+            }
+
+            // One batch query per entity type
+            Map<EntityType, Map<String, ?>> loaded = new HashMap<>();
+            idsByType.forEach((type, ids) -> loaded.put(type, load(type, ids)));
+
+            List<Node> next = new ArrayList<>();
+            Map<Object, Map<String, Object>> converted = new IdentityHashMap<>();
+            for (Node node : level) {
+                node.spec().children.forEach((name, child) -> {
+                    Relation relation = RELATIONS.get(node.type()).get(name);
+                    Map<String, ?> entities = loaded.get(relation.target());
+                    List<Map<String, Object>> expanded = new ArrayList<>();
+                    for (String id : limit(relation.ids().apply(node.entity()))) {
+                        Object entity = entities.get(id);
+                        if (entity != null) {
+                            // Same entity can appear under several parents; convert it once
+                            Map<String, Object> json = new LinkedHashMap<>(
+                                    converted.computeIfAbsent(entity, this::toJson));
+                            expanded.add(json);
+                            if (!child.children.isEmpty()) {
+                                next.add(new Node(relation.target(), entity, json, child));
+                            }
+                        }
+                    }
+                    if (relation.many()) {
+                        node.json().put(name, expanded);
+                    } else {
+                        node.json().put(name, expanded.isEmpty() ? null : expanded.get(0));
+                    }
+                });
+            }
+            level = next;
+        }
+        return result;
+    }
+
+    private Map<String, ?> load(EntityType type, Set<String> ids) {
+        return switch (type) {
+            case USER -> entityBatchLoader.loadAll(ids, CacheConfig.USERS, User.class,
+                    userRepository::findAllById, User::getUserId);
+            case COMMENT -> entityBatchLoader.loadAll(ids, CacheConfig.COMMENTS, Comment.class,
+                    commentRepository::findAllById, Comment::getCommentId);
+            default -> throw new IllegalStateException("No loader for " + type);
+        };
+    }
+
+    private ExpandTree parse(EntityType rootType, String expand) {
+        ExpandTree root = new ExpandTree();
+        if (expand == null || expand.isBlank()) {
+            return root;
+        }
+        for (String path : expand.split(",")) {
+            String[] segments = path.trim().split("\\.");
+            if (segments.length > maxDepth) {
+                throw new IllegalArgumentException("Expansion '" + path.trim() + "' is deeper than " + maxDepth + " levels");
+            }
+            ExpandTree current = root;
+            EntityType type = rootType;
+            for (String segment : segments) {
+                Relation relation = RELATIONS.get(type).get(segment);
+                if (relation == null) {
+                    throw new IllegalArgumentException("Unknown expansion '" + segment + "' on " + type.name().toLowerCase());
+                }
+                current = current.children.computeIfAbsent(segment, name -> new ExpandTree());
+                type = relation.target();
+            }
+        }
+        return root;
+    }
+
+    private List<String> limit(List<String> ids) {
+        return ids.size() > maxFanOut ? ids.subList(0, maxFanOut) : ids;
+    }
+
+    // Users are only ever embedded as their public summary
+    private Map<String, Object> toJson(Object entity) {
+        if (entity instanceof User user) {
+            return objectMapper.convertValue(UserSummary.of(user), JSON_OBJECT);
+        }
+        return objectMapper.convertValue(entity, JSON_OBJECT);
+    }
+
+    private static List<String> single(String id) {
+        return id != null ? List.of(id) : List.of();
+    }
+
+    private static List<String> nonNull(List<String> ids) {
+        return ids != null ? ids : Collections.emptyList();
+    }
+}
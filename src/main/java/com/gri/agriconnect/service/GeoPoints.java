@@ -0,0 +1,20 @@
+package com.gri.agriconnect.service;
+
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+// GeoJSON stores longitude first; this keeps the lat/lng order of the request parameters in one place
+final class GeoPoints {
+
+    private GeoPoints() {
+    }
+
+    static GeoJsonPoint of(double lat, double lng) {
+        if (lat < -90 || lat > 90) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90, got " + lat);
+        }
+        if (lng < -180 || lng > 180) {
+            throw new IllegalArgumentException("Longitude must be between -180 and 180, got " + lng);
+        }
+        return new GeoJsonPoint(lng, lat);
+    }
+}
@@ -0,0 +1,8 @@
+package com.gri.agriconnect.service;
+
+import com.gri.agriconnect.model.Message;
+
+// Published when a new message is saved. remote is set when it was sent on another node and
+// arrived through the ClusterBus.
+public record MessagePostedEvent(Message message, boolean remote) {
+}
@@ -1,71 +1,106 @@
 package com.gri.agriconnect.service;
 
-import com.gri.agriconnect.model.Conversation;
 import com.gri.agriconnect.model.Message;
-import com.gri.agriconnect.repository.MessageRepository;
+import com.gri.agriconnect.repository.MessageStore;
+import com.gri.agriconnect.retention.ArchiveService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class MessageService {
 
-    private final MessageRepository messageRepository;
+    private final MessageStore messageStore;
     private final ConversationService conversationService;
+    private final ArchiveService archiveService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxPageSize;
 
     @Autowired
-    public MessageService(MessageRepository messageRepository, ConversationService conversationService) {
-        this.messageRepository = messageRepository;
+    public MessageService(MessageStore messageStore, ConversationService conversationService, ArchiveService archiveService,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${agriconnect.messages.max-page-size:200}") int maxPageSize) {
+        this.messageStore = messageStore;
         this.conversationService = conversationService;
+        this.archiveService = archiveService;
+        this.eventPublisher = eventPublisher;
+        this.maxPageSize = maxPageSize;
     }
 
     public Message saveMessage(Message message) {
-        Optional<Conversation> conversationOpt = conversationService.getConversationById(message.getConversationId());
-        if (conversationOpt.isPresent()) {
-            Conversation conversation = conversationOpt.get();
-            Message savedMessage = messageRepository.save(message);
-            conversation.getMessageIds().add(savedMessage.getMessageId());
-            conversationService.updateConversation(conversation.getConversationId(), conversation);
-            return savedMessage;
-        } else {
+        if (!conversationService.existsById(message.getConversationId())) {
             throw new IllegalArgumentException("Conversation with ID " + message.getConversationId() + " does not exist.");
         }
+        boolean isNew = message.getMessageId() == null;
+        Message savedMessage = messageStore.save(message);
+        // Saving an existing message (edits, read receipts) must not list it in the conversation twice
+        if (isNew) {
+            conversationService.addMessageToConversation(message.getConversationId(), savedMessage.getMessageId());
+            // Pushed to this node's WebSocket subscribers and, through the cluster bus, to the other nodes'
+            eventPublisher.publishEvent(new MessagePostedEvent(savedMessage, false));
+        }
+        return savedMessage;
     }
 
     public List<Message> getMessagesByConversationId(String conversationId) {
-        return messageRepository.findByConversationId(conversationId);
+        return messageStore.findByConversationId(conversationId);
+    }
+
+    // The newest limit messages before the given time (now when null), oldest first
+    public List<Message> getMessagePage(String conversationId, LocalDateTime before, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        LocalDateTime cursor = before != null ? before : LocalDateTime.now();
+        List<Message> page = messageStore.findPage(conversationId, cursor, limit);
+        if (page.size() == limit) {
+            return page;
+        }
+        // The hot collection ran out, so the page continues past the hot window into the archive
+        LocalDateTime oldest = page.isEmpty() ? cursor : page.get(0).getTimestamp();
+        List<Message> archived = archiveService.page(ArchiveService.Source.MESSAGES, conversationId, oldest,
+                limit - page.size(), Message.class, Message::getTimestamp, Message::getMessageId);
+        if (archived.isEmpty()) {
+            return page;
+        }
+        List<Message> combined = new ArrayList<>(archived);
+        combined.addAll(page);
+        return combined;
+    }
+
+    public List<Message> getUnreadMessagesByConversationId(String conversationId) {
+        return messageStore.findUnreadByConversationId(conversationId);
     }
 
     public Message getMessageById(String messageId) {
-        return messageRepository.findById(messageId).orElse(null);
+        return messageStore.findById(messageId).orElse(null);
     }
 
     public void deleteMessage(String messageId) {
-        Optional<Message> messageOpt = messageRepository.findById(messageId);
+        Optional<Message> messageOpt = messageStore.findById(messageId);
         if (messageOpt.isPresent()) {
             Message message = messageOpt.get();
-            Optional<Conversation> conversationOpt = conversationService.getConversationById(message.getConversationId());
-            if (conversationOpt.isPresent()) {
-                Conversation conversation = conversationOpt.get();
-                conversation.getMessageIds().remove(messageId);
-                conversationService.updateConversation(conversation.getConversationId(), conversation);
-            }
-            messageRepository.deleteById(messageId);
+            conversationService.removeMessageFromConversation(message.getConversationId(), messageId);
+            messageStore.deleteById(messageId);
         } else {
             throw new IllegalArgumentException("Message with ID " + messageId + " does not exist.");
         }
     }
 
     public Message updateMessage(String messageId, Message updatedMessage) {
-        return messageRepository.findById(messageId).map(message -> {
+        return messageStore.findById(messageId).map(message -> {
             message.setContent(updatedMessage.getContent());
             message.setRead(updatedMessage.isRead());
-            return messageRepository.save(message);
+            return messageStore.save(message);
         }).orElseGet(() -> {
             updatedMessage.setMessageId(messageId);
-            return messageRepository.save(updatedMessage);
+            return messageStore.save(updatedMessage);
         });
     }
 }
@@ -0,0 +1,229 @@
+package com.gri.agriconnect.service;
+
+import com.gri.agriconnect.model.Conversation;
+import com.gri.agriconnect.model.Notification;
+import com.gri.agriconnect.repository.ConversationRepository;
+import com.gri.agriconnect.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Notifications are buffered per recipient, type and target and written every flush interval in
+// one bulk write, where they also collapse onto the recipient's unread notification for the same
+// target. A burst of comments on one post costs one write, not one per comment.
+@Service
+public class NotificationService {
+
+    private record Key(String recipientId, Notification.Type type, String targetId) {
+    }
+
+    // Messages are buffered by conversation and sender until the flush looks up their recipients
+    private record MessageKey(String conversationId, String senderId) {
+    }
+
+    private static final class Pending {
+        private String targetType;
+        private int count;
+        private final LinkedHashSet<String> actorIds = new LinkedHashSet<>();
+        private LocalDateTime firstAt;
+        private LocalDateTime latestAt;
+
+        private Pending add(String actorId, LocalDateTime at, int events) {
+            count += events;
+            // Re-added so the set keeps the latest actors last
+            actorIds.remove(actorId);
+            actorIds.add(actorId);
+            if (actorIds.size() > Notification.MAX_ACTORS) {
+                actorIds.remove(actorIds.iterator().next());
+            }
+            firstAt = firstAt == null || at.isBefore(firstAt) ? at : firstAt;
+            latestAt = latestAt == null || at.isAfter(latestAt) ? at : latestAt;
+            return this;
+        }
+
+        private Pending merge(Pending other) {
+            targetType = other.targetType;
+            count += other.count;
+            other.actorIds.forEach(actorId -> {
+                actorIds.remove(actorId);
+                actorIds.add(actorId);
+            });
+            while (actorIds.size() > Notification.MAX_ACTORS) {
+                actorIds.remove(actorIds.iterator().next());
+            }
+            firstAt = firstAt == null || other.firstAt.isBefore(firstAt) ? other.firstAt : firstAt;
+            latestAt = latestAt == null || other.latestAt.isAfter(latestAt) ? other.latestAt : latestAt;
+            return this;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
+    private final NotificationRepository notificationRepository;
+    private final ConversationRepository conversationRepository;
+    private final int maxBuffered;
+    private final int maxPageSize;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<MessageKey, Pending> pendingMessages = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NotificationService(NotificationRepository notificationRepository, ConversationRepository conversationRepository,
+                               @Value("${agriconnect.notifications.max-buffered:10000}") int maxBuffered,
+                               @Value("${agriconnect.notifications.max-page-size:100}") int maxPageSize) {
+        this.notificationRepository = notificationRepository;
+        this.conversationRepository = conversationRepository;
+        this.maxBuffered = maxBuffered;
+        this.maxPageSize = maxPageSize;
+    }
+
+    // postId may name a post or a product, as on comments
+    public void commented(String ownerId, String targetType, String postId, String commenterId) {
+        if (ownerId != null && !ownerId.equals(commenterId)) {
+            buffer(new Key(ownerId, Notification.Type.COMMENT, postId), targetType, commenterId);
+        }
+    }
+
+    public void followed(String userId, String followerId) {
+        if (!userId.equals(followerId)) {
+            buffer(new Key(userId, Notification.Type.FOLLOW, userId), "user", followerId);
+        }
+    }
+
+    @EventListener
+    public void onMessagePosted(MessagePostedEvent event) {
+        if (event.remote()) {
+            return;
+        }
+        MessageKey key = new MessageKey(event.message().getConversationId(), event.message().getSenderId());
+        LocalDateTime at = event.message().getTimestamp() != null ? event.message().getTimestamp() : LocalDateTime.now();
+        pendingMessages.compute(key, (k, buffered) -> (buffered != null ? buffered : new Pending()).add(k.senderId(), at, 1));
+        flushIfFull();
+    }
+
+    // Newest first, latestAt before the given time (now when null)
+    public List<Notification> getNotifications(String userId, LocalDateTime before, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        return notificationRepository.findPage(userId, before != null ? before : LocalDateTime.now(), limit);
+    }
+
+    public long getUnreadCount(String userId) {
+        return notificationRepository.countUnread(userId);
+    }
+
+    public boolean markRead(String userId, String notificationId) {
+        return notificationRepository.markRead(userId, notificationId, LocalDateTime.now()) > 0;
+    }
+
+    public long markAllRead(String userId) {
+        return notificationRepository.markAllRead(userId, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${agriconnect.notifications.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<Key, Pending> batch = new HashMap<>();
+        drainMessages(batch);
+        for (Key key : List.copyOf(pending.keySet())) {
+            Pending buffered = pending.remove(key);
+            if (buffered != null) {
+                batch.merge(key, buffered, Pending::merge);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Notification> notifications = new ArrayList<>(batch.size());
+        batch.forEach((key, buffered) -> notifications.add(notification(key, buffered)));
+        try {
+            int events = notificationRepository.addUnread(notifications);
+            logger.debug("Wrote {} notification events as {} notifications", events, notifications.size());
+        } catch (RuntimeException e) {
+            batch.forEach((key, buffered) -> pending.merge(key, buffered, Pending::merge));
+            logger.warn("Could not write {} notifications: {}", notifications.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // The recipient of a message is the conversation's other participant; one query per flush
+    private void drainMessages(Map<Key, Pending> batch) {
+        Map<MessageKey, Pending> messages = new HashMap<>();
+        for (MessageKey key : List.copyOf(pendingMessages.keySet())) {
+            Pending buffered = pendingMessages.remove(key);
+            if (buffered != null) {
+                messages.put(key, buffered);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        Map<String, Conversation> conversations = new HashMap<>();
+        try {
+            conversationRepository.findAllById(messages.keySet().stream().map(MessageKey::conversationId).distinct().toList())
+                    .forEach(conversation -> conversations.put(conversation.getConversationId(), conversation));
+        } catch (RuntimeException e) {
+            messages.forEach((key, buffered) -> pendingMessages.merge(key, buffered, Pending::merge));
+            logger.warn("Could not look up conversations of {} message notifications: {}", messages.size(), e.getMessage());
+            return;
+        }
+        messages.forEach((key, buffered) -> {
+            Conversation conversation = conversations.get(key.conversationId());
+            if (conversation == null) {
+                return;
+            }
+            String recipientId = key.senderId().equals(conversation.getSenderId()) ? conversation.getReceiverId() : conversation.getSenderId();
+            if (recipientId != null && !recipientId.equals(key.senderId())) {
+                buffered.targetType = "conversation";
+                batch.merge(new Key(recipientId, Notification.Type.MESSAGE, key.conversationId()), buffered, Pending::merge);
+            }
+        });
+    }
+
+    private void buffer(Key key, String targetType, String actorId) {
+        LocalDateTime now = LocalDateTime.now();
+        pending.compute(key, (k, buffered) -> {
+            Pending updated = (buffered != null ? buffered : new Pending()).add(actorId, now, 1);
+            updated.targetType = targetType;
+            return updated;
+        });
+        flushIfFull();
+    }
+
+    // A burst bigger than the buffer is written right away by the thread that overflowed it
+    private void flushIfFull() {
+        if (pending.size() + pendingMessages.size() > maxBuffered) {
+            flush();
+        }
+    }
+
+    private static Notification notification(Key key, Pending buffered) {
+        Notification notification = new Notification();
+        notification.setRecipientId(key.recipientId());
+        notification.setType(key.type());
+        notification.setTargetId(key.targetId());
+        notification.setTargetType(buffered.targetType);
+        notification.setCount(buffered.count);
+        notification.setActorIds(new ArrayList<>(buffered.actorIds));
+        notification.setCreatedAt(buffered.firstAt);
+        notification.setLatestAt(buffered.latestAt);
+        return notification;
+    }
+}
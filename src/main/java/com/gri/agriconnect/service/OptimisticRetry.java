@@ -0,0 +1,71 @@
+package com.gri.agriconnect.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+// Bounded retry for versioned read-modify-write. Each attempt re-reads the document;
+// the merge helpers re-apply the caller's change to counters and id lists on top of
+// whatever a concurrent writer committed, instead of overwriting it.
+@Component
+public class OptimisticRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final int maxAttempts;
+
+    public OptimisticRetry(@Value("${agriconnect.concurrency.max-attempts:3}") int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    // Runs the write with the attempt number (0 for the first), retrying on version conflicts
+    public <T> T run(IntFunction<T> write) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return write.apply(attempt);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt + 1 >= maxAttempts) {
+                    throw e;
+                }
+                logger.debug("Version conflict, retrying (attempt {}): {}", attempt + 1, e.getMessage());
+            }
+        }
+    }
+
+    // Applies the ids the caller added to and removed from its base copy onto the current list
+    public static List<String> mergeList(List<String> base, List<String> desired, List<String> current) {
+        if (desired == null) {
+            return null;
+        }
+        Set<String> before = base == null ? Set.of() : new LinkedHashSet<>(base);
+        Set<String> after = new LinkedHashSet<>(desired);
+        Set<String> merged = current == null ? new LinkedHashSet<>() : new LinkedHashSet<>(current);
+        merged.removeIf(id -> before.contains(id) && !after.contains(id));
+        for (String id : after) {
+            if (!before.contains(id)) {
+                merged.add(id);
+            }
+        }
+        return new ArrayList<>(merged);
+    }
+
+    // Applies the caller's delta against its base copy onto the current counter
+    public static Integer mergeCounter(Integer base, Integer desired, Integer current) {
+        if (desired == null) {
+            return null;
+        }
+        return valueOf(current) + desired - valueOf(base);
+    }
+
+    private static int valueOf(Integer counter) {
+        return counter == null ? 0 : counter;
+    }
+}
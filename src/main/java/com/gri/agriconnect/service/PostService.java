@@ -1,13 +1,22 @@
 package com.gri.agriconnect.service;
 
+import com.gri.agriconnect.config.CacheConfig;
+import com.gri.agriconnect.model.BatchResult;
 import com.gri.agriconnect.model.Post;
+import com.gri.agriconnect.model.TrendingItem;
 import com.gri.agriconnect.model.User;
 import com.gri.agriconnect.repository.PostRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -15,11 +24,18 @@ public class PostService {
 
     private final PostRepository postRepository;
     private final UserService userService;
+    private final EntityBatchLoader entityBatchLoader;
+    private final TrendingService trendingService;
+    private final SingleFlight singleFlight;
 
     @Autowired
-    public PostService(PostRepository postRepository, UserService userService) {
+    public PostService(PostRepository postRepository, UserService userService, EntityBatchLoader entityBatchLoader,
+                       TrendingService trendingService, SingleFlight singleFlight) {
         this.postRepository = postRepository;
         this.userService = userService;
+        this.entityBatchLoader = entityBatchLoader;
+        this.trendingService = trendingService;
+        this.singleFlight = singleFlight;
     }
 
     public Post savePost(Post post) {
@@ -38,40 +54,105 @@ public class PostService {
     }
 
     public List<Post> getPostsByUserId(String userId) {
-        return postRepository.findByUserId(userId);
+        return singleFlight.run("postsByUser", userId, () -> postRepository.findByUserId(userId));
     }
 
+    @Cacheable(value = CacheConfig.POSTS, key = "#postId")
     public Optional<Post> getPostById(String postId) {
-        return postRepository.findById(postId);
+        return singleFlight.run("post", postId, () -> postRepository.findById(postId));
     }
 
+    public BatchResult<Post> getPostsByIds(List<String> postIds) {
+        return entityBatchLoader.load(postIds, CacheConfig.POSTS, Post.class,
+                postRepository::findAllById, Post::getPostId);
+    }
+
+    @CacheEvict(value = CacheConfig.POSTS, key = "#postId")
     public void deletePost(String postId) {
         Optional<Post> postOpt = postRepository.findById(postId);
         if (postOpt.isPresent()) {
             Post post = postOpt.get();
             userService.removePostFromUser(post.getUserId(), postId);
             postRepository.deleteById(postId);
+            trendingService.remove(TrendingService.Kind.POST, postId);
         } else {
             throw new IllegalArgumentException("Post with ID " + postId + " does not exist.");
         }
     }
 
-    public Post updatePost(String postId, Post updatedPost) {
-        return postRepository.findById(postId).map(post -> {
-            post.setTitle(updatedPost.getTitle());
-            post.setContent(updatedPost.getContent());
-            post.setFavoriteCount(updatedPost.getFavoriteCount());
-            post.setLikeCount(updatedPost.getLikeCount());
-            post.setCommentCount(updatedPost.getCommentCount());
-            post.setCategoryTags(updatedPost.getCategoryTags());
-            post.setImageLinks(updatedPost.getImageLinks());
-            post.setUpdatedAt(LocalDateTime.now());
-            return postRepository.save(post);
-        }).orElseGet(() -> {
-            updatedPost.setPostId(postId);
-            updatedPost.setCreatedAt(LocalDateTime.now());
-            updatedPost.setUpdatedAt(LocalDateTime.now());
-            return postRepository.save(updatedPost);
-        });
+    // PUT: replaces every updatable field, creating the post if it does not exist.
+    // With expectedVersion it only updates that version and returns null when the post is missing.
+    @CachePut(value = CacheConfig.POSTS, key = "#postId", unless = "#result == null")
+    public Post updatePost(String postId, Post updatedPost, Long expectedVersion) {
+        Map<String, Object> fields = updatableFields(updatedPost);
+        fields.put("updatedAt", LocalDateTime.now());
+        // The author, counters and comment ids are only taken from the body when the post is created
+        Map<String, Object> insertOnly = new LinkedHashMap<>();
+        insertOnly.put("userId", updatedPost.getUserId());
+        insertOnly.put("favoriteCount", updatedPost.getFavoriteCount());
+        insertOnly.put("likeCount", updatedPost.getLikeCount());
+        insertOnly.put("commentCount", updatedPost.getCommentCount());
+        insertOnly.put("commentIds", updatedPost.getCommentIds());
+        insertOnly.values().removeIf(Objects::isNull);
+        return postRepository.upsertFields(postId, fields, insertOnly, expectedVersion);
+    }
+
+    // PATCH: sets only the fields present in the request
+    @CachePut(value = CacheConfig.POSTS, key = "#postId", unless = "#result == null")
+    public Optional<Post> patchPost(String postId, Post patch, Long expectedVersion) {
+        Map<String, Object> fields = updatableFields(patch);
+        fields.values().removeIf(Objects::isNull);
+        fields.put("updatedAt", LocalDateTime.now());
+        return Optional.ofNullable(postRepository.updateFields(postId, fields, expectedVersion, false));
+    }
+
+    // Likes and favorites are counters: one $inc each, which also feeds the trending scores
+    @CachePut(value = CacheConfig.POSTS, key = "#postId", unless = "#result == null")
+    public Optional<Post> likePost(String postId) {
+        return engage(postId, "likeCount", TrendingService.Engagement.LIKE);
+    }
+
+    @CachePut(value = CacheConfig.POSTS, key = "#postId", unless = "#result == null")
+    public Optional<Post> favoritePost(String postId) {
+        return engage(postId, "favoriteCount", TrendingService.Engagement.FAVORITE);
+    }
+
+    // Ranked from memory; the posts themselves come from the entity cache or one $in query
+    public List<TrendingItem<Post>> getTrendingPosts(String category, int limit) {
+        List<TrendingService.Ranked> ranked = trendingService.top(TrendingService.Kind.POST, category, limit);
+        Map<String, Post> posts = entityBatchLoader.loadAll(ranked.stream().map(TrendingService.Ranked::id).toList(),
+                CacheConfig.POSTS, Post.class, postRepository::findAllById, Post::getPostId);
+        return ranked.stream()
+                .filter(entry -> posts.containsKey(entry.id()))
+                .map(entry -> new TrendingItem<>(posts.get(entry.id()), entry.score()))
+                .toList();
+    }
+
+    private Optional<Post> engage(String postId, String countField, TrendingService.Engagement engagement) {
+        Post post = postRepository.incrementCount(postId, countField);
+        if (post != null) {
+            trendingService.record(TrendingService.Kind.POST, postId, post.getCategoryTags(), engagement);
+        }
+        return Optional.ofNullable(post);
+    }
+
+    @CacheEvict(value = CacheConfig.POSTS, key = "#postId")
+    public boolean addCommentToPost(String postId, String commentId) {
+        return postRepository.addCommentId(postId, commentId);
+    }
+
+    @CacheEvict(value = CacheConfig.POSTS, key = "#postId")
+    public boolean removeCommentFromPost(String postId, String commentId) {
+        return postRepository.removeCommentId(postId, commentId);
+    }
+
+    // Counters and comment ids are left out: they only change through the $inc/$push/$pull helpers
+    private Map<String, Object> updatableFields(Post post) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("title", post.getTitle());
+        fields.put("content", post.getContent());
+        fields.put("categoryTags", post.getCategoryTags());
+        fields.put("imageLinks", post.getImageLinks());
+        return fields;
     }
 }
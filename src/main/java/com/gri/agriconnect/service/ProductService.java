@@ -1,13 +1,32 @@
 package com.gri.agriconnect.service;
 
+import com.gri.agriconnect.config.CacheConfig;
+import com.gri.agriconnect.model.BatchResult;
+import com.gri.agriconnect.model.NearbyProduct;
+import com.gri.agriconnect.model.ProductFacets;
+import com.gri.agriconnect.model.ProductFilter;
 import com.gri.agriconnect.model.Product;
+import com.gri.agriconnect.model.SimilarProducts;
+import com.gri.agriconnect.model.TrendingItem;
 import com.gri.agriconnect.model.User;
 import com.gri.agriconnect.repository.ProductRepository;
+import com.gri.agriconnect.repository.SimilarProductsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -15,16 +34,34 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final UserService userService;
+    private final EntityBatchLoader entityBatchLoader;
+    private final TrendingService trendingService;
+    private final SimilarProductsRepository similarProductsRepository;
+    private final SingleFlight singleFlight;
+    private final double maxRadiusKm;
+    private final int maxPageSize;
 
     @Autowired
-    public ProductService(ProductRepository productRepository, UserService userService) {
+    public ProductService(ProductRepository productRepository, UserService userService, EntityBatchLoader entityBatchLoader,
+                          TrendingService trendingService, SimilarProductsRepository similarProductsRepository,
+                          SingleFlight singleFlight,
+                          @Value("${agriconnect.geo.max-radius-km:200}") double maxRadiusKm,
+                          @Value("${agriconnect.geo.max-page-size:100}") int maxPageSize) {
         this.productRepository = productRepository;
         this.userService = userService;
+        this.entityBatchLoader = entityBatchLoader;
+        this.trendingService = trendingService;
+        this.similarProductsRepository = similarProductsRepository;
+        this.singleFlight = singleFlight;
+        this.maxRadiusKm = maxRadiusKm;
+        this.maxPageSize = maxPageSize;
     }
 
+    @CacheEvict(value = CacheConfig.PRODUCT_FACETS, allEntries = true)
     public Product saveProduct(Product product) {
         Optional<User> userOpt = userService.getUserById(product.getSupplierId());
         if (userOpt.isPresent()) {
+            product.setPosition(userOpt.get().getPosition());
             Product savedProduct = productRepository.save(product);
             userService.addProductToUser(product.getSupplierId(), savedProduct.getProductId());
             return savedProduct;
@@ -37,50 +74,184 @@ public class ProductService {
         return productRepository.findAll();
     }
 
+    // Concurrent requests for the same category or supplier share one query and one list
     public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+        return singleFlight.run("productsByCategory", category, () -> productRepository.findByCategory(category));
     }
 
     public List<Product> getProductsBySupplierId(String supplierId) {
-        return productRepository.findBySupplierId(supplierId);
+        return singleFlight.run("productsBySupplier", supplierId, () -> productRepository.findBySupplierId(supplierId));
     }
 
+    public List<Product> browseProducts(ProductFilter filter, String sort, int page, int size) {
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("page must be 0 or more and size between 1 and " + maxPageSize);
+        }
+        return productRepository.browse(filter, browseSort(sort), page, size);
+    }
+
+    // Counting runs over every matching product, so the result is cached until the next product write
+    @Cacheable(value = CacheConfig.PRODUCT_FACETS, key = "#filter")
+    public ProductFacets getProductFacets(ProductFilter filter) {
+        return singleFlight.run("productFacets", filter, () -> productRepository.facets(filter));
+    }
+
+    private Sort browseSort(String sort) {
+        return switch (sort == null ? "newest" : sort) {
+            case "newest" -> Sort.by(Sort.Direction.DESC, "createdAt");
+            case "price_asc" -> Sort.by(Sort.Direction.ASC, "price");
+            case "price_desc" -> Sort.by(Sort.Direction.DESC, "price");
+            case "popular" -> Sort.by(Sort.Direction.DESC, "likeCount");
+            default -> throw new IllegalArgumentException("Unknown sort " + sort + ", expected newest, price_asc, price_desc or popular");
+        };
+    }
+
+    // Nearest first; page and size page through the results within the radius
+    public List<NearbyProduct> getNearbyProducts(double lat, double lng, double radiusKm, String category, int page, int size) {
+        if (radiusKm <= 0 || radiusKm > maxRadiusKm) {
+            throw new IllegalArgumentException("radiusKm must be greater than 0 and at most " + maxRadiusKm);
+        }
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("page must be 0 or more and size between 1 and " + maxPageSize);
+        }
+        return productRepository.findNearby(GeoPoints.of(lat, lng), radiusKm, category, page, size).getContent().stream()
+                .map(result -> new NearbyProduct(result.getContent(), result.getDistance().in(Metrics.KILOMETERS).getValue()))
+                .toList();
+    }
+
+    // Misses on a hot product, e.g. right after a stock change evicted it, load it once
+    @Cacheable(value = CacheConfig.PRODUCTS, key = "#productId")
     public Optional<Product> getProductById(String productId) {
-        return productRepository.findById(productId);
+        return singleFlight.run("product", productId, () -> productRepository.findById(productId));
+    }
+
+    public BatchResult<Product> getProductsByIds(List<String> productIds) {
+        return entityBatchLoader.load(productIds, CacheConfig.PRODUCTS, Product.class,
+                productRepository::findAllById, Product::getProductId);
     }
 
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.PRODUCTS, key = "#productId"),
+            @CacheEvict(value = CacheConfig.PRODUCT_FACETS, allEntries = true)
+    })
     public void deleteProduct(String productId) {
         Optional<Product> productOpt = productRepository.findById(productId);
         if (productOpt.isPresent()) {
             Product product = productOpt.get();
             userService.removeProductFromUser(product.getSupplierId(), productId);
             productRepository.deleteById(productId);
+            trendingService.remove(TrendingService.Kind.PRODUCT, productId);
         } else {
             throw new IllegalArgumentException("Product with ID " + productId + " does not exist.");
         }
     }
 
-    public Product updateProduct(String productId, Product updatedProduct) {
-        return productRepository.findById(productId).map(product -> {
-            product.setName(updatedProduct.getName());
-            product.setCategory(updatedProduct.getCategory());
-            product.setDescription(updatedProduct.getDescription());
-            product.setPrice(updatedProduct.getPrice());
-            product.setSupplierId(updatedProduct.getSupplierId());
-            product.setStockQuantity(updatedProduct.getStockQuantity());
-            product.setFavoriteCount(updatedProduct.getFavoriteCount());
-            product.setLikeCount(updatedProduct.getLikeCount());
-            product.setCommentCount(updatedProduct.getCommentCount());
-            product.setCommentIds(updatedProduct.getCommentIds());
-            product.setCategoryTags(updatedProduct.getCategoryTags());
-            product.setImageLinks(updatedProduct.getImageLinks());
-            product.setUpdatedAt(LocalDateTime.now());
-            return productRepository.save(product);
-        }).orElseGet(() -> {
-            updatedProduct.setProductId(productId);
-            updatedProduct.setCreatedAt(LocalDateTime.now());
-            updatedProduct.setUpdatedAt(LocalDateTime.now());
-            return productRepository.save(updatedProduct);
-        });
+    // PUT: replaces every updatable field, creating the product if it does not exist.
+    // With expectedVersion it only updates that version and returns null when the product is missing.
+    @Caching(put = @CachePut(value = CacheConfig.PRODUCTS, key = "#productId", unless = "#result == null"),
+            evict = @CacheEvict(value = CacheConfig.PRODUCT_FACETS, allEntries = true))
+    public Product updateProduct(String productId, Product updatedProduct, Long expectedVersion) {
+        Map<String, Object> fields = updatableFields(updatedProduct);
+        fields.put("position", supplierPosition(updatedProduct.getSupplierId()));
+        fields.put("updatedAt", LocalDateTime.now());
+        // Stock, counters and comment ids are only taken from the body when the product is created
+        Map<String, Object> insertOnly = new LinkedHashMap<>();
+        insertOnly.put("stockQuantity", updatedProduct.getStockQuantity());
+        insertOnly.put("favoriteCount", updatedProduct.getFavoriteCount());
+        insertOnly.put("likeCount", updatedProduct.getLikeCount());
+        insertOnly.put("commentCount", updatedProduct.getCommentCount());
+        insertOnly.put("commentIds", updatedProduct.getCommentIds());
+        insertOnly.values().removeIf(Objects::isNull);
+        return productRepository.upsertFields(productId, fields, insertOnly, expectedVersion);
+    }
+
+    // PATCH: sets only the fields present in the request
+    @Caching(put = @CachePut(value = CacheConfig.PRODUCTS, key = "#productId", unless = "#result == null"),
+            evict = @CacheEvict(value = CacheConfig.PRODUCT_FACETS, allEntries = true))
+    public Optional<Product> patchProduct(String productId, Product patch, Long expectedVersion) {
+        Map<String, Object> fields = updatableFields(patch);
+        fields.values().removeIf(Objects::isNull);
+        if (patch.getSupplierId() != null) {
+            fields.put("position", supplierPosition(patch.getSupplierId()));
+        }
+        fields.put("updatedAt", LocalDateTime.now());
+        return Optional.ofNullable(productRepository.updateFields(productId, fields, expectedVersion, false));
+    }
+
+    // Likes and favorites are counters: one $inc each, which also feeds the trending scores
+    @CachePut(value = CacheConfig.PRODUCTS, key = "#productId", unless = "#result == null")
+    public Optional<Product> likeProduct(String productId) {
+        return engage(productId, "likeCount", TrendingService.Engagement.LIKE);
+    }
+
+    @CachePut(value = CacheConfig.PRODUCTS, key = "#productId", unless = "#result == null")
+    public Optional<Product> favoriteProduct(String productId) {
+        return engage(productId, "favoriteCount", TrendingService.Engagement.FAVORITE);
+    }
+
+    // Ranked from memory; the products themselves come from the entity cache or one $in query
+    public List<TrendingItem<Product>> getTrendingProducts(String category, int limit) {
+        List<TrendingService.Ranked> ranked = trendingService.top(TrendingService.Kind.PRODUCT, category, limit);
+        Map<String, Product> products = entityBatchLoader.loadAll(ranked.stream().map(TrendingService.Ranked::id).toList(),
+                CacheConfig.PRODUCTS, Product.class, productRepository::findAllById, Product::getProductId);
+        return ranked.stream()
+                .filter(entry -> products.containsKey(entry.id()))
+                .map(entry -> new TrendingItem<>(products.get(entry.id()), entry.score()))
+                .toList();
+    }
+
+    // Neighbours precomputed by SimilarProductsJob: one lookup by id, then the products from the entity cache.
+    // Empty until the job has run for this product.
+    public List<Product> getSimilarProducts(String productId, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        List<String> ids = similarProductsRepository.findById(productId)
+                .map(similar -> similar.getNeighbors().stream().limit(limit).map(SimilarProducts.Neighbor::productId).toList())
+                .orElse(List.of());
+        Map<String, Product> products = entityBatchLoader.loadAll(ids, CacheConfig.PRODUCTS, Product.class,
+                productRepository::findAllById, Product::getProductId);
+        return ids.stream().map(products::get).filter(Objects::nonNull).toList();
+    }
+
+    private Optional<Product> engage(String productId, String countField, TrendingService.Engagement engagement) {
+        Product product = productRepository.incrementCount(productId, countField);
+        if (product != null) {
+            trendingService.record(TrendingService.Kind.PRODUCT, productId, categories(product), engagement);
+        }
+        return Optional.ofNullable(product);
+    }
+
+    // Products rank in their category; tags are not categories here
+    static List<String> categories(Product product) {
+        return product.getCategory() == null ? List.of() : List.of(product.getCategory());
+    }
+
+    @CacheEvict(value = CacheConfig.PRODUCTS, key = "#productId")
+    public boolean addCommentToProduct(String productId, String commentId) {
+        return productRepository.addCommentId(productId, commentId);
+    }
+
+    @CacheEvict(value = CacheConfig.PRODUCTS, key = "#productId")
+    public boolean removeCommentFromProduct(String productId, String commentId) {
+        return productRepository.removeCommentId(productId, commentId);
+    }
+
+    private GeoJsonPoint supplierPosition(String supplierId) {
+        return supplierId == null ? null : userService.getUserById(supplierId).map(User::getPosition).orElse(null);
+    }
+
+    // Stock, counters and comment ids are left out: they only change through StockService's
+    // conditional $inc operations and the $inc/$push/$pull helpers, which a stale body would undo
+    private Map<String, Object> updatableFields(Product product) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", product.getName());
+        fields.put("category", product.getCategory());
+        fields.put("description", product.getDescription());
+        fields.put("price", product.getPrice());
+        fields.put("supplierId", product.getSupplierId());
+        fields.put("categoryTags", product.getCategoryTags());
+        fields.put("imageLinks", product.getImageLinks());
+        return fields;
     }
 }
@@ -0,0 +1,52 @@
+package com.gri.agriconnect.service;
+
+import com.gri.agriconnect.config.CacheConfig;
+import com.gri.agriconnect.model.UserProfile;
+import com.gri.agriconnect.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Profile pages in one aggregation, cached briefly. A profile changes with every post, product and
+// comment of its user, so it expires on a short TTL instead of being evicted by all of those writes.
+@Service
+public class ProfileService {
+
+    // The spring.cache.* spec is shared by every cache, so the shorter profile TTL is checked on read
+    private record CachedProfile(UserProfile profile, long cachedAt) {
+    }
+
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final int limit;
+    private final long ttlMillis;
+
+    @Autowired
+    public ProfileService(UserRepository userRepository, CacheManager cacheManager,
+                          @Value("${agriconnect.profile.items:5}") int limit,
+                          @Value("${agriconnect.profile.cache-ttl:30s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+        this.limit = limit;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    public Optional<UserProfile> getProfile(String userId) {
+        Cache cache = cacheManager.getCache(CacheConfig.PROFILES);
+        long now = System.currentTimeMillis();
+        CachedProfile cached = cache != null ? cache.get(userId, CachedProfile.class) : null;
+        if (cached != null && now - cached.cachedAt() < ttlMillis) {
+            return Optional.ofNullable(cached.profile());
+        }
+        UserProfile profile = userRepository.profile(userId, limit);
+        if (cache != null) {
+            cache.put(userId, new CachedProfile(profile, now));
+        }
+        return Optional.ofNullable(profile);
+    }
+}
@@ -0,0 +1,94 @@
+package com.gri.agriconnect.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Concurrent identical reads share one query: the first caller for a kind and key runs the loader,
+// callers arriving while it runs wait for its result (or its exception) instead of querying too.
+// Meant for reads behind a cache, where a popular entry that expires or is evicted would otherwise
+// send every request that misses it to Mongo at once. Results are shared, so they must not be modified.
+// Coalescing ratio: agriconnect.singleflight.calls{role=follower} over all calls of a kind.
+@Component
+public class SingleFlight {
+
+    private record Key(String kind, Object key) {
+    }
+
+    private record Meters(Counter leader, Counter follower) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SingleFlight(MeterRegistry meterRegistry, @Value("${agriconnect.singleflight.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        Gauge.builder("agriconnect.singleflight.in.flight", inFlight, Map::size)
+                .description("Reads currently being loaded on behalf of one or more callers")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T run(String kind, Object key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key flight = new Key(kind, key);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flight, mine);
+        if (running != null) {
+            meters(kind).follower().increment();
+            return (T) await(running);
+        }
+        meters(kind).leader().increment();
+        try {
+            T value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flight, mine);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Meters meters(String kind) {
+        return meters.computeIfAbsent(kind, k -> new Meters(counter(k, "leader"), counter(k, "follower")));
+    }
+
+    private Counter counter(String kind, String role) {
+        return Counter.builder("agriconnect.singleflight.calls")
+                .description("Coalesced reads; leaders ran the query, followers shared a leader's result")
+                .tag("kind", kind)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+}
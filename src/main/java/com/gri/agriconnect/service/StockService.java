@@ -0,0 +1,317 @@
+package com.gri.agriconnect.service;
+
+import com.gri.agriconnect.config.CacheConfig;
+import com.gri.agriconnect.model.Product;
+import com.gri.agriconnect.model.StockBucket;
+import com.gri.agriconnect.model.StockLevel;
+import com.gri.agriconnect.model.StockReservation;
+import com.gri.agriconnect.repository.ProductRepository;
+import com.gri.agriconnect.repository.StockBucketRepository;
+import com.gri.agriconnect.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Stock changes as conditional $inc operations, so concurrent buyers never take more than is in stock.
+// Hot products can be split into buckets; their stockQuantity is then rolled up in the background.
+@Service
+public class StockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockService.class);
+
+    private final ProductRepository productRepository;
+    private final StockBucketRepository stockBucketRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final CacheManager cacheManager;
+    private final Duration reservationTtl;
+    private final int maxBuckets;
+
+    // Bucket counts of split products; a product is only ever split once, so entries never go stale
+    private final Map<String, Integer> splitProducts = new ConcurrentHashMap<>();
+    // Split products whose buckets changed since the last rollup
+    private final Set<String> dirtyProducts = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public StockService(ProductRepository productRepository, StockBucketRepository stockBucketRepository,
+                        StockReservationRepository stockReservationRepository, CacheManager cacheManager,
+                        @Value("${agriconnect.stock.reservation-ttl:10m}") Duration reservationTtl,
+                        @Value("${agriconnect.stock.max-buckets:16}") int maxBuckets) {
+        this.productRepository = productRepository;
+        this.stockBucketRepository = stockBucketRepository;
+        this.stockReservationRepository = stockReservationRepository;
+        this.cacheManager = cacheManager;
+        this.reservationTtl = reservationTtl;
+        this.maxBuckets = maxBuckets;
+    }
+
+    // Stock is taken before the reservation is written: a crash in between leaves stock unsold
+    // rather than sold twice
+    public StockReservation reserve(String productId, String userId, int quantity) {
+        requirePositive(quantity);
+        Integer bucket = take(productId, quantity);
+        StockReservation reservation = new StockReservation(productId, userId, quantity, bucket,
+                LocalDateTime.now().plus(reservationTtl));
+        return stockReservationRepository.save(reservation);
+    }
+
+    public Optional<StockReservation> getReservation(String reservationId) {
+        return stockReservationRepository.findById(reservationId);
+    }
+
+    // The stock was already taken when the reservation was made, so confirming is a status change
+    public StockReservation confirm(String reservationId) {
+        StockReservation confirmed = stockReservationRepository.finishHeld(reservationId,
+                StockReservation.Status.CONFIRMED, null, LocalDateTime.now());
+        if (confirmed == null) {
+            throw notHeld(reservationId);
+        }
+        return confirmed;
+    }
+
+    public StockReservation release(String reservationId) {
+        StockReservation released = stockReservationRepository.finishHeld(reservationId,
+                StockReservation.Status.RELEASED, null, null);
+        if (released == null) {
+            throw notHeld(reservationId);
+        }
+        give(released.getProductId(), released.getBucket(), released.getQuantity());
+        return released;
+    }
+
+    // Immediate sale without a reservation
+    public StockLevel decrement(String productId, int quantity) {
+        requirePositive(quantity);
+        take(productId, quantity);
+        return level(productId);
+    }
+
+    // Split products spread the new stock evenly over their buckets
+    public StockLevel restock(String productId, int quantity) {
+        requirePositive(quantity);
+        Integer buckets = bucketsOf(productId);
+        if (buckets == null) {
+            Product updated = productRepository.adjustStock(productId, quantity);
+            if (updated != null) {
+                stockChanged(productId, updated.getStockQuantity() - quantity, updated.getStockQuantity());
+                return new StockLevel(productId, updated.getStockQuantity(), null);
+            }
+            // Split since the lookup above
+            buckets = bucketsOf(productId);
+        }
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int share = quantity / buckets + (bucket < quantity % buckets ? 1 : 0);
+            if (share > 0 && !stockBucketRepository.adjust(productId, bucket, share)) {
+                logger.warn("Could not add {} of product {} to stock bucket {}", share, productId, bucket);
+            }
+        }
+        dirtyProducts.add(productId);
+        return level(productId);
+    }
+
+    // Moves the product's stock into buckets. Until the buckets are written, buyers of the product
+    // briefly see it as out of stock. The slices are $inc upserts rather than inserts, so stock
+    // returned to a bucket in between is added to its slice instead of being overwritten.
+    public Optional<StockLevel> split(String productId, int buckets) {
+        if (buckets < 2 || buckets > maxBuckets) {
+            throw new IllegalArgumentException("buckets must be between 2 and " + maxBuckets);
+        }
+        Product before = productRepository.markStockSplit(productId, buckets);
+        if (before == null) {
+            Optional<Product> product = productRepository.findById(productId);
+            if (product.isEmpty()) {
+                return Optional.empty();
+            }
+            throw new IllegalStateException("Product " + productId + " is already split into " + product.get().getStockBuckets() + " buckets");
+        }
+        int stock = before.getStockQuantity() == null ? 0 : Math.max(before.getStockQuantity(), 0);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            stockBucketRepository.adjust(productId, bucket, stock / buckets + (bucket < stock % buckets ? 1 : 0));
+        }
+        splitProducts.put(productId, buckets);
+        evictProduct(productId);
+        return Optional.of(new StockLevel(productId, stock, buckets));
+    }
+
+    // Returns the stock of reservations nobody confirmed or released in time. The status change is
+    // conditional, so a reservation confirmed at the last moment or swept by another node is skipped.
+    @Scheduled(fixedDelayString = "${agriconnect.stock.sweep-interval-ms:30000}")
+    public void expireReservations() {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReservation> due;
+        do {
+            due = stockReservationRepository.findTop100ByStatusAndExpiresAtBefore(StockReservation.Status.HELD, now);
+            for (StockReservation reservation : due) {
+                StockReservation expired = stockReservationRepository.finishHeld(reservation.getReservationId(),
+                        StockReservation.Status.EXPIRED, now, null);
+                if (expired != null) {
+                    give(expired.getProductId(), expired.getBucket(), expired.getQuantity());
+                }
+            }
+        } while (due.size() == 100);
+    }
+
+    // Copies the bucket totals of recently changed split products into product.stockQuantity
+    @Scheduled(fixedDelayString = "${agriconnect.stock.rollup-interval-ms:1000}")
+    public void rollUpSplitStock() {
+        for (String productId : List.copyOf(dirtyProducts)) {
+            dirtyProducts.remove(productId);
+            try {
+                int total = stockBucketRepository.totalQuantity(productId);
+                Product before = productRepository.setStockRollup(productId, total);
+                if (before != null) {
+                    stockChanged(productId, before.getStockQuantity() == null ? 0 : before.getStockQuantity(), total);
+                }
+            } catch (RuntimeException e) {
+                dirtyProducts.add(productId);
+                logger.warn("Stock rollup failed for product {}: {}", productId, e.getMessage());
+            }
+        }
+    }
+
+    // Takes quantity from the product, or from its buckets if it is split; returns the bucket it was
+    // taken from, the first one when it had to be gathered from several
+    private Integer take(String productId, int quantity) {
+        Integer buckets = splitProducts.get(productId);
+        if (buckets == null) {
+            Product updated = productRepository.adjustStock(productId, -quantity);
+            if (updated != null) {
+                stockChanged(productId, updated.getStockQuantity() + quantity, updated.getStockQuantity());
+                return null;
+            }
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new IllegalArgumentException("Product with ID " + productId + " does not exist."));
+            if (product.getStockBuckets() == null || product.getStockBuckets() <= 0) {
+                throw new IllegalStateException("Only " + product.getStockQuantity() + " of product " + productId + " left in stock");
+            }
+            buckets = product.getStockBuckets();
+            splitProducts.put(productId, buckets);
+        }
+        // Start at a random bucket so concurrent buyers land on different documents
+        int start = ThreadLocalRandom.current().nextInt(buckets);
+        for (int i = 0; i < buckets; i++) {
+            int bucket = (start + i) % buckets;
+            if (stockBucketRepository.adjust(productId, bucket, -quantity)) {
+                dirtyProducts.add(productId);
+                return bucket;
+            }
+        }
+        return takeFromSeveral(productId, quantity);
+    }
+
+    // No single bucket holds quantity: takes it from the fullest buckets in turn, and gives back
+    // what it took if they fall short. The whole quantity is returned to the first bucket later.
+    private Integer takeFromSeveral(String productId, int quantity) {
+        List<StockBucket> slices = new ArrayList<>(stockBucketRepository.findByProductId(productId));
+        slices.sort(Comparator.comparingInt(StockBucket::getQuantity).reversed());
+        Map<Integer, Integer> taken = new LinkedHashMap<>();
+        int remaining = quantity;
+        for (StockBucket slice : slices) {
+            int part = Math.min(slice.getQuantity(), remaining);
+            if (part > 0 && stockBucketRepository.adjust(productId, slice.getBucket(), -part)) {
+                taken.put(slice.getBucket(), part);
+                remaining -= part;
+                if (remaining == 0) {
+                    dirtyProducts.add(productId);
+                    return taken.keySet().iterator().next();
+                }
+            }
+        }
+        taken.forEach((bucket, part) -> stockBucketRepository.adjust(productId, bucket, part));
+        throw new IllegalStateException("Only " + (quantity - remaining) + " of product " + productId + " left in stock");
+    }
+
+    private void give(String productId, Integer bucket, int quantity) {
+        if (bucket == null) {
+            Product updated = productRepository.adjustStock(productId, quantity);
+            if (updated != null) {
+                stockChanged(productId, updated.getStockQuantity() - quantity, updated.getStockQuantity());
+                return;
+            }
+            // The product was split after this stock was taken; the first bucket takes it back
+            Integer buckets = bucketsOf(productId);
+            if (buckets == null) {
+                logger.warn("Could not return {} of product {} to stock", quantity, productId);
+                return;
+            }
+            bucket = 0;
+        }
+        if (!stockBucketRepository.adjust(productId, bucket, quantity)) {
+            logger.warn("Could not return {} of product {} to stock bucket {}", quantity, productId, bucket);
+        }
+        dirtyProducts.add(productId);
+    }
+
+    private Integer bucketsOf(String productId) {
+        Integer buckets = splitProducts.get(productId);
+        if (buckets != null) {
+            return buckets;
+        }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product with ID " + productId + " does not exist."));
+        if (product.getStockBuckets() == null || product.getStockBuckets() <= 0) {
+            return null;
+        }
+        splitProducts.put(productId, product.getStockBuckets());
+        return product.getStockBuckets();
+    }
+
+    private StockLevel level(String productId) {
+        Integer buckets = bucketsOf(productId);
+        if (buckets != null) {
+            return new StockLevel(productId, stockBucketRepository.totalQuantity(productId), buckets);
+        }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product with ID " + productId + " does not exist."));
+        return new StockLevel(productId, product.getStockQuantity() == null ? 0 : product.getStockQuantity(), null);
+    }
+
+    // The cached product is stale after any change; facet counts only when in-stock status flips
+    private void stockChanged(String productId, int before, int after) {
+        evictProduct(productId);
+        if ((before > 0) != (after > 0)) {
+            Cache facets = cacheManager.getCache(CacheConfig.PRODUCT_FACETS);
+            if (facets != null) {
+                facets.clear();
+            }
+        }
+    }
+
+    private void evictProduct(String productId) {
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (products != null) {
+            products.evict(productId);
+        }
+    }
+
+    private IllegalStateException notHeld(String reservationId) {
+        StockReservation reservation = stockReservationRepository.findById(reservationId)
+                .orElseThrow(() -> new IllegalArgumentException("Reservation with ID " + reservationId + " does not exist."));
+        if (reservation.getStatus() == StockReservation.Status.HELD) {
+            return new IllegalStateException("Reservation " + reservationId + " has expired");
+        }
+        return new IllegalStateException("Reservation " + reservationId + " is already " + reservation.getStatus());
+    }
+
+    private void requirePositive(int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("quantity must be at least 1");
+        }
+    }
+}
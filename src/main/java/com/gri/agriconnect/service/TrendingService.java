@@ -0,0 +1,277 @@
+package com.gri.agriconnect.service;
+
+import com.gri.agriconnect.model.TrendingScore;
+import com.gri.agriconnect.repository.TrendingScoreRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Time-decayed engagement scores for posts and products, ranked in memory per category.
+// Scores are kept as log2(weight) + t / halfLife, so an older event is worth half as much per
+// half-life without ever rewriting existing scores: ranking only compares, and the decayed value is
+// derived on read. Each category keeps a bounded skip list, so a top-K read walks K nodes.
+@Service
+public class TrendingService {
+
+    public enum Kind { POST, PRODUCT }
+
+    public enum Engagement {
+        LIKE(1), FAVORITE(2), COMMENT(3);
+
+        private final double weight;
+
+        Engagement(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    // One ranked id with its current decayed score
+    public record Ranked(String id, double score) {
+    }
+
+    public static final String ALL = "all";
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    // Entries that have decayed below this score are dropped from memory and from the collection
+    private static final double MIN_SCORE = 0.01;
+
+    private final TrendingScoreRepository trendingScoreRepository;
+    private final double halfLifeSeconds;
+    private final int capacity;
+    private final int maxLimit;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+    // Entries changed since the last flush
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public TrendingService(TrendingScoreRepository trendingScoreRepository,
+                           @Value("${agriconnect.trending.half-life:6h}") Duration halfLife,
+                           @Value("${agriconnect.trending.capacity:1000}") int capacity,
+                           @Value("${agriconnect.trending.max-limit:100}") int maxLimit) {
+        this.trendingScoreRepository = trendingScoreRepository;
+        this.halfLifeSeconds = halfLife.toSeconds();
+        this.capacity = capacity;
+        this.maxLimit = maxLimit;
+    }
+
+    public void record(Kind kind, String targetId, Collection<String> categories, Engagement engagement) {
+        String key = key(kind, targetId);
+        double added = log2(engagement.weight) + nowLog();
+        // compute() serializes updates of one entry with each other and with pruning
+        entries.compute(key, (k, entry) -> {
+            Entry current = entry != null ? entry : new Entry(kind, targetId);
+            double before = current.logScore;
+            current.logScore = logAdd(before, added);
+            Set<String> boardKeys = boardKeys(kind, categories);
+            // Categories can change between events; leave the boards the entry is no longer in
+            for (String boardKey : current.boardKeys) {
+                if (!boardKeys.contains(boardKey)) {
+                    board(boardKey).remove(targetId, before);
+                }
+            }
+            for (String boardKey : boardKeys) {
+                board(boardKey).update(targetId, before, current.logScore);
+            }
+            current.boardKeys = boardKeys;
+            current.categories = categories == null ? List.of() : List.copyOf(categories);
+            return current;
+        });
+        dirty.add(key);
+    }
+
+    // Highest scores first; category null ranks across all categories
+    public List<Ranked> top(Kind kind, String category, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        Board board = boards.get(boardKey(kind, category == null ? ALL : category));
+        if (board == null) {
+            return List.of();
+        }
+        double now = nowLog();
+        List<Ranked> top = new ArrayList<>(limit);
+        for (Slot slot : board.slots) {
+            if (top.size() == limit) {
+                break;
+            }
+            top.add(new Ranked(slot.id(), Math.pow(2, slot.logScore() - now)));
+        }
+        return top;
+    }
+
+    public void remove(Kind kind, String targetId) {
+        String key = key(kind, targetId);
+        entries.computeIfPresent(key, (k, entry) -> {
+            entry.boardKeys.forEach(boardKey -> board(boardKey).remove(targetId, entry.logScore));
+            return null;
+        });
+        dirty.remove(key);
+        trendingScoreRepository.deleteById(key);
+    }
+
+    // Writes changed scores in one bulk upsert and drops everything that has decayed away
+    @Scheduled(fixedDelayString = "${agriconnect.trending.flush-interval-ms:60000}")
+    public void flush() {
+        double threshold = nowLog() + log2(MIN_SCORE);
+        List<TrendingScore> changed = new ArrayList<>();
+        for (String key : List.copyOf(dirty)) {
+            dirty.remove(key);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                changed.add(new TrendingScore(entry.kind.name(), entry.targetId, entry.categories, entry.logScore));
+            }
+        }
+        try {
+            trendingScoreRepository.saveScores(changed);
+            trendingScoreRepository.deleteByLogScoreLessThan(threshold);
+        } catch (RuntimeException e) {
+            changed.forEach(score -> dirty.add(score.getId()));
+            logger.warn("Could not persist {} trending scores: {}", changed.size(), e.getMessage());
+        }
+
+        boards.values().forEach(board -> board.dropBelow(threshold));
+        for (String key : List.copyOf(entries.keySet())) {
+            entries.computeIfPresent(key, (k, entry) -> entry.logScore < threshold ? null : entry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        List<TrendingScore> scores = trendingScoreRepository.findByLogScoreGreaterThan(nowLog() + log2(MIN_SCORE));
+        for (TrendingScore score : scores) {
+            Kind kind = Kind.valueOf(score.getKind());
+            Entry entry = new Entry(kind, score.getTargetId());
+            entry.logScore = score.getLogScore();
+            entry.categories = score.getCategories() == null ? List.of() : score.getCategories();
+            entry.boardKeys = boardKeys(kind, entry.categories);
+            entry.boardKeys.forEach(boardKey -> board(boardKey).update(entry.targetId, Double.NEGATIVE_INFINITY, entry.logScore));
+            entries.put(key(kind, score.getTargetId()), entry);
+        }
+        logger.info("Restored {} trending scores", scores.size());
+    }
+
+    private double nowLog() {
+        return System.currentTimeMillis() / 1000.0 / halfLifeSeconds;
+    }
+
+    private Board board(String boardKey) {
+        return boards.computeIfAbsent(boardKey, k -> new Board(capacity));
+    }
+
+    private static Set<String> boardKeys(Kind kind, Collection<String> categories) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(boardKey(kind, ALL));
+        if (categories != null) {
+            categories.stream().filter(category -> category != null && !category.isBlank())
+                    .forEach(category -> keys.add(boardKey(kind, category)));
+        }
+        return keys;
+    }
+
+    private static String boardKey(Kind kind, String category) {
+        return kind + ":" + category;
+    }
+
+    private static String key(Kind kind, String targetId) {
+        return kind + ":" + targetId;
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+
+    // log2(2^a + 2^b) without overflowing: the exponents grow with wall-clock time
+    private static double logAdd(double a, double b) {
+        if (a == Double.NEGATIVE_INFINITY) {
+            return b;
+        }
+        double max = Math.max(a, b);
+        return max + log2(1 + Math.pow(2, Math.min(a, b) - max));
+    }
+
+    private static final class Entry {
+        private final Kind kind;
+        private final String targetId;
+        // Written under entries.compute(), read by the flush without it
+        private volatile double logScore = Double.NEGATIVE_INFINITY;
+        private volatile List<String> categories = List.of();
+        private volatile Set<String> boardKeys = Set.of();
+
+        private Entry(Kind kind, String targetId) {
+            this.kind = kind;
+            this.targetId = targetId;
+        }
+    }
+
+    private record Slot(String id, double logScore) {
+    }
+
+    // Ranked ids of one category, highest first; the lowest is evicted past capacity
+    private static final class Board {
+        private static final Comparator<Slot> ORDER =
+                Comparator.comparingDouble(Slot::logScore).reversed().thenComparing(Slot::id);
+
+        private final ConcurrentSkipListSet<Slot> slots = new ConcurrentSkipListSet<>(ORDER);
+        // ConcurrentSkipListSet.size() walks the whole list
+        private final AtomicInteger size = new AtomicInteger();
+        private final int capacity;
+
+        private Board(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private void update(String id, double before, double after) {
+            remove(id, before);
+            if (slots.add(new Slot(id, after))) {
+                size.incrementAndGet();
+            }
+            while (size.get() > capacity && slots.pollLast() != null) {
+                size.decrementAndGet();
+            }
+        }
+
+        private void remove(String id, double logScore) {
+            if (slots.remove(new Slot(id, logScore))) {
+                size.decrementAndGet();
+            }
+        }
+
+        private void dropBelow(double threshold) {
+            Slot last;
+            while ((last = lastOrNull()) != null && last.logScore() < threshold) {
+                if (slots.remove(last)) {
+                    size.decrementAndGet();
+                }
+            }
+        }
+
+        private Slot lastOrNull() {
+            try {
+                return slots.last();
+            } catch (NoSuchElementException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -1,59 +1,179 @@
 package com.gri.agriconnect.service;
 
+import com.gri.agriconnect.config.CacheConfig;
+import com.gri.agriconnect.model.BatchResult;
 import com.gri.agriconnect.model.User;
+import com.gri.agriconnect.repository.ProductRepository;
 import com.gri.agriconnect.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.stereotype.Service;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+
+import static com.gri.agriconnect.service.OptimisticRetry.mergeCounter;
+import static com.gri.agriconnect.service.OptimisticRetry.mergeList;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final EntityBatchLoader entityBatchLoader;
+    private final OptimisticRetry optimisticRetry;
+    private final NotificationService notificationService;
+    private final SingleFlight singleFlight;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, ProductRepository productRepository,
+                       EntityBatchLoader entityBatchLoader, OptimisticRetry optimisticRetry,
+                       NotificationService notificationService, SingleFlight singleFlight) {
         this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.entityBatchLoader = entityBatchLoader;
+        this.optimisticRetry = optimisticRetry;
+        this.notificationService = notificationService;
+        this.singleFlight = singleFlight;
     }
 
     public User createUser(User user) {
         return userRepository.save(user);
     }
 
+    // Every post, product and conversation create reads its users, so misses on active users load once
+    @Cacheable(value = CacheConfig.USERS, key = "#userId")
     public Optional<User> getUserById(String userId) {
-        return userRepository.findById(userId);
+        return singleFlight.run("user", userId, () -> userRepository.findById(userId));
+    }
+
+    public BatchResult<User> getUsersByIds(List<String> userIds) {
+        return entityBatchLoader.load(userIds, CacheConfig.USERS, User.class,
+                userRepository::findAllById, User::getUserId);
     }
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
-    public Optional<User> updateUser(String userId, User userDetails) {
-        return userRepository.findById(userId).map(user -> {
-            user.setAccountName(userDetails.getAccountName());
-            user.setFirstName(userDetails.getFirstName());
-            user.setLastName(userDetails.getLastName());
-            user.setEmail(userDetails.getEmail());
-            user.setPassword(userDetails.getPassword());
-            user.setPhoneNo(userDetails.getPhoneNo());
-            user.setLocation(userDetails.getLocation());
-            user.setFollowerCount(userDetails.getFollowerCount());
-            user.setFollowingCount(userDetails.getFollowingCount());
-            user.setConversationCount(userDetails.getConversationCount());
-            user.setProductCount(userDetails.getProductCount());
-            user.setPostCount(userDetails.getPostCount());
-            user.setFollowerIds(userDetails.getFollowerIds());
-            user.setFollowingIds(userDetails.getFollowingIds());
-            user.setConversationIds(userDetails.getConversationIds());
-            user.setProductIds(userDetails.getProductIds());
-            user.setPostIds(userDetails.getPostIds());
-            user.setAccountLocked(userDetails.getAccountLocked());
-            user.setEnabled(userDetails.getEnabled());
+    // Without expectedVersion, a version conflict is retried: scalar fields from the request win,
+    // while counters and id lists get the request's changes merged onto the concurrent writer's.
+    // With expectedVersion (If-Match) a conflict is reported instead of merged.
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
+    public Optional<User> updateUser(String userId, User userDetails, Long expectedVersion) {
+        Optional<User> baseOpt = userRepository.findById(userId);
+        if (baseOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        User base = baseOpt.get();
+        Optional<User> updated;
+        if (expectedVersion != null) {
+            if (!expectedVersion.equals(base.getVersion())) {
+                throw new OptimisticLockingFailureException("User " + userId + " is no longer at version " + expectedVersion);
+            }
+            updated = Optional.of(userRepository.save(applyDetails(copyOf(base), userDetails)));
+        } else {
+            updated = optimisticRetry.run(attempt -> {
+                if (attempt == 0) {
+                    return Optional.of(userRepository.save(applyDetails(copyOf(base), userDetails)));
+                }
+                return userRepository.findById(userId)
+                        .map(current -> userRepository.save(mergeDetails(base, userDetails, current)));
+            });
+        }
+        updated.filter(user -> !Objects.equals(base.getPosition(), user.getPosition()))
+                .ifPresent(this::relocateProducts);
+        // Followers only change through this update, so new ones are found by comparing the lists
+        updated.ifPresent(user -> newIds(base.getFollowerIds(), user.getFollowerIds())
+                .forEach(followerId -> notificationService.followed(userId, followerId)));
+        return updated;
+    }
+
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
+    public Optional<User> updateUserPosition(String userId, double lat, double lng) {
+        GeoJsonPoint position = GeoPoints.of(lat, lng);
+        Optional<User> updated = optimisticRetry.run(attempt -> userRepository.findById(userId).map(user -> {
+            user.setPosition(position);
             return userRepository.save(user);
-        });
-    }
-
+        }));
+        updated.ifPresent(this::relocateProducts);
+        return updated;
+    }
+
+    private static List<String> newIds(List<String> before, List<String> after) {
+        if (after == null) {
+            return List.of();
+        }
+        Set<String> known = before == null ? Set.of() : new HashSet<>(before);
+        return after.stream().filter(id -> !known.contains(id)).distinct().toList();
+    }
+
+    // Products carry a copy of their supplier's position for $geoNear
+    private void relocateProducts(User user) {
+        productRepository.updateSupplierPosition(user.getUserId(), user.getPosition());
+        entityBatchLoader.evict(CacheConfig.PRODUCTS, user.getProductIds());
+    }
+
+    private User applyDetails(User user, User userDetails) {
+        applyScalars(user, userDetails);
+        user.setFollowerCount(userDetails.getFollowerCount());
+        user.setFollowingCount(userDetails.getFollowingCount());
+        user.setConversationCount(userDetails.getConversationCount());
+        user.setProductCount(userDetails.getProductCount());
+        user.setPostCount(userDetails.getPostCount());
+        user.setFollowerIds(userDetails.getFollowerIds());
+        user.setFollowingIds(userDetails.getFollowingIds());
+        user.setConversationIds(userDetails.getConversationIds());
+        user.setProductIds(userDetails.getProductIds());
+        user.setPostIds(userDetails.getPostIds());
+        return user;
+    }
+
+    private User mergeDetails(User base, User userDetails, User current) {
+        applyScalars(current, userDetails);
+        current.setFollowerCount(mergeCounter(base.getFollowerCount(), userDetails.getFollowerCount(), current.getFollowerCount()));
+        current.setFollowingCount(mergeCounter(base.getFollowingCount(), userDetails.getFollowingCount(), current.getFollowingCount()));
+        current.setConversationCount(mergeCounter(base.getConversationCount(), userDetails.getConversationCount(), current.getConversationCount()));
+        current.setProductCount(mergeCounter(base.getProductCount(), userDetails.getProductCount(), current.getProductCount()));
+        current.setPostCount(mergeCounter(base.getPostCount(), userDetails.getPostCount(), current.getPostCount()));
+        current.setFollowerIds(mergeList(base.getFollowerIds(), userDetails.getFollowerIds(), current.getFollowerIds()));
+        current.setFollowingIds(mergeList(base.getFollowingIds(), userDetails.getFollowingIds(), current.getFollowingIds()));
+        current.setConversationIds(mergeList(base.getConversationIds(), userDetails.getConversationIds(), current.getConversationIds()));
+        current.setProductIds(mergeList(base.getProductIds(), userDetails.getProductIds(), current.getProductIds()));
+        current.setPostIds(mergeList(base.getPostIds(), userDetails.getPostIds(), current.getPostIds()));
+        return current;
+    }
+
+    private void applyScalars(User user, User userDetails) {
+        user.setAccountName(userDetails.getAccountName());
+        user.setFirstName(userDetails.getFirstName());
+        user.setLastName(userDetails.getLastName());
+        user.setEmail(userDetails.getEmail());
+        user.setPassword(userDetails.getPassword());
+        user.setPhoneNo(userDetails.getPhoneNo());
+        user.setLocation(userDetails.getLocation());
+        user.setPosition(userDetails.getPosition());
+        user.setAccountLocked(userDetails.getAccountLocked());
+        user.setEnabled(userDetails.getEnabled());
+    }
+
+    // The merge needs the lists as first read, so the write goes to a copy
+    private User copyOf(User user) {
+        User copy = new User(user.getAccountName(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getPassword());
+        copy.setUserId(user.getUserId());
+        copy.setVersion(user.getVersion());
+        copy.setCreatedDate(user.getCreatedDate());
+        copy.setLastModifiedDate(user.getLastModifiedDate());
+        copy.setLastSeen(user.getLastSeen());
+        return applyDetails(copy, user);
+    }
+
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
     public void deleteUser(String userId) {
         userRepository.deleteById(userId);
     }
@@ -62,66 +182,57 @@ public class UserService {
         return userRepository.findByAccountNameContaining(accountName);
     }
 
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
     public Optional<User> updateUserStatus(String userId, boolean enabled) {
-        return userRepository.findById(userId).map(user -> {
+        return optimisticRetry.run(attempt -> userRepository.findById(userId).map(user -> {
             user.setEnabled(enabled);
             return userRepository.save(user);
-        });
+        }));
     }
 
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
     public Optional<User> updateUserLockStatus(String userId, boolean accountLocked) {
-        return userRepository.findById(userId).map(user -> {
+        return optimisticRetry.run(attempt -> userRepository.findById(userId).map(user -> {
             user.setAccountLocked(accountLocked);
             return userRepository.save(user);
-        });
+        }));
     }
 
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
     public Optional<User> updateUserPassword(String userId, String newPassword) {
-        return userRepository.findById(userId).map(user -> {
+        return optimisticRetry.run(attempt -> userRepository.findById(userId).map(user -> {
             user.setPassword(newPassword);
             return userRepository.save(user);
-        });
+        }));
     }
 
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
     public void addConversationToUser(String userId, String conversationId) {
-        userRepository.findById(userId).ifPresent(user -> {
-            user.addConversation(conversationId);
-            userRepository.save(user);
-        });
+        userRepository.addConversationId(userId, conversationId);
     }
 
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
     public void removeConversationFromUser(String userId, String conversationId) {
-        userRepository.findById(userId).ifPresent(user -> {
-            user.removeConversation(conversationId);
-            userRepository.save(user);
-        });
+        userRepository.removeConversationId(userId, conversationId);
     }
 
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
     public void addPostToUser(String userId, String postId) {
-        userRepository.findById(userId).ifPresent(user -> {
-            user.addPost(postId);
-            userRepository.save(user);
-        });
+        userRepository.addPostId(userId, postId);
     }
 
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
     public void removePostFromUser(String userId, String postId) {
-        userRepository.findById(userId).ifPresent(user -> {
-            user.removePost(postId);
-            userRepository.save(user);
-        });
+        userRepository.removePostId(userId, postId);
     }
 
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
     public void addProductToUser(String userId, String productId) {
-        userRepository.findById(userId).ifPresent(user -> {
-            user.addProduct(productId);
-            userRepository.save(user);
-        });
+        userRepository.addProductId(userId, productId);
     }
 
+    @CacheEvict(value = CacheConfig.USERS, key = "#userId")
     public void removeProductFromUser(String userId, String productId) {
-        userRepository.findById(userId).ifPresent(user -> {
-            user.removeProduct(productId);
-            userRepository.save(user);
-        });
+        userRepository.removeProductId(userId, productId);
     }
 }
@@ -0,0 +1,72 @@
+package com.gri.agriconnect.service;
+
+import com.gri.agriconnect.config.CacheConfig;
+import com.gri.agriconnect.model.Comment;
+import com.gri.agriconnect.model.Conversation;
+import com.gri.agriconnect.model.Post;
+import com.gri.agriconnect.model.Product;
+import com.gri.agriconnect.model.User;
+import com.gri.agriconnect.model.VersionStamp;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+// Version stamps for conditional GETs. A cached entity answers directly; otherwise only the
+// version and timestamp fields are fetched, so a 304 never loads or serializes the document.
+@Service
+public class VersionStampService {
+
+    private final CacheManager cacheManager;
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public VersionStampService(CacheManager cacheManager, MongoTemplate mongoTemplate) {
+        this.cacheManager = cacheManager;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public Optional<VersionStamp> getProductStamp(String productId) {
+        return stamp(CacheConfig.PRODUCTS, Product.class, productId, "updatedAt",
+                product -> new VersionStamp(product.getVersion(), product.getUpdatedAt()));
+    }
+
+    public Optional<VersionStamp> getPostStamp(String postId) {
+        return stamp(CacheConfig.POSTS, Post.class, postId, "updatedAt",
+                post -> new VersionStamp(post.getVersion(), post.getUpdatedAt()));
+    }
+
+    public Optional<VersionStamp> getCommentStamp(String commentId) {
+        return stamp(CacheConfig.COMMENTS, Comment.class, commentId, "updatedAt",
+                comment -> new VersionStamp(comment.getVersion(), comment.getUpdatedAt()));
+    }
+
+    public Optional<VersionStamp> getUserStamp(String userId) {
+        return stamp(CacheConfig.USERS, User.class, userId, "lastModifiedDate",
+                user -> new VersionStamp(user.getVersion(), user.getLastModifiedDate()));
+    }
+
+    public Optional<VersionStamp> getConversationStamp(String conversationId) {
+        return stamp(null, Conversation.class, conversationId, "updatedAt",
+                conversation -> new VersionStamp(conversation.getVersion(), conversation.getUpdatedAt()));
+    }
+
+    private <T> Optional<VersionStamp> stamp(String cacheName, Class<T> type, String id, String modifiedField,
+                                             Function<T, VersionStamp> stampOf) {
+        Cache cache = cacheName != null ? cacheManager.getCache(cacheName) : null;
+        Cache.ValueWrapper cached = cache != null ? cache.get(id) : null;
+        if (cached != null) {
+            return Optional.ofNullable(type.cast(cached.get())).map(stampOf);
+        }
+        // The projected entity is partial, so it is never put into the entity cache
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include("version", modifiedField);
+        return Optional.ofNullable(mongoTemplate.findOne(query, type)).map(stampOf);
+    }
+}
@@ -0,0 +1,106 @@
+package com.gri.agriconnect.benchmark;
+
+import com.gri.agriconnect.codec.EntityCodecs;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Decoding and encoding one stored document: the Spring Data path (BSON -> Document ->
+// MappingMongoConverter) against the hand-written entity codec. Both read the bytes the converter
+// writes. Run with -prof gc to compare allocation per operation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private static final Codec<Document> DOCUMENT_CODEC = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+
+    @Param({"message", "product", "post"})
+    String entity;
+
+    // Length of the id lists of products and posts
+    @Param({"10", "200"})
+    int listSize;
+
+    private MappingMongoConverter converter;
+    private Codec<Object> codec;
+    private Object value;
+    private byte[] stored;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        // Wired as Spring Boot wires it: the mapping context needs the store's simple types
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        value = switch (entity) {
+            case "message" -> Fixtures.message("message-1", "conversation-1");
+            case "product" -> Fixtures.product("product-1", "user-1", listSize);
+            case "post" -> Fixtures.post("post-1", "user-1", listSize);
+            default -> throw new IllegalArgumentException(entity);
+        };
+        codec = (Codec<Object>) EntityCodecs.REGISTRY.get(value.getClass());
+
+        Document document = new Document();
+        converter.write(value, document);
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        DOCUMENT_CODEC.encode(new BsonBinaryWriter(buffer), document, ENCODER_CONTEXT);
+        stored = buffer.toByteArray();
+
+        // Both paths have to produce the same entity, or the comparison is meaningless
+        if (!decodeWithConverter().equals(decodeWithCodec())) {
+            throw new IllegalStateException("The " + entity + " codec does not read what the converter wrote");
+        }
+    }
+
+    @Benchmark
+    public Object decodeWithConverter() {
+        Document document = DOCUMENT_CODEC.decode(new BsonBinaryReader(ByteBuffer.wrap(stored)), DECODER_CONTEXT);
+        return converter.read(value.getClass(), document);
+    }
+
+    @Benchmark
+    public Object decodeWithCodec() {
+        return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(stored)), DECODER_CONTEXT);
+    }
+
+    @Benchmark
+    public int encodeWithConverter() {
+        Document document = new Document();
+        converter.write(value, document);
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        DOCUMENT_CODEC.encode(new BsonBinaryWriter(buffer), document, ENCODER_CONTEXT);
+        return buffer.getPosition();
+    }
+
+    @Benchmark
+    public int encodeWithCodec() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        codec.encode(new BsonBinaryWriter(buffer), value, ENCODER_CONTEXT);
+        return buffer.getPosition();
+    }
+}
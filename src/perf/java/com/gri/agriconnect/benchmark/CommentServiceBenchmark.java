@@ -0,0 +1,45 @@
+package com.gri.agriconnect.benchmark;
+
+import com.gri.agriconnect.model.Comment;
+import com.gri.agriconnect.model.Post;
+import com.gri.agriconnect.repository.CommentRepository;
+import com.gri.agriconnect.service.CommentService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommentServiceBenchmark {
+
+    @Param({"10", "1000"})
+    int commentCount;
+
+    private CommentService commentService;
+    private CommentRepository commentRepository;
+    private Post post;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        InMemoryServices services = new InMemoryServices();
+        services.userRepository.save(Fixtures.user("user-1", 10));
+        post = services.postRepository.save(Fixtures.post("post-1", "user-1", commentCount));
+        commentRepository = services.commentRepository;
+        commentService = services.commentService;
+    }
+
+    @Benchmark
+    public Comment saveCommentOnPost() {
+        Comment saved = commentService.saveComment(new Comment("user-1", "Which drip tape did you use?", "post-1"));
+        // Undo the append so the post stays at commentCount ids
+        List<String> commentIds = post.getCommentIds();
+        commentIds.remove(commentIds.size() - 1);
+        commentRepository.deleteById(saved.getCommentId());
+        return saved;
+    }
+}
@@ -0,0 +1,77 @@
+package com.gri.agriconnect.benchmark;
+
+import com.gri.agriconnect.model.Conversation;
+import com.gri.agriconnect.model.Message;
+import com.gri.agriconnect.model.Post;
+import com.gri.agriconnect.model.Product;
+import com.gri.agriconnect.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Entities sized like production documents
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static User user(String userId, int listSize) {
+        User user = new User("farmer" + userId, "Ayse", "Yilmaz", "farmer" + userId + "@example.com", "secret");
+        user.setUserId(userId);
+        user.setLocation("Konya, Turkey");
+        user.setPhoneNo("+90 555 000 0000");
+        // Filled directly: the add helpers scan the list, which is quadratic for large fixtures
+        user.setFollowerIds(ids("follower-", listSize));
+        user.setFollowingIds(ids("following-", listSize));
+        user.setPostIds(ids("post-", listSize));
+        user.setProductIds(ids("product-", listSize));
+        user.setConversationIds(ids("conversation-", listSize));
+        user.setFollowerCount(listSize);
+        user.setFollowingCount(listSize);
+        user.setPostCount(listSize);
+        user.setProductCount(listSize);
+        user.setConversationCount(listSize);
+        return user;
+    }
+
+    static List<String> ids(String prefix, int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(prefix + i);
+        }
+        return ids;
+    }
+
+    static Product product(String productId, String supplierId, int commentCount) {
+        Product product = new Product("Organic wheat seed " + productId, supplierId);
+        product.setProductId(productId);
+        product.setCategory("crops");
+        product.setDescription("Certified organic winter wheat seed, 25 kg bag, germination rate above 90%.");
+        product.setPrice(42.5);
+        product.setStockQuantity(500);
+        product.setCategoryTags(List.of("seed", "wheat", "organic", "winter"));
+        product.setImageLinks(List.of("https://cdn.example.com/p/" + productId + "/1.jpg"));
+        product.setCommentIds(ids("comment-", commentCount));
+        return product;
+    }
+
+    static Post post(String postId, String userId, int commentCount) {
+        Post post = new Post(userId, "Drip irrigation results", "We switched half of the field to drip irrigation this season.");
+        post.setPostId(postId);
+        post.setCommentIds(ids("comment-", commentCount));
+        return post;
+    }
+
+    static Conversation conversation(String conversationId, int messageCount) {
+        Conversation conversation = new Conversation("buyer", "supplier");
+        conversation.setConversationId(conversationId);
+        conversation.setMessageIds(ids("message-", messageCount));
+        return conversation;
+    }
+
+    static Message message(String messageId, String conversationId) {
+        Message message = new Message(conversationId, "buyer", "Is the wheat seed still available? I would need 40 bags delivered to Konya.");
+        message.setMessageId(messageId);
+        return message;
+    }
+}
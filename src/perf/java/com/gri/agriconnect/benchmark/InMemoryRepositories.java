@@ -0,0 +1,144 @@
+package com.gri.agriconnect.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Map-backed stand-ins for the Mongo repositories, so benchmarks measure the
+// service layer rather than the network. Only the CRUD methods and the field-update
+// fragments (updateFields/upsertFields, add<X>Id/remove<X>Id) are supported.
+public final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <R> R create(Class<R> repositoryInterface, Class<?> entityClass, String idField) {
+        Field id = field(entityClass, idField);
+        Map<String, Object> store = new ConcurrentHashMap<>();
+
+        return (R) Proxy.newProxyInstance(repositoryInterface.getClassLoader(), new Class<?>[]{repositoryInterface},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        Object entity = args[0];
+                        String key = (String) id.get(entity);
+                        if (key == null) {
+                            key = UUID.randomUUID().toString();
+                            id.set(entity, key);
+                        }
+                        store.put(key, entity);
+                        yield entity;
+                    }
+                    case "findById" -> Optional.ofNullable(store.get((String) args[0]));
+                    case "existsById" -> store.containsKey((String) args[0]);
+                    case "findAll" -> new ArrayList<>(store.values());
+                    case "findAllById" -> {
+                        List<Object> found = new ArrayList<>();
+                        for (Object key : (Iterable<?>) args[0]) {
+                            Object entity = store.get((String) key);
+                            if (entity != null) {
+                                found.add(entity);
+                            }
+                        }
+                        yield found;
+                    }
+                    case "count" -> (long) store.size();
+                    case "deleteById" -> {
+                        store.remove((String) args[0]);
+                        yield null;
+                    }
+                    case "deleteAll" -> {
+                        store.clear();
+                        yield null;
+                    }
+                    case "updateFields", "upsertFields" -> {
+                        String key = (String) args[0];
+                        // updateFields(id, fields, expectedVersion, upsert) / upsertFields(id, fields, insertOnly, expectedVersion).
+                        // Versions are not tracked here, so expectedVersion only disables the upsert.
+                        boolean upsert = method.getName().equals("upsertFields")
+                                ? args[3] == null : args[2] == null && (Boolean) args[3];
+                        Object entity = store.get(key);
+                        if (entity == null) {
+                            if (!upsert) {
+                                yield null;
+                            }
+                            entity = newInstance(entityClass);
+                            id.set(entity, key);
+                            if (args[2] instanceof Map<?, ?> insertOnly) {
+                                setAll(entity, insertOnly);
+                            }
+                            store.put(key, entity);
+                        }
+                        setAll(entity, (Map<?, ?>) args[1]);
+                        yield entity;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemory" + repositoryInterface.getSimpleName();
+                    default -> {
+                        // add<X>Id / remove<X>Id: $push/$pull on <x>Ids, keeping <x>Count in step
+                        String name = method.getName();
+                        boolean add = name.startsWith("add");
+                        if ((add || name.startsWith("remove")) && name.endsWith("Id")) {
+                            String stem = name.substring(add ? 3 : 6, name.length() - 2);
+                            stem = Character.toLowerCase(stem.charAt(0)) + stem.substring(1);
+                            yield updateList(store.get((String) args[0]), stem, (String) args[1], add);
+                        }
+                        throw new UnsupportedOperationException(repositoryInterface.getSimpleName() + "." + name);
+                    }
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean updateList(Object entity, String stem, String value, boolean add) throws IllegalAccessException {
+        if (entity == null) {
+            return false;
+        }
+        Field listField = field(entity.getClass(), stem + "Ids");
+        List<String> list = (List<String>) listField.get(entity);
+        if (list == null) {
+            list = new ArrayList<>();
+            listField.set(entity, list);
+        }
+        boolean changed = add ? !list.contains(value) && list.add(value) : list.remove(value);
+        Field countField = optionalField(entity.getClass(), stem + "Count");
+        if (changed && countField != null) {
+            Integer count = (Integer) countField.get(entity);
+            countField.set(entity, (count == null ? 0 : count) + (add ? 1 : -1));
+        }
+        return changed;
+    }
+
+    private static void setAll(Object entity, Map<?, ?> fields) throws IllegalAccessException {
+        for (Map.Entry<?, ?> entry : fields.entrySet()) {
+            field(entity.getClass(), (String) entry.getKey()).set(entity, entry.getValue());
+        }
+    }
+
+    private static Object newInstance(Class<?> entityClass) throws ReflectiveOperationException {
+        return entityClass.getDeclaredConstructor().newInstance();
+    }
+
+    private static Field optionalField(Class<?> entityClass, String name) {
+        try {
+            return field(entityClass, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Field field(Class<?> entityClass, String name) {
+        try {
+            Field field = entityClass.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException(entityClass.getSimpleName() + " has no field " + name, e);
+        }
+    }
+}
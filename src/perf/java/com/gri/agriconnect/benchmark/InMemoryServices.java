@@ -0,0 +1,86 @@
+package com.gri.agriconnect.benchmark;
+
+import com.gri.agriconnect.model.Comment;
+import com.gri.agriconnect.model.Conversation;
+import com.gri.agriconnect.model.Message;
+import com.gri.agriconnect.model.Notification;
+import com.gri.agriconnect.model.Post;
+import com.gri.agriconnect.model.Product;
+import com.gri.agriconnect.model.SimilarProducts;
+import com.gri.agriconnect.model.TrendingScore;
+import com.gri.agriconnect.model.User;
+import com.gri.agriconnect.repository.CommentRepository;
+import com.gri.agriconnect.repository.ConversationRepository;
+import com.gri.agriconnect.repository.DocumentMessageStore;
+import com.gri.agriconnect.repository.MessageRepository;
+import com.gri.agriconnect.repository.NotificationRepository;
+import com.gri.agriconnect.repository.PostRepository;
+import com.gri.agriconnect.repository.ProductRepository;
+import com.gri.agriconnect.repository.SimilarProductsRepository;
+import com.gri.agriconnect.repository.TrendingScoreRepository;
+import com.gri.agriconnect.repository.UserRepository;
+import com.gri.agriconnect.retention.ArchiveService;
+import com.gri.agriconnect.retention.FileArchiveStore;
+import com.gri.agriconnect.retention.RetentionProperties;
+import com.gri.agriconnect.service.CommentService;
+import com.gri.agriconnect.service.ConversationService;
+import com.gri.agriconnect.service.EntityBatchLoader;
+import com.gri.agriconnect.service.MessageService;
+import com.gri.agriconnect.service.NotificationService;
+import com.gri.agriconnect.service.OptimisticRetry;
+import com.gri.agriconnect.service.PostService;
+import com.gri.agriconnect.service.ProductService;
+import com.gri.agriconnect.service.SingleFlight;
+import com.gri.agriconnect.service.TrendingService;
+import com.gri.agriconnect.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Duration;
+
+// The service graph wired by hand over in-memory repositories, as Spring would wire it
+final class InMemoryServices {
+
+    final UserRepository userRepository = InMemoryRepositories.create(UserRepository.class, User.class, "userId");
+    final PostRepository postRepository = InMemoryRepositories.create(PostRepository.class, Post.class, "postId");
+    final ProductRepository productRepository = InMemoryRepositories.create(ProductRepository.class, Product.class, "productId");
+    final CommentRepository commentRepository = InMemoryRepositories.create(CommentRepository.class, Comment.class, "commentId");
+    final ConversationRepository conversationRepository =
+            InMemoryRepositories.create(ConversationRepository.class, Conversation.class, "conversationId");
+    final MessageRepository messageRepository = InMemoryRepositories.create(MessageRepository.class, Message.class, "messageId");
+    final SimilarProductsRepository similarProductsRepository =
+            InMemoryRepositories.create(SimilarProductsRepository.class, SimilarProducts.class, "id");
+    final TrendingScoreRepository trendingScoreRepository =
+            InMemoryRepositories.create(TrendingScoreRepository.class, TrendingScore.class, "id");
+    final NotificationRepository notificationRepository =
+            InMemoryRepositories.create(NotificationRepository.class, Notification.class, "notificationId");
+
+    final EntityBatchLoader entityBatchLoader = new EntityBatchLoader(new ConcurrentMapCacheManager(), 100);
+
+    // Default retention has no hot window, so nothing is archived and the archive is never read
+    final RetentionProperties retentionProperties = new RetentionProperties();
+    final ArchiveService archiveService = new ArchiveService(new FileArchiveStore(retentionProperties),
+            new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()), retentionProperties);
+
+    final TrendingService trendingService = new TrendingService(trendingScoreRepository, Duration.ofHours(6), 1000, 100);
+
+    // Notifications stay buffered; nothing here runs the scheduled flush
+    final NotificationService notificationService = new NotificationService(notificationRepository, conversationRepository,
+            Integer.MAX_VALUE, 100);
+
+    final SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), true);
+    final UserService userService = new UserService(userRepository, productRepository, entityBatchLoader, new OptimisticRetry(3),
+            notificationService, singleFlight);
+    final PostService postService = new PostService(postRepository, userService, entityBatchLoader, trendingService, singleFlight);
+    final ProductService productService = new ProductService(productRepository, userService, entityBatchLoader, trendingService,
+            similarProductsRepository, singleFlight, 200, 100);
+    final CommentService commentService = new CommentService(commentRepository, postService, productService, entityBatchLoader, trendingService,
+            archiveService, notificationService, 100);
+    final ConversationService conversationService = new ConversationService(conversationRepository, userService);
+    final MessageService messageService = new MessageService(new DocumentMessageStore(messageRepository), conversationService,
+            archiveService, event -> {
+            }, 200);
+}
@@ -0,0 +1,44 @@
+package com.gri.agriconnect.benchmark;
+
+import com.gri.agriconnect.model.Conversation;
+import com.gri.agriconnect.model.Message;
+import com.gri.agriconnect.repository.MessageRepository;
+import com.gri.agriconnect.service.MessageService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageServiceBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    int messageCount;
+
+    private MessageService messageService;
+    private MessageRepository messageRepository;
+    private Conversation conversation;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        InMemoryServices services = new InMemoryServices();
+        conversation = services.conversationRepository.save(Fixtures.conversation("conversation-1", messageCount));
+        messageRepository = services.messageRepository;
+        messageService = services.messageService;
+    }
+
+    @Benchmark
+    public Message saveMessage() {
+        Message saved = messageService.saveMessage(new Message("conversation-1", "buyer", "Is the wheat seed still available?"));
+        // Undo the append so the conversation stays at messageCount ids
+        List<String> messageIds = conversation.getMessageIds();
+        messageIds.remove(messageIds.size() - 1);
+        messageRepository.deleteById(saved.getMessageId());
+        return saved;
+    }
+}
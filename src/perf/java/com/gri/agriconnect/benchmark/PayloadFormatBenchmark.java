@@ -0,0 +1,74 @@
+package com.gri.agriconnect.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gri.agriconnect.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.geo.GeoJsonModule;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Encode cost and payload size of a product page per negotiated format. The sizes are
+// printed once per fork, since JMH only reports time.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    @Param({"false", "true"})
+    boolean gzip;
+
+    @Param({"20", "100"})
+    int pageSize;
+
+    private ObjectMapper objectMapper;
+    private List<Product> productPage;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Configured like the application's converters (see MessageConverterConfig): ISO dates and the
+        // GeoJSON module in every format, so all three encode the same representation
+        Jackson2ObjectMapperBuilder app = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .modulesToInstall(GeoJsonModule.geoJsonModule());
+        objectMapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> new ObjectMapper();
+        };
+        app.configure(objectMapper);
+        productPage = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Product product = Fixtures.product("product-" + i, "user-" + (i % 10), 10);
+            product.setPosition(new GeoJsonPoint(32.85 + i * 0.01, 39.93));
+            productPage.add(product);
+        }
+        System.out.printf("%n%s%s, %d products: %d bytes%n", format, gzip ? "+gzip" : "", pageSize, encode().length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(productPage);
+        if (!gzip) {
+            return body;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,65 @@
+package com.gri.agriconnect.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gri.agriconnect.model.Product;
+import com.gri.agriconnect.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "1000"})
+    int listSize;
+
+    private ObjectMapper objectMapper;
+    private User user;
+    private byte[] userJson;
+    private Product product;
+    private List<Product> productPage;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Same settings Spring Boot applies to the MVC ObjectMapper
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        user = Fixtures.user("user-1", listSize);
+        userJson = objectMapper.writeValueAsBytes(user);
+        product = Fixtures.product("product-1", "user-1", listSize);
+        productPage = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            productPage.add(Fixtures.product("product-" + i, "user-1", 10));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws Exception {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public User deserializeUser() throws Exception {
+        return objectMapper.readValue(userJson, User.class);
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws Exception {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serializeProductPage() throws Exception {
+        return objectMapper.writeValueAsBytes(productPage);
+    }
+}
@@ -0,0 +1,41 @@
+package com.gri.agriconnect.benchmark;
+
+import com.gri.agriconnect.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserListMembershipBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    int listSize;
+
+    private User user;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        user = Fixtures.user("user-1", listSize);
+    }
+
+    @Benchmark
+    public void addThenRemoveFollower() {
+        user.addFollower("new-follower");
+        user.removeFollower("new-follower");
+    }
+
+    @Benchmark
+    public void addExistingFollower() {
+        user.addFollower("follower-" + (listSize - 1));
+    }
+
+    @Benchmark
+    public void removeMissingFollowing() {
+        user.removeFollowing("not-following");
+    }
+}
@@ -0,0 +1,40 @@
+package com.gri.agriconnect.benchmark;
+
+import com.gri.agriconnect.service.UserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    int postCount;
+
+    private UserService userService;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        InMemoryServices services = new InMemoryServices();
+        services.userRepository.save(Fixtures.user("user-1", postCount));
+        userService = services.userService;
+    }
+
+    // Add and remove keep the list at postCount, so every invocation sees the same size
+    @Benchmark
+    public void addThenRemovePost() {
+        userService.addPostToUser("user-1", "new-post");
+        userService.removePostFromUser("user-1", "new-post");
+    }
+
+    // An existing id still pays for the membership scan
+    @Benchmark
+    public void addExistingPost() {
+        userService.addPostToUser("user-1", "post-0");
+    }
+}
@@ -0,0 +1,39 @@
+package com.gri.agriconnect.load;
+
+import java.util.Arrays;
+
+// Collects every latency sample of one endpoint; sorted once when the report is printed
+final class LatencyRecorder {
+
+    private long[] samples = new long[1 << 14];
+    private int size;
+    private long errors;
+
+    synchronized void record(long nanos, boolean error) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    synchronized Summary summarize() {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return new Summary(size, errors,
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                size > 0 ? sorted[size - 1] : 0);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    record Summary(long count, long errors, long p50, long p95, long p99, long max) {
+    }
+}
@@ -0,0 +1,210 @@
+package com.gri.agriconnect.load;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import org.bson.Document;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+// Closed-loop load driver: N virtual-thread workers issue a weighted mix of REST calls
+// against a running instance for a fixed duration, then print throughput and latency
+// percentiles per endpoint. Ids are sampled from the seeded database.
+//
+// mvn -Pbenchmark test-compile exec:exec -Dperf.main=com.gri.agriconnect.load.LoadDriver \
+//     -Dperf.args="--baseUrl=http://localhost:8080 --concurrency=128 --duration=120s"
+public class LoadDriver {
+
+    private record Sample(List<String> userIds, List<String> productIds, List<String> postIds,
+                          List<String> commentIds, List<String> conversationIds) {
+    }
+
+    private record Endpoint(String name, int weight, Function<Sample, HttpRequest.Builder> request) {
+    }
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final String baseUrl;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private int totalWeight;
+
+    public LoadDriver(String baseUrl) {
+        this.baseUrl = baseUrl;
+
+        // Read-heavy mix modelled on the marketplace and feed pages
+        endpoint("GET /api/products/{id}", 25, s -> get("/api/products/" + pick(s.productIds())));
+        endpoint("GET /api/products/category/{category}", 5,
+                s -> get("/api/products/category/" + MarketplaceDataGenerator.CATEGORIES[
+                        ThreadLocalRandom.current().nextInt(MarketplaceDataGenerator.CATEGORIES.length)]));
+        endpoint("GET /api/products/supplier/{supplierId}", 8, s -> get("/api/products/supplier/" + pick(s.userIds())));
+        endpoint("GET /api/products/nearby", 5, s -> {
+            double[] center = MarketplaceDataGenerator.CITY_CENTERS[
+                    ThreadLocalRandom.current().nextInt(MarketplaceDataGenerator.CITY_CENTERS.length)];
+            return get("/api/products/nearby?lat=" + center[1] + "&lng=" + center[0] + "&radiusKm=25");
+        });
+        endpoint("GET /api/posts/{id}", 15, s -> get("/api/posts/" + pick(s.postIds())));
+        endpoint("GET /api/posts/user/{userId}", 8, s -> get("/api/posts/user/" + pick(s.userIds())));
+        endpoint("GET /api/users/{id}", 12, s -> get("/api/users/" + pick(s.userIds())));
+        endpoint("GET /api/comments/{id}", 7, s -> get("/api/comments/" + pick(s.commentIds())));
+        endpoint("GET /api/messages/conversation/{id}", 10,
+                s -> get("/api/messages/conversation/" + pick(s.conversationIds())));
+        endpoint("POST /api/comments", 5, s -> post("/api/comments", new Document("userId", pick(s.userIds()))
+                .append("content", "Load test comment")
+                .append("postId", pick(s.postIds()))));
+        endpoint("POST /api/messages", 5, s -> post("/api/messages", new Document("conversationId", pick(s.conversationIds()))
+                .append("senderId", pick(s.userIds()))
+                .append("content", "Load test message")));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Args options = new Args(args);
+        Sample sample;
+        try (MongoClient client = MongoClients.create(options.get("mongoUri", "mongodb://localhost:27017"))) {
+            MongoDatabase database = client.getDatabase(options.get("database", "agriconnect"));
+            int sampleSize = options.getInt("sampleSize", 2_000);
+            sample = new Sample(
+                    sampleIds(database, "users", sampleSize),
+                    sampleIds(database, "products", sampleSize),
+                    sampleIds(database, "posts", sampleSize),
+                    sampleIds(database, "comments", sampleSize),
+                    sampleIds(database, "conversations", sampleSize));
+        }
+
+        LoadDriver driver = new LoadDriver(options.get("baseUrl", "http://localhost:8080"));
+        Duration warmup = options.getDuration("warmup", Duration.ofSeconds(15));
+        Duration duration = options.getDuration("duration", Duration.ofSeconds(60));
+        int concurrency = options.getInt("concurrency", 64);
+
+        System.out.printf("Warming up for %ds%n", warmup.toSeconds());
+        driver.run(sample, concurrency, warmup);
+        driver.recorders.replaceAll((name, recorder) -> new LatencyRecorder());
+
+        System.out.printf("Running %d workers for %ds%n", concurrency, duration.toSeconds());
+        driver.run(sample, concurrency, duration);
+        driver.report(duration, options.get("report", "target/load-report.csv"));
+    }
+
+    private void run(Sample sample, int concurrency, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Endpoint endpoint = choose();
+                        HttpRequest request = endpoint.request().apply(sample).timeout(Duration.ofSeconds(30)).build();
+                        long started = System.nanoTime();
+                        boolean error;
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            // 404 on list endpoints means an empty result in this API, not a failure
+                            error = response.statusCode() >= 500 || response.statusCode() == 400;
+                        } catch (IOException e) {
+                            error = true;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        recorders.get(endpoint.name()).record(System.nanoTime() - started, error);
+                    }
+                });
+            }
+        }
+    }
+
+    private void report(Duration duration, String reportPath) throws IOException {
+        String header = "endpoint,requests,errors,throughput_per_s,p50_ms,p95_ms,p99_ms,max_ms";
+        List<String> rows = new ArrayList<>();
+        System.out.printf("%-42s %10s %8s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        long total = 0;
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder.Summary summary = entry.getValue().summarize();
+            total += summary.count();
+            double throughput = summary.count() / (double) duration.toSeconds();
+            System.out.printf("%-42s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(),
+                    summary.count(), summary.errors(), throughput,
+                    millis(summary.p50()), millis(summary.p95()), millis(summary.p99()), millis(summary.max()));
+            rows.add(String.format("\"%s\",%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f", entry.getKey(),
+                    summary.count(), summary.errors(), throughput,
+                    millis(summary.p50()), millis(summary.p95()), millis(summary.p99()), millis(summary.max())));
+        }
+        System.out.printf("Total throughput: %.1f req/s%n", total / (double) duration.toSeconds());
+
+        Path path = Path.of(reportPath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+            writer.println(header);
+            rows.forEach(writer::println);
+        }
+    }
+
+    private void endpoint(String name, int weight, Function<Sample, HttpRequest.Builder> request) {
+        endpoints.add(new Endpoint(name, weight, request));
+        recorders.put(name, new LatencyRecorder());
+        totalWeight += weight;
+    }
+
+    private Endpoint choose() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            roll -= endpoint.weight();
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, Document body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toJson()));
+    }
+
+    private static String pick(List<String> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static List<String> sampleIds(MongoDatabase database, String collection, int size) {
+        List<String> ids = new ArrayList<>(size);
+        for (Document document : database.getCollection(collection)
+                .aggregate(List.of(Aggregates.sample(size), Aggregates.project(new Document("_id", 1))))) {
+            ids.add(document.get("_id").toString());
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No documents in " + collection + "; run MarketplaceDataGenerator first");
+        }
+        return ids;
+    }
+}
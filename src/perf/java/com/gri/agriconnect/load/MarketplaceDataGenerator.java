@@ -0,0 +1,321 @@
+package com.gri.agriconnect.load;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Seeds a local database with a synthetic marketplace, using unordered insertMany batches.
+// Documents use the same field names the Spring Data mapping writes for the models.
+//
+// mvn -Pbenchmark test-compile exec:exec -Dperf.main=com.gri.agriconnect.load.MarketplaceDataGenerator \
+//     -Dperf.args="--products=1000000 --messages=10000000"
+public class MarketplaceDataGenerator {
+
+    static final String[] CATEGORIES = {"crops", "seeds", "tools", "fertilizers", "machinery", "irrigation", "livestock", "feed"};
+    static final String[] TAGS = {"organic", "local", "wholesale", "seasonal", "certified", "imported", "bulk", "eco", "hybrid", "heirloom"};
+    static final String[] LOCATIONS = {"Konya", "Adana", "Izmir", "Bursa", "Antalya", "Sanliurfa", "Samsun", "Eskisehir"};
+    // {longitude, latitude} of each LOCATIONS entry; users are scattered around their city
+    static final double[][] CITY_CENTERS = {{32.48, 37.87}, {35.32, 37.00}, {27.14, 38.42}, {29.06, 40.19},
+            {30.71, 36.90}, {38.79, 37.16}, {36.33, 41.29}, {30.52, 39.78}};
+
+    private final MongoDatabase database;
+    private final int batchSize;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final InsertManyOptions unordered = new InsertManyOptions().ordered(false);
+
+    public MarketplaceDataGenerator(MongoDatabase database, int batchSize) {
+        this.database = database;
+        this.batchSize = batchSize;
+    }
+
+    public static void main(String[] args) {
+        Args options = new Args(args);
+        String uri = options.get("mongoUri", "mongodb://localhost:27017");
+        String databaseName = options.get("database", "agriconnect");
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoDatabase database = client.getDatabase(databaseName);
+            if (Boolean.parseBoolean(options.get("drop", "false"))) {
+                database.drop();
+            }
+            new MarketplaceDataGenerator(database, options.getInt("batchSize", 5_000)).generate(
+                    options.getInt("users", 10_000),
+                    options.getInt("products", 100_000),
+                    options.getInt("posts", 50_000),
+                    options.getInt("comments", 500_000),
+                    options.getInt("conversations", 20_000),
+                    options.getLong("messages", 1_000_000));
+        }
+    }
+
+    public void generate(int userCount, int productCount, int postCount, int commentCount,
+                         int conversationCount, long messageCount) {
+        long started = System.nanoTime();
+        ObjectId[] userIds = ids(userCount);
+        List<List<String>> productIdsByUser = perUser(userCount);
+        List<List<String>> postIdsByUser = perUser(userCount);
+        List<List<String>> conversationIdsByUser = perUser(userCount);
+        int[] cityByUser = new int[userCount];
+        Document[] positionByUser = new Document[userCount];
+        for (int i = 0; i < userCount; i++) {
+            cityByUser[i] = random.nextInt(LOCATIONS.length);
+            positionByUser[i] = point(CITY_CENTERS[cityByUser[i]]);
+        }
+
+        ObjectId[] productIds = ids(productCount);
+        List<List<String>> commentIdsByProduct = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            commentIdsByProduct.add(new ArrayList<>());
+        }
+        ObjectId[] postIds = ids(postCount);
+        List<List<String>> commentIdsByPost = new ArrayList<>(postCount);
+        for (int i = 0; i < postCount; i++) {
+            commentIdsByPost.add(new ArrayList<>());
+        }
+
+        // Comments first so posts and products can be written with their commentIds
+        MongoCollection<Document> comments = database.getCollection("comments");
+        List<Document> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < commentCount; i++) {
+            ObjectId commentId = new ObjectId();
+            boolean onProduct = productCount > 0 && (postCount == 0 || random.nextInt(3) == 0);
+            int target = onProduct ? skewed(productCount) : skewed(postCount);
+            String parentId = onProduct ? productIds[target].toHexString() : postIds[target].toHexString();
+            (onProduct ? commentIdsByProduct : commentIdsByPost).get(target).add(commentId.toHexString());
+
+            Date createdAt = pastDate();
+            batch.add(new Document("_id", commentId)
+                    .append("userId", userIds[random.nextInt(userCount)].toHexString())
+                    .append("content", sentence(12))
+                    .append("postId", parentId)
+                    .append("likeCount", random.nextInt(20))
+                    .append("createdAt", createdAt)
+                    .append("updatedAt", createdAt));
+            batch = flush(comments, batch, false);
+        }
+        flush(comments, batch, true);
+        log("comments", commentCount, started);
+
+        MongoCollection<Document> products = database.getCollection("products");
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < productCount; i++) {
+            int supplier = skewed(userCount);
+            productIdsByUser.get(supplier).add(productIds[i].toHexString());
+            List<String> commentIds = commentIdsByProduct.get(i);
+            Date createdAt = pastDate();
+            batch.add(new Document("_id", productIds[i])
+                    .append("name", CATEGORIES[i % CATEGORIES.length] + " item " + i)
+                    .append("category", CATEGORIES[random.nextInt(CATEGORIES.length)])
+                    .append("description", sentence(30))
+                    .append("price", Math.round(random.nextDouble(1, 5_000) * 100) / 100.0)
+                    .append("supplierId", userIds[supplier].toHexString())
+                    .append("stockQuantity", random.nextInt(0, 1_000))
+                    .append("favoriteCount", random.nextInt(100))
+                    .append("likeCount", random.nextInt(500))
+                    .append("commentCount", commentIds.size())
+                    .append("categoryTags", tags())
+                    .append("commentIds", commentIds)
+                    .append("imageLinks", List.of("https://cdn.example.com/p/" + productIds[i].toHexString() + ".jpg"))
+                    .append("position", positionByUser[supplier])
+                    .append("createdAt", createdAt)
+                    .append("updatedAt", createdAt));
+            commentIdsByProduct.set(i, null);
+            batch = flush(products, batch, false);
+        }
+        flush(products, batch, true);
+        log("products", productCount, started);
+
+        MongoCollection<Document> posts = database.getCollection("posts");
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < postCount; i++) {
+            int author = skewed(userCount);
+            postIdsByUser.get(author).add(postIds[i].toHexString());
+            List<String> commentIds = commentIdsByPost.get(i);
+            Date createdAt = pastDate();
+            batch.add(new Document("_id", postIds[i])
+                    .append("userId", userIds[author].toHexString())
+                    .append("title", sentence(6))
+                    .append("content", sentence(120))
+                    .append("favoriteCount", random.nextInt(100))
+                    .append("likeCount", random.nextInt(500))
+                    .append("commentCount", commentIds.size())
+                    .append("categoryTags", tags())
+                    .append("commentIds", commentIds)
+                    .append("imageLinks", List.of())
+                    .append("createdAt", createdAt)
+                    .append("updatedAt", createdAt));
+            commentIdsByPost.set(i, null);
+            batch = flush(posts, batch, false);
+        }
+        flush(posts, batch, true);
+        log("posts", postCount, started);
+
+        // Messages are spread over conversations with a long tail of very long histories
+        MongoCollection<Document> conversations = database.getCollection("conversations");
+        MongoCollection<Document> messages = database.getCollection("messages");
+        List<Document> conversationBatch = new ArrayList<>(batchSize);
+        batch = new ArrayList<>(batchSize);
+        long[] shares = messageShares(conversationCount, messageCount);
+        for (int i = 0; i < conversationCount; i++) {
+            ObjectId conversationId = new ObjectId();
+            int sender = random.nextInt(userCount);
+            int receiver = skewed(userCount);
+            conversationIdsByUser.get(sender).add(conversationId.toHexString());
+            conversationIdsByUser.get(receiver).add(conversationId.toHexString());
+
+            long share = shares[i];
+            List<String> messageIds = new ArrayList<>((int) share);
+            long timestamp = pastDate().getTime();
+            for (long m = 0; m < share; m++) {
+                ObjectId messageId = new ObjectId();
+                messageIds.add(messageId.toHexString());
+                timestamp += random.nextInt(1_000, 3_600_000);
+                batch.add(new Document("_id", messageId)
+                        .append("conversationId", conversationId.toHexString())
+                        .append("senderId", userIds[m % 2 == 0 ? sender : receiver].toHexString())
+                        .append("content", sentence(15))
+                        .append("timestamp", new Date(timestamp))
+                        .append("isRead", random.nextInt(10) > 0));
+                batch = flush(messages, batch, false);
+            }
+            Date createdAt = pastDate();
+            conversationBatch.add(new Document("_id", conversationId)
+                    .append("senderId", userIds[sender].toHexString())
+                    .append("receiverId", userIds[receiver].toHexString())
+                    .append("messageIds", messageIds)
+                    .append("createdAt", createdAt)
+                    .append("updatedAt", new Date(Math.max(timestamp, createdAt.getTime()))));
+            conversationBatch = flush(conversations, conversationBatch, false);
+        }
+        flush(messages, batch, true);
+        flush(conversations, conversationBatch, true);
+        log("conversations and messages", conversationCount, started);
+
+        MongoCollection<Document> users = database.getCollection("users");
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < userCount; i++) {
+            Date createdAt = pastDate();
+            List<String> followers = new ArrayList<>();
+            for (int f = random.nextInt(0, 50); f > 0; f--) {
+                followers.add(userIds[random.nextInt(userCount)].toHexString());
+            }
+            batch.add(new Document("_id", userIds[i])
+                    .append("accountName", "farmer" + i)
+                    .append("firstName", "First" + i)
+                    .append("lastName", "Last" + i)
+                    .append("email", "farmer" + i + "@example.com")
+                    .append("password", "secret")
+                    .append("accountLocked", false)
+                    .append("enabled", true)
+                    .append("createdDate", createdAt)
+                    .append("lastModifiedDate", createdAt)
+                    .append("location", LOCATIONS[cityByUser[i]])
+                    .append("position", positionByUser[i])
+                    .append("followerCount", followers.size())
+                    .append("followingCount", 0)
+                    .append("conversationCount", conversationIdsByUser.get(i).size())
+                    .append("productCount", productIdsByUser.get(i).size())
+                    .append("postCount", postIdsByUser.get(i).size())
+                    .append("followerIds", followers)
+                    .append("followingIds", List.of())
+                    .append("conversationIds", conversationIdsByUser.get(i))
+                    .append("productIds", productIdsByUser.get(i))
+                    .append("postIds", postIdsByUser.get(i)));
+            batch = flush(users, batch, false);
+        }
+        flush(users, batch, true);
+        log("users", userCount, started);
+    }
+
+    private List<Document> flush(MongoCollection<Document> collection, List<Document> batch, boolean force) {
+        if (batch.isEmpty() || (!force && batch.size() < batchSize)) {
+            return batch;
+        }
+        collection.insertMany(batch, unordered);
+        return new ArrayList<>(batchSize);
+    }
+
+    private ObjectId[] ids(int count) {
+        ObjectId[] ids = new ObjectId[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = new ObjectId();
+        }
+        return ids;
+    }
+
+    private List<List<String>> perUser(int userCount) {
+        List<List<String>> lists = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            lists.add(new ArrayList<>());
+        }
+        return lists;
+    }
+
+    // GeoJSON point within about 30 km of the city center
+    private Document point(double[] center) {
+        double lng = center[0] + random.nextDouble(-0.3, 0.3);
+        double lat = center[1] + random.nextDouble(-0.3, 0.3);
+        return new Document("type", "Point").append("coordinates", List.of(lng, lat));
+    }
+
+    // Roughly Zipf-like: a few suppliers and posts attract most of the activity
+    private int skewed(int bound) {
+        double u = random.nextDouble();
+        return Math.min(bound - 1, (int) (bound * u * u * u));
+    }
+
+    private Date pastDate() {
+        return new Date(System.currentTimeMillis() - random.nextLong(0, 365L * 24 * 3_600_000));
+    }
+
+    // Exponentially distributed shares of the message budget; what the draws leave over is spread
+    // evenly, so no single conversation absorbs it
+    private long[] messageShares(int conversationCount, long messageCount) {
+        long[] shares = new long[conversationCount];
+        long messagesLeft = messageCount;
+        for (int i = 0; i < conversationCount; i++) {
+            shares[i] = Math.min(messagesLeft, (long) (messageCount / (double) conversationCount * -Math.log(1 - random.nextDouble())));
+            messagesLeft -= shares[i];
+        }
+        for (int i = 0; i < conversationCount; i++) {
+            shares[i] += messagesLeft / conversationCount + (i < messagesLeft % conversationCount ? 1 : 0);
+        }
+        return shares;
+    }
+
+    private List<String> tags() {
+        int count = random.nextInt(1, 4);
+        List<String> tags = new ArrayList<>(count);
+        while (tags.size() < count) {
+            String tag = TAGS[random.nextInt(TAGS.length)];
+            if (!tags.contains(tag)) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    private String sentence(int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(TAGS[random.nextInt(TAGS.length)]);
+        }
+        return sentence.toString();
+    }
+
+    private void log(String what, long count, long started) {
+        System.out.printf("Inserted %,d %s (%.1fs elapsed)%n", count, what, (System.nanoTime() - started) / 1e9);
+    }
+}
@@ -0,0 +1,117 @@
+package com.gri.agriconnect.cluster;
+
+import com.gri.agriconnect.model.ClusterBatch;
+import com.gri.agriconnect.model.Message;
+import com.gri.agriconnect.service.MessagePostedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterBusTest {
+
+    private final RecordingTransport transport = new RecordingTransport();
+    private final List<Object> events = new ArrayList<>();
+    private final ClusterProperties properties = new ClusterProperties();
+    private final ClusterCacheManager cacheManager;
+    private final ClusterBus bus;
+
+    ClusterBusTest() {
+        properties.setMaxBatchSize(3);
+        properties.setMaxPending(10);
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        cacheManager = new ClusterCacheManager(new ConcurrentMapCacheManager("products", "posts"),
+                beans.getBeanProvider(ClusterBus.class), properties.getLocalCaches(), Duration.ofMinutes(1));
+        bus = new ClusterBus(transport, cacheManager, events::add, properties, new SimpleMeterRegistry());
+        beans.registerSingleton("clusterBus", bus);
+    }
+
+    @Test
+    void repeatedInvalidationsAreSentOnce() {
+        properties.setMaxBatchSize(500);
+        bus.invalidate("products", "p1");
+        bus.invalidate("products", "p1");
+        bus.invalidate("posts", "p1");
+        bus.clear("products");
+        bus.clear("products");
+        bus.flush();
+        assertEquals(1, transport.published.size());
+        assertEquals(List.of(ClusterBatch.Event.invalidate("products", "p1"), ClusterBatch.Event.invalidate("posts", "p1"),
+                ClusterBatch.Event.clear("products")), transport.events());
+    }
+
+    @Test
+    void flushSplitsIntoBatchesOfMaxBatchSize() {
+        for (int i = 0; i < 7; i++) {
+            bus.invalidate("products", "p" + i);
+        }
+        bus.flush();
+        assertEquals(List.of(3, 3, 1), transport.published.stream().map(batch -> batch.getEvents().size()).toList());
+        assertTrue(transport.published.stream().allMatch(batch -> properties.getNodeId().equals(batch.getNode())));
+    }
+
+    @Test
+    void failedPublishKeepsEventsForTheNextFlush() {
+        transport.failing = true;
+        bus.invalidate("products", "p1");
+        bus.flush();
+        transport.failing = false;
+        bus.flush();
+        assertEquals(List.of(ClusterBatch.Event.invalidate("products", "p1")), transport.events());
+    }
+
+    @Test
+    void eventsBeyondMaxPendingAreDropped() {
+        for (int i = 0; i < 12; i++) {
+            bus.invalidate("products", "p" + i);
+        }
+        bus.flush();
+        assertEquals(10, transport.events().size());
+    }
+
+    @Test
+    void remoteInvalidationEvictsLocallyWithoutPublishingAgain() {
+        Cache products = cacheManager.getCache("products");
+        products.get("p1");
+        products.put("p1", "product");
+        bus.receive(batch("other-node", ClusterBatch.Event.invalidate("products", "p1")));
+        assertNull(products.get("p1"));
+        bus.flush();
+        assertTrue(transport.published.isEmpty());
+    }
+
+    @Test
+    void ownBatchesAreIgnored() {
+        Cache products = cacheManager.getCache("products");
+        products.get("p1");
+        products.put("p1", "product");
+        bus.receive(batch(properties.getNodeId(), ClusterBatch.Event.clear("products")));
+        assertEquals("product", products.get("p1").get());
+    }
+
+    @Test
+    void remoteMessagesAreRepublishedAsRemoteEvents() {
+        Message message = new Message("c1", "u1", "hello");
+        bus.receive(batch("other-node", ClusterBatch.Event.message(message)));
+        assertEquals(List.of(new MessagePostedEvent(message, true)), events);
+
+        bus.onMessagePosted(new MessagePostedEvent(message, true));
+        bus.flush();
+        assertFalse(transport.events().stream().anyMatch(event -> event.getType() == ClusterBatch.Type.MESSAGE));
+    }
+
+    private static ClusterBatch batch(String node, ClusterBatch.Event... events) {
+        return new ClusterBatch(node, LocalDateTime.now(), List.of(events));
+    }
+}
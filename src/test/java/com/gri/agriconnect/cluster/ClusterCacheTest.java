@@ -0,0 +1,98 @@
+package com.gri.agriconnect.cluster;
+
+import com.gri.agriconnect.model.ClusterBatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterCacheTest {
+
+    private final RecordingTransport transport = new RecordingTransport();
+    private final ClusterBus bus = new ClusterBus(transport, new ConcurrentMapCacheManager(), event -> {
+    }, new ClusterProperties(), new SimpleMeterRegistry());
+
+    @AfterEach
+    void forgetMisses() {
+        ClusterCache.forgetMisses();
+    }
+
+    @Test
+    void putWithoutMissIsAnnounced() {
+        ClusterCache cache = cache(Duration.ofMinutes(1));
+        cache.put("p1", "product");
+        assertEquals(List.of(ClusterBatch.Event.invalidate("products", "p1")), flushed());
+        assertEquals("product", cache.get("p1").get());
+    }
+
+    @Test
+    void putAfterMissIsFillAndNotAnnounced() {
+        ClusterCache cache = cache(Duration.ofMinutes(1));
+        assertNull(cache.get("p1"));
+        cache.put("p1", "product");
+        assertTrue(flushed().isEmpty());
+    }
+
+    @Test
+    void fillConsumesTheMiss() {
+        ClusterCache cache = cache(Duration.ofMinutes(1));
+        assertNull(cache.get("p1"));
+        cache.put("p1", "product");
+        cache.put("p1", "updated");
+        assertEquals(List.of(ClusterBatch.Event.invalidate("products", "p1")), flushed());
+    }
+
+    @Test
+    void missOfAnotherKeyDoesNotSuppressPut() {
+        ClusterCache cache = cache(Duration.ofMinutes(1));
+        assertNull(cache.get("p2"));
+        cache.put("p1", "product");
+        assertEquals(List.of(ClusterBatch.Event.invalidate("products", "p1")), flushed());
+    }
+
+    // A miss never followed by a put, e.g. a 304 version stamp, must not hide the next request's @CachePut
+    @Test
+    void putAfterRequestEndedIsAnnounced() {
+        ClusterCache cache = cache(Duration.ofMinutes(1));
+        assertNull(cache.get("p1"));
+        ClusterCache.forgetMisses();
+        cache.put("p1", "product");
+        assertEquals(List.of(ClusterBatch.Event.invalidate("products", "p1")), flushed());
+    }
+
+    @Test
+    void putAfterFillWindowIsAnnounced() throws InterruptedException {
+        ClusterCache cache = cache(Duration.ofMillis(1));
+        assertNull(cache.get("p1", String.class));
+        Thread.sleep(10);
+        cache.put("p1", "product");
+        assertEquals(List.of(ClusterBatch.Event.invalidate("products", "p1")), flushed());
+    }
+
+    @Test
+    void evictIsAnnouncedAndNonIdKeysClearTheCache() {
+        ClusterCache cache = cache(Duration.ofMinutes(1));
+        cache.evict("p1");
+        cache.evict(List.of("vegetables"));
+        cache.clear();
+        assertEquals(List.of(ClusterBatch.Event.invalidate("products", "p1"), ClusterBatch.Event.clear("products")),
+                flushed());
+    }
+
+    private ClusterCache cache(Duration fillWindow) {
+        return new ClusterCache(new ConcurrentMapCache("products"), bus, fillWindow);
+    }
+
+    private List<ClusterBatch.Event> flushed() {
+        bus.flush();
+        return transport.events();
+    }
+}
@@ -0,0 +1,165 @@
+package com.gri.agriconnect.cluster;
+
+import com.gri.agriconnect.model.Message;
+import com.gri.agriconnect.service.MessagePostedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.CacheInterceptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two nodes over one shared transport, each with its own caches behind Spring's cache annotations
+class ClusterNodesTest {
+
+    private final Map<String, String> database = new ConcurrentHashMap<>();
+    private final SharedTransport transport = new SharedTransport();
+    private final Node a = new Node();
+    private final Node b = new Node();
+
+    @AfterEach
+    void stop() {
+        a.bus.stop();
+        b.bus.stop();
+        ClusterCache.forgetMisses();
+    }
+
+    @Test
+    void cachePutOnOneNodeEvictsTheOtherNodesEntry() {
+        database.put("p1", "apples");
+        assertEquals("apples", b.request(() -> b.store.load("p1")));
+        assertNotNull(b.cached("p1"));
+
+        a.request(() -> a.store.save("p1", "pears"));
+        a.bus.flush();
+
+        assertNull(b.cached("p1"));
+        assertEquals("pears", b.request(() -> b.store.load("p1")));
+        assertEquals("pears", a.cached("p1"));
+    }
+
+    @Test
+    void cacheEvictOnOneNodeEvictsTheOtherNodesEntry() {
+        database.put("p1", "apples");
+        b.request(() -> b.store.load("p1"));
+
+        a.request(() -> {
+            a.store.delete("p1");
+            return null;
+        });
+        a.bus.flush();
+
+        assertNull(b.cached("p1"));
+    }
+
+    @Test
+    void fillingACacheIsNotAnnounced() {
+        database.put("p1", "apples");
+        a.request(() -> a.store.load("p1"));
+        b.request(() -> b.store.load("p1"));
+        b.bus.flush();
+
+        assertEquals("apples", a.cached("p1"));
+    }
+
+    @Test
+    void postedMessageReachesTheOtherNodesListeners() {
+        Message message = new Message("c1", "u1", "hello");
+        a.bus.onMessagePosted(new MessagePostedEvent(message, false));
+        a.bus.flush();
+
+        assertEquals(List.of(new MessagePostedEvent(message, true)), b.events);
+        assertTrue(a.events.isEmpty());
+    }
+
+    // What one application instance wires up: its own bus, cluster-wrapped caches and a cached service
+    private class Node {
+
+        final List<Object> events = new ArrayList<>();
+        final ClusterCacheManager cacheManager;
+        final ClusterBus bus;
+        final ProductStore store;
+
+        Node() {
+            ClusterProperties properties = new ClusterProperties();
+            DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+            cacheManager = new ClusterCacheManager(new ConcurrentMapCacheManager("products"),
+                    beans.getBeanProvider(ClusterBus.class), properties.getLocalCaches(), Duration.ofMinutes(1));
+            bus = new ClusterBus(transport.node(), cacheManager, events::add, properties, new SimpleMeterRegistry());
+            beans.registerSingleton("clusterBus", bus);
+            bus.start();
+
+            CacheInterceptor interceptor = new CacheInterceptor();
+            interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+            interceptor.setCacheManager(cacheManager);
+            interceptor.afterPropertiesSet();
+            interceptor.afterSingletonsInstantiated();
+            ProxyFactory proxy = new ProxyFactory(new DatabaseProductStore());
+            proxy.addInterface(ProductStore.class);
+            proxy.addAdvice(interceptor);
+            store = (ProductStore) proxy.getProxy();
+        }
+
+        // Misses are remembered per request, as ClusterCacheRequestFilter does
+        <T> T request(Supplier<T> work) {
+            try {
+                return work.get();
+            } finally {
+                ClusterCache.forgetMisses();
+            }
+        }
+
+        Object cached(String id) {
+            Cache.ValueWrapper value = cacheManager.getCache("products").get(id);
+            return value == null ? null : value.get();
+        }
+    }
+
+    interface ProductStore {
+        String load(String id);
+
+        String save(String id, String value);
+
+        void delete(String id);
+    }
+
+    private class DatabaseProductStore implements ProductStore {
+
+        @Override
+        @Cacheable(value = "products", key = "#p0")
+        public String load(String id) {
+            return database.get(id);
+        }
+
+        @Override
+        @CachePut(value = "products", key = "#p0")
+        public String save(String id, String value) {
+            database.put(id, value);
+            return value;
+        }
+
+        @Override
+        @CacheEvict(value = "products", key = "#p0")
+        public void delete(String id) {
+            database.remove(id);
+        }
+    }
+}
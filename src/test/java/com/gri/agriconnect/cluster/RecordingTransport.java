@@ -0,0 +1,34 @@
+package com.gri.agriconnect.cluster;
+
+import com.gri.agriconnect.model.ClusterBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Keeps published batches in memory instead of writing them to Mongo
+class RecordingTransport implements ClusterTransport {
+
+    final List<ClusterBatch> published = new ArrayList<>();
+    boolean failing;
+
+    @Override
+    public void publish(ClusterBatch batch) {
+        if (failing) {
+            throw new IllegalStateException("Mongo is unreachable");
+        }
+        published.add(batch);
+    }
+
+    @Override
+    public void start(Consumer<ClusterBatch> receiver) {
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    List<ClusterBatch.Event> events() {
+        return published.stream().flatMap(batch -> batch.getEvents().stream()).toList();
+    }
+}
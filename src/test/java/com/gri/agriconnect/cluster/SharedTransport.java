@@ -0,0 +1,36 @@
+package com.gri.agriconnect.cluster;
+
+import com.gri.agriconnect.model.ClusterBatch;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Stands in for the shared Mongo collection: every batch published through one node's view is
+// delivered synchronously to every started node, the publisher included
+class SharedTransport {
+
+    private final List<Consumer<ClusterBatch>> receivers = new CopyOnWriteArrayList<>();
+
+    ClusterTransport node() {
+        return new ClusterTransport() {
+            private Consumer<ClusterBatch> receiver;
+
+            @Override
+            public void publish(ClusterBatch batch) {
+                receivers.forEach(each -> each.accept(batch));
+            }
+
+            @Override
+            public void start(Consumer<ClusterBatch> receiver) {
+                this.receiver = receiver;
+                receivers.add(receiver);
+            }
+
+            @Override
+            public void stop() {
+                receivers.remove(receiver);
+            }
+        };
+    }
+}